@@ -0,0 +1,281 @@
+package compression;
+
+import java.io.IOException;
+
+/**
+ * 2-dimensional table that switches between a run-length encoded
+ * CompressedTable and a DenseTable holding one int per cell, depending on how
+ * fragmented its contents are. After every update it compares the number of
+ * runs with the number of cells: once runs make up more than toDense of the
+ * cells, the contents move to a DenseTable, and once they fall below
+ * toCompressed they move back. Keeping toCompressed well below toDense stops a
+ * table near one threshold from moving back and forth.
+ *
+ * Each move takes time proportional to the number of cells, but it is not
+ * needed again until the run count has changed by a fixed fraction of the
+ * cells, so its cost is spread over at least that many updates.
+ *
+ * @author cs62
+ * @param <E>
+ *            type of value stored in the table
+ */
+class AdaptiveTable<E> implements TwoDTable<E> {
+	// Default thresholds, as runs per cell: a run in a CompressedTable takes
+	// about 40 times the memory of a cell in a DenseTable
+	static final double TO_DENSE = 1.0 / 16;
+	static final double TO_COMPRESSED = 1.0 / 64;
+
+	/**
+	 * How the contents are currently stored
+	 */
+	enum Representation {
+		COMPRESSED, DENSE
+	}
+
+	protected int numRows, numCols; // Number of rows and cols in table
+	private double toDense, toCompressed; // thresholds, as runs per cell
+	private CompressedTable<E> compressed; // contents, if stored as runs
+	private DenseTable<E> dense; // contents, if stored densely
+	private int toDenseMoves, toCompressedMoves; // number of moves each way
+	private long runsAtLastMove = -1; // run count that caused the last move
+
+	/**
+	 * Constructor for table of size rows x cols, all of whose values are initially
+	 * set to defaultValue, using the default thresholds
+	 *
+	 * @param rows
+	 *            # of rows in table
+	 * @param cols
+	 *            # of columns in table
+	 * @param defaultValue
+	 *            initial value of all entries in table
+	 */
+	public AdaptiveTable(int rows, int cols, E defaultValue) {
+		this(rows, cols, defaultValue, TO_DENSE, TO_COMPRESSED);
+	}
+
+	/**
+	 * Constructor for table of size rows x cols, all of whose values are initially
+	 * set to defaultValue
+	 *
+	 * @pre: 0 < toCompressed < toDense
+	 *
+	 * @param rows
+	 *            # of rows in table
+	 * @param cols
+	 *            # of columns in table
+	 * @param defaultValue
+	 *            initial value of all entries in table
+	 * @param toDense
+	 *            runs per cell above which the table is stored densely
+	 * @param toCompressed
+	 *            runs per cell below which the table is stored as runs again
+	 */
+	public AdaptiveTable(int rows, int cols, E defaultValue, double toDense, double toCompressed) {
+		if (!(0 < toCompressed && toCompressed < toDense)) {
+			throw new IllegalArgumentException("Thresholds must satisfy 0 < toCompressed < toDense");
+		}
+		numRows = rows;
+		numCols = cols;
+		this.toDense = toDense;
+		this.toCompressed = toCompressed;
+		compressed = new CompressedTable<E>(rows, cols, defaultValue);
+	}
+
+	/**
+	 * @return how the contents are currently stored
+	 */
+	public Representation getRepresentation() {
+		return dense != null ? Representation.DENSE : Representation.COMPRESSED;
+	}
+
+	/**
+	 * @return number of times the contents have moved to a DenseTable
+	 */
+	public int getMovesToDense() {
+		return toDenseMoves;
+	}
+
+	/**
+	 * @return number of times the contents have moved back to a CompressedTable
+	 */
+	public int getMovesToCompressed() {
+		return toCompressedMoves;
+	}
+
+	/**
+	 * @return number of runs when the contents last moved, or -1 if they never
+	 *         have
+	 */
+	public long getRunsAtLastMove() {
+		return runsAtLastMove;
+	}
+
+	/**
+	 * @return number of runs the cells form in row-major order
+	 */
+	public long runCount() {
+		return dense != null ? dense.runCount() : compressed.tableInfo.size();
+	}
+
+	/**
+	 * @return the table currently holding the contents
+	 */
+	private TwoDTable<E> table() {
+		return dense != null ? dense : compressed;
+	}
+
+	/**
+	 * Given a legal (row, col) cell in the table, update its value to newInfo.
+	 *
+	 * @param row
+	 *            row of cell to be updated
+	 * @param col
+	 *            column of cell to be update
+	 * @param newInfo
+	 *            new value to place in cell (row, col)
+	 */
+	public void updateInfo(int row, int col, E newInfo) {
+		table().updateInfo(row, col, newInfo);
+		adapt();
+	}
+
+	/**
+	 * Sets every cell from (startRow, startCol) through (endRow, endCol), scanning
+	 * from left to right across successive rows, to newInfo.
+	 *
+	 * @pre: both cells are legal and (startRow, startCol) does not come after
+	 *       (endRow, endCol)
+	 *
+	 * @param startRow
+	 *            row of first cell to be updated
+	 * @param startCol
+	 *            column of first cell to be updated
+	 * @param endRow
+	 *            row of last cell to be updated
+	 * @param endCol
+	 *            column of last cell to be updated
+	 * @param newInfo
+	 *            new value to place in the cells
+	 */
+	public void fillRange(int startRow, int startCol, int endRow, int endCol, E newInfo) {
+		table().fillRange(startRow, startCol, endRow, endCol, newInfo);
+		adapt();
+	}
+
+	/**
+	 * Sets every cell in rows r0 through r1 and columns c0 through c1 to newInfo,
+	 * then checks the representation once.
+	 *
+	 * @pre: both corners are legal, r0 <= r1 and c0 <= c1
+	 *
+	 * @param r0
+	 *            first row of the rectangle
+	 * @param c0
+	 *            first column of the rectangle
+	 * @param r1
+	 *            last row of the rectangle
+	 * @param c1
+	 *            last column of the rectangle
+	 * @param newInfo
+	 *            new value to place in the cells
+	 */
+	public void fillRect(int r0, int c0, int r1, int c1, E newInfo) {
+		table().fillRect(r0, c0, r1, c1, newInfo);
+		adapt();
+	}
+
+	/**
+	 * Returns contents of specified cell
+	 *
+	 * @pre: (row,col) is legal cell in table
+	 *
+	 * @param row
+	 *            row of cell to be queried
+	 * @param col
+	 *            column of cell to be queried
+	 * @return value stored in (row, col) cell of table
+	 */
+	public E getInfo(int row, int col) {
+		return table().getInfo(row, col);
+	}
+
+	/**
+	 * Moves the contents to the other representation if the run count has
+	 * crossed its threshold.
+	 */
+	private void adapt() {
+		long cells = (long) numRows * numCols;
+		long runs = runCount();
+		if (dense == null && runs > toDense * cells && cells <= DenseTable.MAX_CELLS) {
+			runsAtLastMove = runs;
+			toDenseMoves++;
+			dense = toDenseTable(compressed);
+			compressed = null;
+		} else if (dense != null && runs < toCompressed * cells) {
+			runsAtLastMove = runs;
+			toCompressedMoves++;
+			compressed = toCompressedTable(dense);
+			dense = null;
+		}
+	}
+
+	/**
+	 * @return a DenseTable with the same contents as table
+	 */
+	private DenseTable<E> toDenseTable(CompressedTable<E> table) {
+		DoublyLinkedList<Association<RowOrderedPosn, E>>.Node run = table.tableInfo.first;
+		DenseTable<E> ans = new DenseTable<E>(numRows, numCols, run.item.theValue);
+		for (run = run.next; run != null; run = run.next) {
+			long end = run.next == null ? (long) numRows * numCols : run.next.item.theKey.offset();
+			ans.fillOffsets((int) run.item.theKey.offset(), (int) end - 1, run.item.theValue);
+		}
+		return ans;
+	}
+
+	/**
+	 * @return a CompressedTable with the same contents as table
+	 */
+	private CompressedTable<E> toCompressedTable(DenseTable<E> table) {
+		int cells = numRows * numCols;
+		CompressedTable<E> ans = new CompressedTable<E>(numRows, numCols, table.valueAt(0));
+		int start = 0;
+		for (int i = 1; i <= cells; i++) {
+			if (i == cells || table.valueIds[i] != table.valueIds[start]) {
+				if (start > 0) {
+					ans.fillOffsets(start, i - 1, table.valueAt(start));
+				}
+				start = i;
+			}
+		}
+		return ans;
+	}
+
+	/**
+	 * @return succinct description of contents of table, headed by how it is
+	 *         stored
+	 */
+	public String toString() {
+		return "AdaptiveTable (" + getRepresentation() + ", " + runCount() + " runs, " + toDenseMoves
+				+ " moves to dense, " + toCompressedMoves + " to compressed):\n" + table();
+	}
+
+	/**
+	 * @return a string representation of the entire table
+	 */
+	public String entireTable() {
+		return table().entireTable();
+	}
+
+	/**
+	 * Writes the same text as entireTable() to out.
+	 *
+	 * @param out
+	 *            destination of the text
+	 * @throws IOException
+	 *             if out cannot be written
+	 */
+	public void writeTable(Appendable out) throws IOException {
+		table().writeTable(out);
+	}
+}
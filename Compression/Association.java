@@ -85,7 +85,7 @@ public class Association<K,V> implements Map.Entry<K,V>{
      * @return true iff the keys are equal.
      */
     public boolean equals(Object other){
-        Association otherAssoc = (Association)other;
+        Association<?,?> otherAssoc = (Association<?,?>)other;
         return getKey().equals(otherAssoc.getKey());
     }
     
@@ -0,0 +1,198 @@
+package compression;
+
+/**
+ * Order in which a CompressedTable lays out its cells before compressing them
+ * into runs. Each order numbers the cells of a rows x cols table from 0 to
+ * rows * cols - 1 without gaps; a run is a block of consecutive cells in that
+ * numbering holding the same value.
+ *
+ * Row-major suits tables whose values repeat along rows, column-major tables
+ * banded by column, and Morton (Z-order) tables made of rectangular patches.
+ *
+ * @author cs62
+ */
+enum CellOrder {
+	/**
+	 * Left to right across successive rows
+	 */
+	ROW_MAJOR {
+		long offset(int row, int col, int numRows, int numCols) {
+			return (long) row * numCols + col;
+		}
+
+		RowOrderedPosn position(long offset, int numRows, int numCols) {
+			return new RowOrderedPosn((int) (offset / numCols), (int) (offset % numCols), numRows, numCols, this, offset);
+		}
+
+		void forEachRange(int r0, int c0, int r1, int c1, int numRows, int numCols, RangeAction action) {
+			if (c0 == 0 && c1 == numCols - 1) {
+				action.apply(offset(r0, 0, numRows, numCols), offset(r1, c1, numRows, numCols));
+			} else {
+				for (int r = r0; r <= r1; r++) {
+					action.apply(offset(r, c0, numRows, numCols), offset(r, c1, numRows, numCols));
+				}
+			}
+		}
+	},
+
+	/**
+	 * Top to bottom down successive columns
+	 */
+	COLUMN_MAJOR {
+		long offset(int row, int col, int numRows, int numCols) {
+			return (long) col * numRows + row;
+		}
+
+		RowOrderedPosn position(long offset, int numRows, int numCols) {
+			return new RowOrderedPosn((int) (offset % numRows), (int) (offset / numRows), numRows, numCols, this, offset);
+		}
+
+		void forEachRange(int r0, int c0, int r1, int c1, int numRows, int numCols, RangeAction action) {
+			if (r0 == 0 && r1 == numRows - 1) {
+				action.apply(offset(0, c0, numRows, numCols), offset(r1, c1, numRows, numCols));
+			} else {
+				for (int c = c0; c <= c1; c++) {
+					action.apply(offset(r0, c, numRows, numCols), offset(r1, c, numRows, numCols));
+				}
+			}
+		}
+	},
+
+	/**
+	 * Z-order: the table is covered by a square of side a power of 2, which is
+	 * split into quarters visited top left, top right, bottom left, bottom
+	 * right, each of which is visited the same way in turn. Cells of the square
+	 * outside the table are skipped.
+	 */
+	MORTON {
+		long offset(int row, int col, int numRows, int numCols) {
+			long ans = 0;
+			long r0 = 0, c0 = 0;
+			for (long size = side(numRows, numCols) >>> 1; size > 0; size >>>= 1) {
+				int quarter = (row >= r0 + size ? 2 : 0) + (col >= c0 + size ? 1 : 0);
+				// count the cells of the quarters visited before this one
+				for (int q = 0; q < quarter; q++) {
+					ans += cellsIn(r0 + (q >> 1) * size, c0 + (q & 1) * size, size, numRows, numCols);
+				}
+				r0 += (quarter >> 1) * size;
+				c0 += (quarter & 1) * size;
+			}
+			return ans;
+		}
+
+		RowOrderedPosn position(long offset, int numRows, int numCols) {
+			long target = offset;
+			long r0 = 0, c0 = 0;
+			for (long size = side(numRows, numCols) >>> 1; size > 0; size >>>= 1) {
+				// skip the quarters holding fewer cells than remain
+				int q = 0;
+				long cells = cellsIn(r0, c0, size, numRows, numCols);
+				while (offset >= cells) {
+					offset -= cells;
+					q++;
+					cells = cellsIn(r0 + (q >> 1) * size, c0 + (q & 1) * size, size, numRows, numCols);
+				}
+				r0 += (q >> 1) * size;
+				c0 += (q & 1) * size;
+			}
+			return new RowOrderedPosn((int) r0, (int) c0, numRows, numCols, this, target);
+		}
+
+		void forEachRange(int r0, int c0, int r1, int c1, int numRows, int numCols, RangeAction action) {
+			long[] pending = { 0, -1 }; // range not yet passed to action, empty at first
+			coverBlock(0, 0, side(numRows, numCols), r0, c0, r1, c1, numRows, numCols, pending, action);
+			if (pending[0] <= pending[1]) {
+				action.apply(pending[0], pending[1]);
+			}
+		}
+
+		/**
+		 * Finds the ranges covering the part of the rectangle inside the square of
+		 * the given size with top left cell (top, left), in order. A square whose
+		 * cells in the table all lie in the rectangle is one range, as Z-order
+		 * visits it in one go. Adjacent ranges are joined through pending.
+		 */
+		private void coverBlock(long top, long left, long size, int r0, int c0, int r1, int c1, int numRows,
+				int numCols, long[] pending, RangeAction action) {
+			long bottom = Math.min(top + size, numRows) - 1;
+			long right = Math.min(left + size, numCols) - 1;
+			if (top > r1 || left > c1 || bottom < r0 || right < c0) {
+				return; // square misses the rectangle
+			}
+			if (top >= r0 && left >= c0 && bottom <= r1 && right <= c1) {
+				long from = offset((int) top, (int) left, numRows, numCols);
+				long to = from + cellsIn(top, left, size, numRows, numCols) - 1;
+				if (from == pending[1] + 1) {
+					pending[1] = to;
+				} else {
+					if (pending[0] <= pending[1]) {
+						action.apply(pending[0], pending[1]);
+					}
+					pending[0] = from;
+					pending[1] = to;
+				}
+				return;
+			}
+			long half = size >>> 1;
+			for (int q = 0; q < 4; q++) {
+				coverBlock(top + (q >> 1) * half, left + (q & 1) * half, half, r0, c0, r1, c1, numRows, numCols,
+						pending, action);
+			}
+		}
+	};
+
+	/**
+	 * Receives a range of cell offsets.
+	 */
+	interface RangeAction {
+		/**
+		 * @param from
+		 *            offset of the first cell of the range
+		 * @param to
+		 *            offset of the last cell of the range
+		 */
+		void apply(long from, long to);
+	}
+
+	/**
+	 * @pre: (row,col) is legal cell in a numRows x numCols table
+	 *
+	 * @return number of cells that come before (row, col) in this order
+	 */
+	abstract long offset(int row, int col, int numRows, int numCols);
+
+	/**
+	 * @pre: 0 <= offset < numRows * numCols
+	 *
+	 * @return position of the cell with the given offset in this order
+	 */
+	abstract RowOrderedPosn position(long offset, int numRows, int numCols);
+
+	/**
+	 * Passes action ranges of offsets which together hold exactly the cells in
+	 * rows r0 through r1 and columns c0 through c1, in increasing order and as
+	 * few as this order allows.
+	 *
+	 * @pre: both corners are legal, r0 <= r1 and c0 <= c1
+	 */
+	abstract void forEachRange(int r0, int c0, int r1, int c1, int numRows, int numCols, RangeAction action);
+
+	/**
+	 * @return side of the smallest square of side a power of 2 covering a
+	 *         numRows x numCols table
+	 */
+	private static long side(int numRows, int numCols) {
+		int larger = Math.max(numRows, numCols);
+		return larger <= 1 ? 1 : (long) Integer.highestOneBit(larger - 1) << 1;
+	}
+
+	/**
+	 * @return number of cells of a numRows x numCols table inside the square of
+	 *         the given size with top left cell (top, left)
+	 */
+	private static long cellsIn(long top, long left, long size, int numRows, int numCols) {
+		long rows = Math.max(0, Math.min(size, numRows - top));
+		long cols = Math.max(0, Math.min(size, numCols - left));
+		return rows * cols;
+	}
+}
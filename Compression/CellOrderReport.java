@@ -0,0 +1,81 @@
+package compression;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Reports how many runs a table would be compressed into under each CellOrder,
+ * so that the most compact layout can be chosen when the table is built.
+ *
+ * Usage: CellOrderReport tableFile, where tableFile was written by TableFile.
+ *
+ * @author cs62
+ */
+public class CellOrderReport {
+
+	/**
+	 * Counts the runs each order would produce for the contents of table, by
+	 * reading every cell once per order.
+	 *
+	 * @param table
+	 *            table to measure
+	 * @param rows
+	 *            # of rows in table
+	 * @param cols
+	 *            # of columns in table
+	 * @return number of runs under each order
+	 */
+	public static <E> Map<CellOrder, Long> runCounts(TwoDTable<E> table, int rows, int cols) {
+		EnumMap<CellOrder, Long> ans = new EnumMap<CellOrder, Long>(CellOrder.class);
+		long cells = (long) rows * cols;
+		for (CellOrder order : CellOrder.values()) {
+			long runs = 0;
+			E prev = null;
+			for (long offset = 0; offset < cells; offset++) {
+				RowOrderedPosn posn = order.position(offset, rows, cols);
+				E value = table.getInfo(posn.getRow(), posn.getCol());
+				if (!value.equals(prev)) {
+					runs++;
+				}
+				prev = value;
+			}
+			ans.put(order, runs);
+		}
+		return ans;
+	}
+
+	/**
+	 * @param runCounts
+	 *            number of runs under each order, as returned by runCounts
+	 * @return order producing the fewest runs, preferring the earlier order on
+	 *         ties
+	 */
+	public static CellOrder best(Map<CellOrder, Long> runCounts) {
+		CellOrder ans = null;
+		for (Map.Entry<CellOrder, Long> entry : runCounts.entrySet()) {
+			if (ans == null || entry.getValue() < runCounts.get(ans)) {
+				ans = entry.getKey();
+			}
+		}
+		return ans;
+	}
+
+	/**
+	 * Prints the number of runs under each order for the table in the file named
+	 * by args[0], and the order to use.
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length != 1) {
+			System.out.println("Usage: CellOrderReport tableFile");
+			return;
+		}
+		MappedTable table = TableFile.map(Paths.get(args[0]));
+		Map<CellOrder, Long> counts = runCounts(table, table.numRows, table.numCols);
+		for (Map.Entry<CellOrder, Long> entry : counts.entrySet()) {
+			System.out.printf("%-13s %,d runs%n", entry.getKey(), entry.getValue());
+		}
+		System.out.println("Most compact: " + best(counts));
+	}
+}
@@ -0,0 +1,262 @@
+package compression;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Passes the changes made to a table on to its listeners without holding up
+ * the updates. Changes wait in a bounded queue and a single delivery thread
+ * hands them to every listener in batches. A change to the cells next to those
+ * of the last change queued, between the same values, is merged into it, so a
+ * scan of updates along a row becomes a single change. When the queue is full
+ * new changes are dropped and counted rather than blocking the update, and the
+ * next batch reports how many were lost. The delivery thread stops once the
+ * last listener is removed, dropping any changes still queued, and a new one
+ * is started if a listener is added again.
+ *
+ * @author cs62
+ * @param <E>
+ *            type of value stored in the table
+ */
+class ChangePublisher<E> {
+	static final int DEFAULT_CAPACITY = 1 << 12; // changes the queue holds by default
+	static final int MAX_BATCH = 256; // most changes delivered at once
+
+	private final int capacity;
+	private final ArrayDeque<TableChange<E>> queue = new ArrayDeque<TableChange<E>>();
+	private final CopyOnWriteArrayList<TableChangeListener<E>> listeners = new CopyOnWriteArrayList<TableChangeListener<E>>();
+	private Thread deliverer; // started when the first listener is added, null once it stops
+	private boolean delivering; // whether a batch has been taken but not yet delivered
+	private boolean closed;
+	private long droppedSinceBatch; // changes dropped since the last batch was taken
+
+	// metrics
+	private long published, merged, dropped, delivered, batches, listenerErrors;
+	private int maxDepth;
+
+	/**
+	 * Constructor for a publisher whose queue holds DEFAULT_CAPACITY changes
+	 */
+	public ChangePublisher() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * @param capacity
+	 *            most changes the queue holds before dropping new ones
+	 */
+	public ChangePublisher(int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("Queue must hold at least one change");
+		}
+		this.capacity = capacity;
+	}
+
+	/**
+	 * Adds a listener, which will receive every change published from now on,
+	 * starting the delivery thread if need be.
+	 * 
+	 * @param listener
+	 *            listener to be added
+	 */
+	public synchronized void addListener(TableChangeListener<E> listener) {
+		if (closed) {
+			throw new IllegalStateException("Publisher is closed");
+		}
+		listeners.add(listener);
+		if (deliverer == null) {
+			deliverer = new Thread(this::deliver, "TableChangePublisher");
+			deliverer.setDaemon(true);
+			deliverer.start();
+		}
+	}
+
+	/**
+	 * Removes a listener, letting the delivery thread stop if it was the last.
+	 * 
+	 * @param listener
+	 *            listener to be removed
+	 * @return true iff the listener had been added
+	 */
+	public synchronized boolean removeListener(TableChangeListener<E> listener) {
+		boolean removed = listeners.remove(listener);
+		if (listeners.isEmpty()) {
+			notifyAll();
+		}
+		return removed;
+	}
+
+	/**
+	 * @return the delivery thread, or null if none is running
+	 */
+	synchronized Thread getDeliverer() {
+		return deliverer;
+	}
+
+	/**
+	 * Queues a change for delivery, merging it into the last change queued if
+	 * possible, or dropping it if the queue is full. Never blocks on the
+	 * listeners.
+	 * 
+	 * @param change
+	 *            change just made to the table
+	 */
+	synchronized void publish(TableChange<E> change) {
+		if (closed || listeners.isEmpty()) {
+			return;
+		}
+		published++;
+		TableChange<E> last = queue.peekLast();
+		if (last != null && last.canMerge(change)) {
+			queue.pollLast();
+			queue.addLast(last.merge(change));
+			merged++;
+		} else if (queue.size() == capacity) {
+			dropped++;
+			droppedSinceBatch++;
+		} else {
+			queue.addLast(change);
+			maxDepth = Math.max(maxDepth, queue.size());
+			notifyAll();
+		}
+	}
+
+	/**
+	 * Delivers batches of changes to the listeners until the publisher is closed
+	 * and its queue is empty, or there are no listeners left.
+	 */
+	private void deliver() {
+		while (true) {
+			ArrayList<TableChange<E>> batch;
+			long lost;
+			synchronized (this) {
+				while (queue.isEmpty() && droppedSinceBatch == 0 && !closed && !listeners.isEmpty()) {
+					try {
+						wait();
+					} catch (InterruptedException e) {
+						deliverer = null;
+						return;
+					}
+				}
+				if (listeners.isEmpty()) {
+					queue.clear(); // nobody left to deliver them to
+					droppedSinceBatch = 0;
+				}
+				if (queue.isEmpty() && droppedSinceBatch == 0) {
+					deliverer = null; // the next listener added starts a new thread
+					notifyAll();
+					return; // closed or no listeners, and nothing left
+				}
+				batch = new ArrayList<TableChange<E>>(Math.min(queue.size(), MAX_BATCH));
+				while (!queue.isEmpty() && batch.size() < MAX_BATCH) {
+					batch.add(queue.pollFirst());
+				}
+				lost = droppedSinceBatch;
+				droppedSinceBatch = 0;
+				delivering = true;
+			}
+			for (TableChangeListener<E> listener : listeners) {
+				try {
+					listener.tableChanged(batch, lost);
+				} catch (RuntimeException e) {
+					synchronized (this) {
+						listenerErrors++; // one faulty listener must not stop delivery to the others
+					}
+				}
+			}
+			synchronized (this) {
+				delivering = false;
+				delivered += batch.size();
+				batches++;
+				notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * Waits until every change queued so far has been delivered.
+	 * 
+	 * @throws InterruptedException
+	 *             if interrupted while waiting
+	 */
+	public synchronized void flush() throws InterruptedException {
+		while (deliverer != null && deliverer.isAlive() && (!queue.isEmpty() || droppedSinceBatch > 0 || delivering)) {
+			wait();
+		}
+	}
+
+	/**
+	 * Stops accepting changes and lets the delivery thread finish delivering
+	 * those already queued.
+	 */
+	public synchronized void close() {
+		closed = true;
+		notifyAll();
+	}
+
+	/**
+	 * @return number of changes waiting to be delivered
+	 */
+	public synchronized int getQueueDepth() {
+		return queue.size();
+	}
+
+	/**
+	 * @return greatest number of changes that have been waiting at once
+	 */
+	public synchronized int getMaxQueueDepth() {
+		return maxDepth;
+	}
+
+	/**
+	 * @return number of changes published, including those merged or dropped
+	 */
+	public synchronized long getPublished() {
+		return published;
+	}
+
+	/**
+	 * @return number of changes merged into the change queued before them
+	 */
+	public synchronized long getMerged() {
+		return merged;
+	}
+
+	/**
+	 * @return number of changes dropped because the queue was full
+	 */
+	public synchronized long getDropped() {
+		return dropped;
+	}
+
+	/**
+	 * @return number of (merged) changes delivered to the listeners
+	 */
+	public synchronized long getDelivered() {
+		return delivered;
+	}
+
+	/**
+	 * @return number of batches delivered
+	 */
+	public synchronized long getBatches() {
+		return batches;
+	}
+
+	/**
+	 * @return number of times a listener threw an exception
+	 */
+	public synchronized long getListenerErrors() {
+		return listenerErrors;
+	}
+
+	/**
+	 * @return summary of the metrics
+	 */
+	public synchronized String toString() {
+		return "ChangePublisher: depth " + queue.size() + " (max " + maxDepth + " of " + capacity + "), "
+				+ published + " published, " + merged + " merged, " + dropped + " dropped, " + delivered
+				+ " delivered in " + batches + " batches";
+	}
+}
@@ -9,12 +9,44 @@
  */
 package compression;
 
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
 class CompressedTable<E> implements TwoDTable<E> {
 	// List holding table entries - do not change
 	// We've made the variables protected to facilitate testing (grading)
 	protected CurDoublyLinkedList<Association<RowOrderedPosn, E>> tableInfo;
 	protected int numRows, numCols; // Number of rows and cols in table
 	protected E defaultValue;
+	// Index of the nodes of tableInfo, keyed by the offset of the run they start
+	protected TreeMap<Long, DoublyLinkedList<Association<RowOrderedPosn, E>>.Node> runIndex;
+	// Number of runs find will step past from current before falling back on runIndex
+	protected static final int CURSOR_STEPS = 4;
+	// How often find located its run near current, and how often it used runIndex
+	protected long cursorHits, cursorMisses;
+	// Persistent copy of the runs shared with snapshots, or null while no snapshot needs it
+	protected RunTree<E> versions;
+	// Last snapshot taken, which versions is kept up to date for until it is collected
+	protected WeakReference<TableSnapshot<E>> lastSnapshot;
+	// Distinct values in the table; tableInfo holds Runs carrying their codes
+	protected ValueDictionary<E> dictionary = new ValueDictionary<E>();
+	// Order of the cells of the table, which runs and offsets follow
+	protected CellOrder order;
+	// Cache of running totals of the runs of each value queried by count, cleared by
+	// every update that changes a cell, or null unless enabled
+	protected HashMap<Integer, PrefixCounts> prefixCounts;
+	// Passes changes on to listeners, or null until one is added
+	protected ChangePublisher<E> changes;
 
 	/**
 	 * Constructor for table of size rows x cols, all of whose values are initially
@@ -28,16 +60,42 @@ class CompressedTable<E> implements TwoDTable<E> {
 	 *            initial value of all entries in table
 	 */
 	public CompressedTable(int rows, int cols, E defaultValue) {
+		this(rows, cols, defaultValue, CellOrder.ROW_MAJOR);
+	}
+
+	/**
+	 * Constructor for table of size rows x cols, all of whose values are initially
+	 * set to defaultValue, which compresses its cells into runs in the given
+	 * order. Choosing the order that produces the fewest runs for the data makes
+	 * the table smaller and faster.
+	 * 
+	 * @param rows
+	 *            # of rows in table
+	 * @param cols
+	 *            # of columns in table
+	 * @param defaultValue
+	 *            initial value of all entries in table
+	 * @param order
+	 *            order in which the cells are laid out
+	 */
+	public CompressedTable(int rows, int cols, E defaultValue, CellOrder order) {
 		numRows = rows;
 		numCols = cols;
+		this.order = order;
 		
-		RowOrderedPosn newTable = new RowOrderedPosn(0,0,numRows,numCols);
-		Association<RowOrderedPosn, E> assoc = new Association<RowOrderedPosn, E>(newTable,defaultValue);
+		RowOrderedPosn newTable = new RowOrderedPosn(0,0,numRows,numCols,order);
+		int code = dictionary.intern(defaultValue);
+		Association<RowOrderedPosn, E> assoc = new Run<E>(newTable, dictionary.value(code), code);
+		dictionary.addRuns(code, 1);
+		dictionary.addCells(code, (long) numRows * numCols);
 		
 		tableInfo = new CurDoublyLinkedList<Association<RowOrderedPosn, E>>();
 		
 		tableInfo.addFirst(assoc);
 		
+		runIndex = new TreeMap<Long, DoublyLinkedList<Association<RowOrderedPosn, E>>.Node>();
+		runIndex.put(0L, tableInfo.current);
+		
 		this.defaultValue = defaultValue;
 	}
 
@@ -50,25 +108,39 @@ class CompressedTable<E> implements TwoDTable<E> {
 	 * 
 	 * e.g., if the table only contains a cell at (0,0) and you pass the cell (3,3)
 	 * it will set the current to (0,0).
+	 * 
+	 * Searches first from wherever current was left by the previous access, so
+	 * scanning the table in order costs constant time per cell. If the run is not
+	 * within CURSOR_STEPS runs of current, uses runIndex, so takes time
+	 * logarithmic in the number of runs.
 	 */
 	private void find(RowOrderedPosn findPos) {
-		tableInfo.first();
-		Association<RowOrderedPosn, E> entry = tableInfo.currentValue();
-		RowOrderedPosn pos = entry.getKey();
-		while (!findPos.less(pos)) {
-			// search through list until pass elt looking for
-			tableInfo.next();
-			if (tableInfo.isOff()) {
-				break;
+		if (!tableInfo.isOff() && tableInfo.current != null) {
+			DoublyLinkedList<Association<RowOrderedPosn, E>>.Node run = tableInfo.current;
+			for (int step = 0; step <= CURSOR_STEPS && run != null; step++) {
+				if (findPos.less(run.item.theKey)) {
+					run = run.prev; // findPos is before run
+				} else if (run.next != null && !findPos.less(run.next.item.theKey)) {
+					run = run.next; // findPos is after run
+				} else {
+					cursorHits++;
+					tableInfo.setCurrent(run);
+					return;
+				}
 			}
-			entry = tableInfo.currentValue();
-			pos = entry.getKey();
 		}
-		tableInfo.back(); // Since passed desired entry, go back to it.
+		
+		// the run covering findPos is the one with the greatest start not after it
+		cursorMisses++;
+		Map.Entry<Long, DoublyLinkedList<Association<RowOrderedPosn, E>>.Node> entry = runIndex
+				.floorEntry(findPos.offset());
+		tableInfo.setCurrent(entry.getValue());
 	}
 
 	/**
 	 * Given a legal (row, col) cell in the table, update its value to newInfo. 
+	 * Only the run covering the cell and its immediate neighbours are split or
+	 * merged, so the list always holds one run per maximal block of equal values.
 	 * 
 	 * @param row
 	 *            row of cell to be updated
@@ -83,50 +155,262 @@ class CompressedTable<E> implements TwoDTable<E> {
 			throw new IllegalArgumentException("Row or Column does not exist in current table");
 		}
 		
-		RowOrderedPosn inputPosition = new RowOrderedPosn(row,col,numRows,numCols);
-		RowOrderedPosn nextPosition = inputPosition.next();
-		
-		//checks if this table entry already has this value
-		if(!this.getInfo(row, col).equals(newInfo)) {
-			
-			Association<RowOrderedPosn, E> newEntry = new Association<RowOrderedPosn, E>(inputPosition, newInfo);
-			E previousItem = this.getInfo(row, col);
-			
-			if(this.doesAssociationExist(row, col)){
-				//if the list item exists, find and replace item
-				this.find(inputPosition);
-				tableInfo.currentValue().setValue(newInfo);
-				
-				//if the next position is not null and there is not a list time for it, create new list item to retain order
-				if(nextPosition!=null && !this.doesAssociationExist(nextPosition.getRow(), nextPosition.getCol())) {
-					tableInfo.addAfterCurrent(new Association<RowOrderedPosn, E>(nextPosition, previousItem));
-				}
-				
-			}else{
-				//if list item does not exist, create new item
-				tableInfo.addAfterCurrent(newEntry);
-				
-				//if entry is not at the end of table or does not already have an entry, make a new list item
-				if((row+1!=numRows||col+1!=numCols)&&
-						(!this.doesAssociationExist(nextPosition.getRow(), nextPosition.getCol()))) {
-					tableInfo.addAfterCurrent(new Association<RowOrderedPosn, E>(nextPosition, previousItem));
-				}
+		long offset = new RowOrderedPosn(row,col,numRows,numCols,order).offset();
+		fill(offset, offset, newInfo);
+	}
+
+	/**
+	 * Sets every cell from (startRow, startCol) through (endRow, endCol), scanning
+	 * from left to right across successive rows, to newInfo. In a row-major table
+	 * the runs inside the range are replaced by a single run in one splice;
+	 * otherwise the range is filled as up to three rectangles.
+	 * 
+	 * @pre: both cells are legal and (startRow, startCol) does not come after
+	 *       (endRow, endCol)
+	 * 
+	 * @param startRow
+	 *            row of first cell to be updated
+	 * @param startCol
+	 *            column of first cell to be updated
+	 * @param endRow
+	 *            row of last cell to be updated
+	 * @param endCol
+	 *            column of last cell to be updated
+	 * @param newInfo
+	 *            new value to place in the cells
+	 */
+	public void fillRange(int startRow, int startCol, int endRow, int endCol, E newInfo) {
+		checkCell(startRow, startCol);
+		checkCell(endRow, endCol);
+		long from = (long) startRow * numCols + startCol;
+		long to = (long) endRow * numCols + endCol;
+		if (from > to) {
+			throw new IllegalArgumentException("Start of range comes after its end");
+		}
+		if (order == CellOrder.ROW_MAJOR) {
+			fill(from, to, newInfo);
+		} else if (startRow == endRow) {
+			fillCells(startRow, startCol, endRow, endCol, newInfo);
+		} else {
+			//rest of the first row, the whole rows in between, and the start of the last row
+			fillCells(startRow, startCol, startRow, numCols - 1, newInfo);
+			if (startRow + 1 < endRow) {
+				fillCells(startRow + 1, 0, endRow - 1, numCols - 1, newInfo);
 			}
+			fillCells(endRow, 0, endRow, endCol, newInfo);
+		}
+	}
+
+	/**
+	 * Sets every cell in rows r0 through r1 and columns c0 through c1 to newInfo,
+	 * with one splice per range of consecutive cells in the table's order: one
+	 * per row in a row-major table (or a single splice if the rectangle spans
+	 * whole rows), one per column in a column-major table, and one per aligned
+	 * square in a Morton table.
+	 * 
+	 * @pre: both corners are legal, r0 <= r1 and c0 <= c1
+	 * 
+	 * @param r0
+	 *            first row of the rectangle
+	 * @param c0
+	 *            first column of the rectangle
+	 * @param r1
+	 *            last row of the rectangle
+	 * @param c1
+	 *            last column of the rectangle
+	 * @param newInfo
+	 *            new value to place in the cells
+	 */
+	public void fillRect(int r0, int c0, int r1, int c1, E newInfo) {
+		checkRect(r0, c0, r1, c1);
+		fillCells(r0, c0, r1, c1, newInfo);
+	}
+
+	/**
+	 * Sets the cells of a rectangle to newInfo, one range of consecutive cells at
+	 * a time.
+	 * 
+	 * @pre: both corners are legal, r0 <= r1 and c0 <= c1
+	 */
+	private void fillCells(int r0, int c0, int r1, int c1, E newInfo) {
+		order.forEachRange(r0, c0, r1, c1, numRows, numCols, (from, to) -> fill(from, to, newInfo));
+	}
+
+	/**
+	 * Sets the cells at offsets from through to (inclusive) in the order of the
+	 * table to newInfo.
+	 * 
+	 * @param from
+	 *            offset of the first cell to be updated
+	 * @param to
+	 *            offset of the last cell to be updated
+	 * @param newInfo
+	 *            new value to place in the cells
+	 */
+	void fillOffsets(long from, long to, E newInfo) {
+		if (from < 0 || from > to || to >= (long) numRows * numCols) {
+			throw new IllegalArgumentException("Range of cells is not in the table");
+		}
+		fill(from, to, newInfo);
+	}
+
+	/**
+	 * throws IllegalArgumentException if (row, col) is not a cell of the table
+	 */
+	private void checkCell(int row, int col) {
+		if (row < 0 || col < 0 || row >= numRows || col >= numCols) {
+			throw new IllegalArgumentException("Row or Column does not exist in current table");
 		}
+	}
+
+	/**
+	 * Sets the cells at offsets from through to (inclusive) to newInfo. Finds the
+	 * run covering from once, removes the runs starting inside the range, and
+	 * then splits or merges only with the immediate neighbours, so the list
+	 * always holds one run per maximal block of equal values. Values are compared
+	 * by their dictionary codes. Leaves current at the run holding the range.
+	 * 
+	 * @pre: 0 <= from <= to < numRows * numCols
+	 */
+	private void fill(long from, long to, E newInfo) {
+		if (newInfo == null) {
+			throw new IllegalArgumentException("Cannot create a node that contains the null value");
+		}
+		
+		int code = dictionary.intern(newInfo);
+		long end = (long) numRows * numCols;
+		
+		//locate the run covering from once, everything else is done relative to it
+		this.find(positionAt(from));
+		DoublyLinkedList<Association<RowOrderedPosn, E>>.Node run = tableInfo.current;
 		
-		//clean excess list links, goes through list and removes unneeded nodes
-		//not the most efficient method but it works
-		tableInfo.current = tableInfo.first.next;
-		for(int i = 1;i<tableInfo.size();i++) {
-			E prevItem = tableInfo.current.prev.item.theValue;
-			E currentItem = tableInfo.current.item.theValue;
-			if(currentItem.equals(prevItem)) {
-				tableInfo.removeCurrent();
-				i--;
-			}else {
-				tableInfo.current=tableInfo.current.next;
+		//checks if the range already holds this value
+		if (code(run) == code && (run.next == null || run.next.item.theKey.offset() > to)) {
+			return;
+		}
+		if (prefixCounts != null) {
+			prefixCounts.clear(); // the totals no longer match the runs
+		}
+		
+		//absorb the runs starting inside the range, remembering the value the range ended with;
+		//the cells of the range stop counting towards the values they held
+		int afterCode = code(run);
+		dictionary.addCells(afterCode, from - Math.min(to + 1, runEnd(run, end)));
+		publishChange(from, Math.min(to + 1, runEnd(run, end)) - 1, afterCode, code);
+		while (run.next != null && run.next.item.theKey.offset() <= to) {
+			afterCode = code(run.next);
+			dictionary.addCells(afterCode, run.next.item.theKey.offset() - Math.min(to + 1, runEnd(run.next, end)));
+			publishChange(run.next.item.theKey.offset(), Math.min(to + 1, runEnd(run.next, end)) - 1, afterCode, code);
+			removeRun(run.next);
+		}
+		dictionary.addCells(code, to - from + 1);
+		
+		DoublyLinkedList<Association<RowOrderedPosn, E>>.Node filled;
+		if (run.item.theKey.offset() == from) {
+			//range heads its run, so reuse the node
+			Run<E> head = (Run<E>) run.item;
+			dictionary.addRuns(head.code, -1);
+			dictionary.addRuns(code, 1);
+			head.setValue(dictionary.value(code));
+			head.code = code;
+			if (keepsVersions()) {
+				versions = RunTree.put(versions, from, head.theValue);
 			}
+			filled = run;
+		} else {
+			filled = addRunAfter(run, positionAt(from), code);
+		}
+		
+		//cells after the range keep the value they had, unless another run already starts there
+		boolean endsRun = to + 1 == end || (filled.next != null && filled.next.item.theKey.offset() == to + 1);
+		if (!endsRun && afterCode != code) {
+			addRunAfter(filled, positionAt(to + 1), afterCode);
+		} else if (filled.next != null && code(filled.next) == code) {
+			removeRun(filled.next);
 		}
+		
+		if (filled.prev != null && code(filled.prev) == code) {
+			DoublyLinkedList<Association<RowOrderedPosn, E>>.Node merged = filled.prev;
+			removeRun(filled);
+			filled = merged;
+		}
+		tableInfo.setCurrent(filled);
+	}
+
+	/**
+	 * Publishes the change of the cells at offsets from through to (inclusive)
+	 * from the value with code oldCode to that with code newCode, if there are
+	 * listeners and the value has changed.
+	 */
+	private void publishChange(long from, long to, int oldCode, int newCode) {
+		if (changes != null && oldCode != newCode) {
+			changes.publish(new TableChange<E>(from, to, positionAt(from), positionAt(to), dictionary.value(oldCode),
+					dictionary.value(newCode)));
+		}
+	}
+
+	/**
+	 * @return dictionary code of the value held by the run of node
+	 */
+	private int code(DoublyLinkedList<Association<RowOrderedPosn, E>>.Node node) {
+		return ((Run<E>) node.item).code;
+	}
+
+	/**
+	 * @return offset just past the last cell of the run of node, given the
+	 *         offset end just past the last cell of the table
+	 */
+	private long runEnd(DoublyLinkedList<Association<RowOrderedPosn, E>>.Node node, long end) {
+		return node.next == null ? end : node.next.item.theKey.offset();
+	}
+
+	/**
+	 * @return position of the cell at the given offset
+	 */
+	private RowOrderedPosn positionAt(long offset) {
+		return order.position(offset, numRows, numCols);
+	}
+
+	/**
+	 * Inserts a new run into the table right after an existing one.
+	 * 
+	 * @param node
+	 *            node of the run to insert after
+	 * @param start
+	 *            position where the new run starts
+	 * @param code
+	 *            dictionary code of the value held by the new run
+	 * @return node of the new run
+	 */
+	private DoublyLinkedList<Association<RowOrderedPosn, E>>.Node addRunAfter(
+			DoublyLinkedList<Association<RowOrderedPosn, E>>.Node node, RowOrderedPosn start, int code) {
+		E value = dictionary.value(code);
+		tableInfo.setCurrent(node);
+		tableInfo.addAfterCurrent(new Run<E>(start, value, code));
+		runIndex.put(start.offset(), tableInfo.current);
+		dictionary.addRuns(code, 1);
+		if (keepsVersions()) {
+			versions = RunTree.put(versions, start.offset(), value);
+		}
+		return tableInfo.current;
+	}
+
+	/**
+	 * Removes a run from the table, so that its cells belong to the run before it.
+	 * 
+	 * @pre: node is not the first run of the table
+	 * 
+	 * @param node
+	 *            node of the run to remove
+	 */
+	private void removeRun(DoublyLinkedList<Association<RowOrderedPosn, E>>.Node node) {
+		runIndex.remove(node.item.theKey.offset());
+		dictionary.addRuns(code(node), -1);
+		if (keepsVersions()) {
+			versions = RunTree.remove(versions, node.item.theKey.offset());
+		}
+		tableInfo.setCurrent(node);
+		tableInfo.removeCurrent();
 	}
 
 	/**
@@ -145,12 +429,398 @@ class CompressedTable<E> implements TwoDTable<E> {
 			throw new IllegalArgumentException("Row or Column does not exist in current table");
 		}
 		
-		RowOrderedPosn newPosition = new RowOrderedPosn(row,col,numRows,numCols);
+		RowOrderedPosn newPosition = new RowOrderedPosn(row,col,numRows,numCols,order);
 		this.find(newPosition);
 
 		return tableInfo.current.item.theValue;
 	}
+
+	/**
+	 * Returns contents of specified cell like getInfo, but looks the cell up in
+	 * runIndex without moving the current pointer or touching the cursor
+	 * counters. It changes nothing, so any number of threads may call it at once
+	 * as long as none is updating the table.
+	 * 
+	 * @pre: (row,col) is legal cell in table
+	 * 
+	 * @param row
+	 *            row of cell to be queried
+	 * @param col
+	 *            column of cell to be queried
+	 * @return value stored in (row, col) cell of table
+	 */
+	public E peekInfo(int row, int col) {
+		checkCell(row, col);
+		return runIndex.floorEntry(order.offset(row, col, numRows, numCols)).getValue().item.theValue;
+	}
 	
+	/**
+	 * Iterates over the runs of the table in order, straight from tableInfo and
+	 * without touching the current pointer. The table must not be updated while
+	 * the iterator is in use.
+	 * 
+	 * @return iterator over the runs of the table
+	 */
+	public Iterator<TableRun<E>> runs() {
+		return new Iterator<TableRun<E>>() {
+			private DoublyLinkedList<Association<RowOrderedPosn, E>>.Node next = tableInfo.first;
+
+			public boolean hasNext() {
+				return next != null;
+			}
+
+			public TableRun<E> next() {
+				if (next == null) {
+					throw new NoSuchElementException();
+				}
+				TableRun<E> ans = runAt(next);
+				next = next.next;
+				return ans;
+			}
+		};
+	}
+
+	/**
+	 * Returns a spliterator over the runs of the table in order, which splits by
+	 * dividing the cells it covers in half and finding the run starting there in
+	 * runIndex, so the runs of a table can be processed by a parallel stream. The
+	 * table must not be updated while the spliterator is in use.
+	 * 
+	 * @return spliterator over the runs of the table
+	 */
+	public Spliterator<TableRun<E>> runSpliterator() {
+		return new RunSpliterator(tableInfo.first, (long) numRows * numCols, tableInfo.size());
+	}
+
+	/**
+	 * @param parallel
+	 *            whether the stream should be parallel
+	 * @return stream of the runs of the table, in order
+	 */
+	public Stream<TableRun<E>> runStream(boolean parallel) {
+		return StreamSupport.stream(runSpliterator(), parallel);
+	}
+
+	/**
+	 * @return the run of node as a TableRun
+	 */
+	private TableRun<E> runAt(DoublyLinkedList<Association<RowOrderedPosn, E>>.Node node) {
+		RowOrderedPosn start = node.item.theKey;
+		long length = runEnd(node, (long) numRows * numCols) - start.offset();
+		return new TableRun<E>(start.getRow(), start.getCol(), length, node.item.theValue);
+	}
+
+	/**
+	 * Spliterator over the runs starting from a node up to (but not including)
+	 * the first run starting at or after the offset end.
+	 */
+	private class RunSpliterator implements Spliterator<TableRun<E>> {
+		private DoublyLinkedList<Association<RowOrderedPosn, E>>.Node next; // next run, or null when done
+		private long end; // offset where the runs covered stop
+		private long estimate; // estimated number of runs left
+
+		RunSpliterator(DoublyLinkedList<Association<RowOrderedPosn, E>>.Node next, long end, long estimate) {
+			this.next = next;
+			this.end = end;
+			this.estimate = estimate;
+		}
+
+		public boolean tryAdvance(Consumer<? super TableRun<E>> action) {
+			if (next == null || next.item.theKey.offset() >= end) {
+				return false;
+			}
+			action.accept(runAt(next));
+			next = next.next;
+			return true;
+		}
+
+		public void forEachRemaining(Consumer<? super TableRun<E>> action) {
+			for (; next != null && next.item.theKey.offset() < end; next = next.next) {
+				action.accept(runAt(next));
+			}
+		}
+
+		public Spliterator<TableRun<E>> trySplit() {
+			if (next == null || estimate < 2) {
+				return null;
+			}
+			long start = next.item.theKey.offset();
+			Map.Entry<Long, DoublyLinkedList<Association<RowOrderedPosn, E>>.Node> middle = runIndex
+					.ceilingEntry(start + (end - start) / 2);
+			if (middle == null || middle.getKey() <= start || middle.getKey() >= end) {
+				return null; // no run starts in the second half
+			}
+			// hand over the runs in the first half, keeping the rest
+			estimate /= 2;
+			RunSpliterator prefix = new RunSpliterator(next, middle.getKey(), estimate);
+			next = middle.getValue();
+			return prefix;
+		}
+
+		public long estimateSize() {
+			return estimate;
+		}
+
+		public int characteristics() {
+			return ORDERED | DISTINCT | NONNULL;
+		}
+	}
+
+	/**
+	 * Sets whether count caches running totals of the lengths of the runs of each
+	 * value it is asked about. The totals are a cache, not part of the run index:
+	 * every update that changes a cell discards them all, and the next count of
+	 * each value rebuilds its totals, taking time linear in the number of runs.
+	 * Until then, counting a range of consecutive cells takes time logarithmic in
+	 * the number of runs. Worth enabling only when many counts are made between
+	 * updates; when counts and updates alternate, every count pays O(runs) and
+	 * is slower than without the totals.
+	 * 
+	 * @param enabled
+	 *            whether to keep running totals
+	 */
+	public void setPrefixCounts(boolean enabled) {
+		prefixCounts = enabled ? new HashMap<Integer, PrefixCounts>() : null;
+	}
+
+	/**
+	 * Sets how many removed run nodes the table keeps to reuse for runs it adds
+	 * later, instead of allocating new ones; 0 turns the pool off. Updates that
+	 * split and merge runs over and over then make less garbage. Iterators and
+	 * spliterators over the runs must not be used across updates while the pool
+	 * is on, as a node they hold may come back as another run.
+	 * 
+	 * @param capacity
+	 *            most nodes kept for reuse
+	 */
+	public void setNodePool(int capacity) {
+		tableInfo.setNodePool(capacity);
+	}
+
+	/**
+	 * Counts the cells in rows r0 through r1 and columns c0 through c1 holding
+	 * value, by intersecting the runs with each range of consecutive cells of the
+	 * rectangle (one per row in a row-major table). Takes time proportional to
+	 * the number of ranges and runs met. With prefix counts enabled it takes time
+	 * proportional to the number of ranges times the log of the number of runs,
+	 * but the first count of a value after each update first rebuilds its totals
+	 * in time linear in the number of runs; see setPrefixCounts.
+	 * 
+	 * @pre: both corners are legal, r0 <= r1 and c0 <= c1
+	 * 
+	 * @param r0
+	 *            first row of the rectangle
+	 * @param c0
+	 *            first column of the rectangle
+	 * @param r1
+	 *            last row of the rectangle
+	 * @param c1
+	 *            last column of the rectangle
+	 * @param value
+	 *            value to be counted
+	 * @return number of cells of the rectangle holding value
+	 */
+	public long count(int r0, int c0, int r1, int c1, E value) {
+		checkRect(r0, c0, r1, c1);
+		int code = dictionary.code(value);
+		if (dictionary.cellCount(value) == 0) {
+			return 0;
+		} else if (r0 == 0 && c0 == 0 && r1 == numRows - 1 && c1 == numCols - 1) {
+			return dictionary.cellCount(value);
+		}
+		long[] ans = { 0 };
+		if (prefixCounts != null) {
+			PrefixCounts totals = prefixCounts.computeIfAbsent(code, this::buildPrefixCounts);
+			order.forEachRange(r0, c0, r1, c1, numRows, numCols, (from, to) -> ans[0] += totals.cellsIn(from, to));
+		} else {
+			long[] counts = new long[dictionary.size()];
+			order.forEachRange(r0, c0, r1, c1, numRows, numCols, (from, to) -> addRuns(from, to, counts));
+			ans[0] = counts[code];
+		}
+		return ans[0];
+	}
+
+	/**
+	 * Counts the cells in rows r0 through r1 and columns c0 through c1 holding
+	 * each value, by intersecting the runs with each range of consecutive cells of
+	 * the rectangle (one per row in a row-major table). Takes time proportional
+	 * to the number of ranges and runs met.
+	 * 
+	 * @pre: both corners are legal, r0 <= r1 and c0 <= c1
+	 * 
+	 * @param r0
+	 *            first row of the rectangle
+	 * @param c0
+	 *            first column of the rectangle
+	 * @param r1
+	 *            last row of the rectangle
+	 * @param c1
+	 *            last column of the rectangle
+	 * @return map from each value found in the rectangle to its number of cells,
+	 *         in the order of their dictionary codes
+	 */
+	public Map<E, Long> histogram(int r0, int c0, int r1, int c1) {
+		checkRect(r0, c0, r1, c1);
+		long[] counts = new long[dictionary.size()];
+		order.forEachRange(r0, c0, r1, c1, numRows, numCols, (from, to) -> addRuns(from, to, counts));
+		Map<E, Long> ans = new LinkedHashMap<E, Long>();
+		for (int code = 0; code < counts.length; code++) {
+			if (counts[code] > 0) {
+				ans.put(dictionary.value(code), counts[code]);
+			}
+		}
+		return ans;
+	}
+
+	/**
+	 * throws IllegalArgumentException unless (r0, c0) and (r1, c1) are the top
+	 * left and bottom right corners of a rectangle in the table
+	 */
+	private void checkRect(int r0, int c0, int r1, int c1) {
+		checkCell(r0, c0);
+		checkCell(r1, c1);
+		if (r0 > r1 || c0 > c1) {
+			throw new IllegalArgumentException("Corners of rectangle are out of order");
+		}
+	}
+
+	/**
+	 * Adds the number of cells from offset from through to (inclusive) holding
+	 * each value to counts, indexed by dictionary code, walking the runs from the
+	 * one covering from.
+	 */
+	private void addRuns(long from, long to, long[] counts) {
+		long end = (long) numRows * numCols;
+		DoublyLinkedList<Association<RowOrderedPosn, E>>.Node run = runIndex.floorEntry(from).getValue();
+		for (; run != null && run.item.theKey.offset() <= to; run = run.next) {
+			long start = Math.max(from, run.item.theKey.offset());
+			counts[code(run)] += Math.min(to + 1, runEnd(run, end)) - start;
+		}
+	}
+
+	/**
+	 * @return running totals of the lengths of the runs holding the value with
+	 *         the given code
+	 */
+	private PrefixCounts buildPrefixCounts(int code) {
+		PrefixCounts ans = new PrefixCounts();
+		long end = (long) numRows * numCols;
+		for (DoublyLinkedList<Association<RowOrderedPosn, E>>.Node run = tableInfo.first; run != null; run = run.next) {
+			if (code(run) == code) {
+				ans.add(run.item.theKey.offset(), runEnd(run, end));
+			}
+		}
+		return ans;
+	}
+
+	/**
+	 * Adds a listener to be told of every change made to the table from now on,
+	 * creating a ChangePublisher with the default capacity if the table has none.
+	 * 
+	 * @param listener
+	 *            listener to be added
+	 */
+	public void addChangeListener(TableChangeListener<E> listener) {
+		if (changes == null) {
+			changes = new ChangePublisher<E>();
+		}
+		changes.addListener(listener);
+	}
+
+	/**
+	 * Removes a listener. Removing the last one stops the publisher's delivery
+	 * thread, so a table nobody listens to holds no thread.
+	 * 
+	 * @param listener
+	 *            listener to be removed
+	 * @return true iff the listener had been added
+	 */
+	public boolean removeChangeListener(TableChangeListener<E> listener) {
+		return changes != null && changes.removeListener(listener);
+	}
+
+	/**
+	 * Sets the publisher passing changes on to listeners, e.g., to choose the
+	 * capacity of its queue.
+	 * 
+	 * @param publisher
+	 *            publisher of changes to the table, or null to stop publishing
+	 */
+	public void setChangePublisher(ChangePublisher<E> publisher) {
+		changes = publisher;
+	}
+
+	/**
+	 * @return the publisher passing changes on to listeners, whose metrics
+	 *         describe its queue, or null if there is none
+	 */
+	public ChangePublisher<E> getChangePublisher() {
+		return changes;
+	}
+
+	/**
+	 * @return order in which the cells of the table are laid out
+	 */
+	public CellOrder getOrder() {
+		return order;
+	}
+
+	/**
+	 * @return dictionary of the values stored in the table, with the number of
+	 *         runs and cells holding each
+	 */
+	public ValueDictionary<E> getDictionary() {
+		return dictionary;
+	}
+
+	/**
+	 * Returns a read-only view of the table as it is now, unaffected by later
+	 * updates. The snapshot shares the runs it holds with the table, so it takes
+	 * constant time, and each later change to a run copies only a logarithmic
+	 * number of tree nodes. The table keeps the shared tree up to date only
+	 * while the last snapshot taken is reachable; otherwise the next snapshot
+	 * builds it again from the runs, taking time linear in their number.
+	 * 
+	 * @return snapshot of the current contents of the table
+	 */
+	public TableSnapshot<E> snapshot() {
+		if (versions == null) {
+			versions = RunTree.build(tableInfo);
+		}
+		TableSnapshot<E> ans = new TableSnapshot<E>(numRows, numCols, order, versions, tableInfo.size());
+		lastSnapshot = new WeakReference<TableSnapshot<E>>(ans);
+		return ans;
+	}
+
+	/**
+	 * Drops versions once the last snapshot taken has been collected, since
+	 * copying tree nodes on every update then only speeds up a snapshot that may
+	 * never be taken.
+	 * 
+	 * @return whether versions is still kept up to date
+	 */
+	private boolean keepsVersions() {
+		if (versions != null && lastSnapshot.get() == null) {
+			versions = null;
+		}
+		return versions != null;
+	}
+
+	/**
+	 * @return number of lookups that found their run within CURSOR_STEPS runs of
+	 *         where the previous access left off
+	 */
+	public long getCursorHits() {
+		return cursorHits;
+	}
+
+	/**
+	 * @return number of lookups that had to search runIndex
+	 */
+	public long getCursorMisses() {
+		return cursorMisses;
+	}
+
 	/**
 	 * 
 	 * @param row
@@ -164,13 +834,7 @@ class CompressedTable<E> implements TwoDTable<E> {
 			throw new IllegalArgumentException("Row or Column does not exist in current table");
 		}
 		
-		for(int i = 0;i<tableInfo.size();i++) {
-			if(tableInfo.get(i).theKey.equals(new RowOrderedPosn(row,col,numRows,numCols))){
-				return true;
-			}
-		}
-		
-		return false;
+		return runIndex.containsKey(new RowOrderedPosn(row,col,numRows,numCols,order).offset());
 	}
 
 	/**
@@ -193,6 +857,82 @@ class CompressedTable<E> implements TwoDTable<E> {
 
 	}
 
+	/**
+	 * Writes the same text as entireTable() to out by expanding each run in turn,
+	 * so takes time proportional to the number of cells plus the number of runs.
+	 * Does not move the current pointer of tableInfo.
+	 * 
+	 * @param out
+	 *            destination of the text
+	 * @throws IOException
+	 *             if out cannot be written
+	 */
+	public void writeTable(Appendable out) throws IOException {
+		writeRows(out, 0, numRows);
+	}
+
+	/**
+	 * Writes rows fromRow up to (but not including) toRow, as they appear in
+	 * entireTable(), to out. Only reads the table, so threads may write different
+	 * rows at once as long as none is updating the table.
+	 * 
+	 * @param out
+	 *            destination of the text
+	 * @param fromRow
+	 *            first row to write
+	 * @param toRow
+	 *            row after the last row to write
+	 * @throws IOException
+	 *             if out cannot be written
+	 */
+	void writeRows(Appendable out, int fromRow, int toRow) throws IOException {
+		if (order != CellOrder.ROW_MAJOR) {
+			writeCells(out, fromRow, toRow);
+			return;
+		}
+		long pos = (long) fromRow * numCols;
+		long end = (long) toRow * numCols;
+		DoublyLinkedList<Association<RowOrderedPosn, E>>.Node run = runIndex.floorEntry(pos).getValue();
+		for (; pos < end; run = run.next) {
+			String text = String.valueOf(run.item.theValue);
+			long runEnd = run.next == null ? end : Math.min(end, run.next.item.theKey.offset());
+			while (pos < runEnd) {
+				// copies of text up to the end of the run or the end of the row
+				long count = Math.min(runEnd - pos, numCols - pos % numCols);
+				for (long i = 0; i < count; i++) {
+					out.append(text);
+				}
+				pos += count;
+				if (pos % numCols == 0) {
+					out.append('\n');
+				}
+			}
+		}
+	}
+
+	/**
+	 * Writes rows fromRow up to (but not including) toRow cell by cell, for
+	 * orders in which the cells of a row are not consecutive. Keeps the last run
+	 * found and only searches runIndex for cells outside it.
+	 */
+	private void writeCells(Appendable out, int fromRow, int toRow) throws IOException {
+		long runStart = 0, runEnd = 0; // offsets covered by the last run found
+		String text = null;
+		for (int r = fromRow; r < toRow; r++) {
+			for (int c = 0; c < numCols; c++) {
+				long offset = order.offset(r, c, numRows, numCols);
+				if (offset < runStart || offset >= runEnd) {
+					DoublyLinkedList<Association<RowOrderedPosn, E>>.Node run = runIndex.floorEntry(offset).getValue();
+					runStart = run.item.theKey.offset();
+					runEnd = runEnd(run, (long) numRows * numCols);
+					text = String.valueOf(run.item.theValue);
+				}
+				out.append(text);
+			}
+			out.append('\n');
+		}
+	}
+
 	/**
 	 * program to test implementation of CompressedTable
 	 * @param args
@@ -1,9 +1,23 @@
 package compression;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.util.Scanner;
 
 /**
  * Main class
+ * 
+ * Run with no arguments to enter commands one at a time. Run with --batch
+ * [file] to read a script of commands from file (or standard input) in bulk:
+ * updates are collected and applied together, and the table is only printed
+ * when the script asks for it with "print".
+ * 
  * @author cs62
  *
  */
@@ -22,7 +36,7 @@ public class Compression {
 		String defaultValue = splitContents[2];
 		
 		table = new CompressedTable<String>(rows, cols, defaultValue);
-		System.out.println(table.entireTable());
+		printTable();
 
 		System.out.print("What's next?\n");
 		String line = in.nextLine();
@@ -42,7 +56,7 @@ public class Compression {
 				System.out.println("I didn't get that. Try again!");
 			}
 			
-			System.out.println(table.entireTable());
+			printTable();
 			System.out.print("What's next?\n");
 			line = in.nextLine();
 
@@ -50,9 +64,95 @@ public class Compression {
 		in.close();
 	}
 
-	public static void main(String args[]) {
+	/**
+	 * Reads a script of commands and applies its updates in batches. The first
+	 * line gives #rows #cols defaultValue, and each later line is one of
+	 * "update r c v", "print" (show the entire table), "display" (show the
+	 * runs) or "exit". Updates are held back until the script prints the table
+	 * or ends, then applied in one pass in row-major order. Reports how many
+	 * updates were applied per second. A script that is empty or does not start
+	 * with a legal first line is reported as a usage error and ignored.
+	 * 
+	 * @param script
+	 *            source of the commands
+	 * @throws IOException
+	 *             if script cannot be read
+	 */
+	public void processBatch(BufferedReader script) throws IOException {
+		String header = script.readLine();
+		String[] splitContents = header == null ? new String[0] : header.trim().split(" +");
+		if (splitContents.length != 3 || !splitContents[0].matches("\\d+") || !splitContents[1].matches("\\d+")) {
+			System.err.println("Usage: the first line of a batch script must be: #rows #cols defaultValue");
+			return;
+		}
+		int rows = Integer.parseInt(splitContents[0]);
+		int cols = Integer.parseInt(splitContents[1]);
+		table = new CompressedTable<String>(rows, cols, splitContents[2]);
+		UpdateBatch<String> batch = new UpdateBatch<String>(rows, cols);
+
+		long updates = 0;
+		long nanos = 0;
+		String line = script.readLine();
+		while (line != null && !line.equals("exit")) {
+			if (line.startsWith("update")) {
+				splitContents = line.split(" ");
+				batch.add(Integer.parseInt(splitContents[1]), Integer.parseInt(splitContents[2]), splitContents[3]);
+			} else if (line.equals("print") || line.equals("display")) {
+				updates += batch.size();
+				nanos += applyBatch(batch);
+				if (line.equals("print")) {
+					printTable();
+				} else {
+					System.out.println(table);
+				}
+			} else if (!line.isEmpty()) {
+				System.out.println("I didn't get that: " + line);
+			}
+			line = script.readLine();
+		}
+		updates += batch.size();
+		nanos += applyBatch(batch);
+
+		System.out.printf("Applied %d updates in %.1f ms (%.0f updates/s)%n", updates, nanos / 1e6,
+				nanos == 0 ? 0.0 : updates * 1e9 / nanos);
+	}
+
+	/**
+	 * Applies and empties batch.
+	 * 
+	 * @return nanoseconds taken
+	 */
+	private long applyBatch(UpdateBatch<String> batch) {
+		long start = System.nanoTime();
+		batch.applyTo(table);
+		return System.nanoTime() - start;
+	}
+
+	/**
+	 * Prints the entire table followed by a blank line, streaming it out rather
+	 * than building one big string.
+	 */
+	private void printTable() {
+		try {
+			Writer out = new BufferedWriter(new OutputStreamWriter(System.out), 1 << 16);
+			table.writeTable(out);
+			out.write(System.lineSeparator());
+			out.flush(); // not closed, as that would close System.out
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	public static void main(String args[]) throws IOException {
 		Compression compression = new Compression();
-		compression.processInput();
+		if (args.length > 0 && args[0].equals("--batch")) {
+			try (BufferedReader script = new BufferedReader(
+					args.length > 1 ? new FileReader(args[1]) : new InputStreamReader(System.in))) {
+				compression.processBatch(script);
+			}
+		} else {
+			compression.processInput();
+		}
 	}
 
 }
@@ -0,0 +1,271 @@
+package compression;
+
+import java.io.IOException;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Thread-safe 2-dimensional table. The rows are split into bands (segments) of
+ * equal height, each held in its own CompressedTable guarded by its own lock.
+ * Readers share the lock, so they never block each other, and writers only
+ * block readers and writers of the segments they touch, so writes to different
+ * segments proceed in parallel.
+ *
+ * @author cs62
+ * @param <E>
+ *            type of value stored in the table
+ */
+class ConcurrentCompressedTable<E> implements TwoDTable<E> {
+	protected int numRows, numCols; // Number of rows and cols in table
+	protected int segmentRows; // number of rows in each segment (the last may have fewer)
+	protected CompressedTable<E>[] segments;
+	protected StampedLock[] locks; // locks[i] guards segments[i]
+
+	/**
+	 * Constructor for table of size rows x cols, all of whose values are initially
+	 * set to defaultValue, with a few segments per processor
+	 *
+	 * @param rows
+	 *            # of rows in table
+	 * @param cols
+	 *            # of columns in table
+	 * @param defaultValue
+	 *            initial value of all entries in table
+	 */
+	public ConcurrentCompressedTable(int rows, int cols, E defaultValue) {
+		this(rows, cols, defaultValue, 4 * Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Constructor for table of size rows x cols, all of whose values are initially
+	 * set to defaultValue
+	 *
+	 * @param rows
+	 *            # of rows in table
+	 * @param cols
+	 *            # of columns in table
+	 * @param defaultValue
+	 *            initial value of all entries in table
+	 * @param numSegments
+	 *            number of segments to split the rows into (at most rows)
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public ConcurrentCompressedTable(int rows, int cols, E defaultValue, int numSegments) {
+		if (numSegments < 1) {
+			throw new IllegalArgumentException("Table needs at least one segment");
+		}
+		numRows = rows;
+		numCols = cols;
+		segmentRows = Math.max(1, (rows + numSegments - 1) / numSegments);
+		int count = (rows + segmentRows - 1) / segmentRows;
+		segments = new CompressedTable[count];
+		locks = new StampedLock[count];
+		for (int i = 0; i < count; i++) {
+			int height = Math.min(segmentRows, rows - i * segmentRows);
+			segments[i] = new CompressedTable<E>(height, cols, defaultValue);
+			locks[i] = new StampedLock();
+		}
+	}
+
+	/**
+	 * Given a legal (row, col) cell in the table, update its value to newInfo,
+	 * holding the lock of its segment.
+	 *
+	 * @param row
+	 *            row of cell to be updated
+	 * @param col
+	 *            column of cell to be update
+	 * @param newInfo
+	 *            new value to place in cell (row, col)
+	 */
+	public void updateInfo(int row, int col, E newInfo) {
+		checkCell(row, col);
+		int seg = row / segmentRows;
+		long stamp = locks[seg].writeLock();
+		try {
+			segments[seg].updateInfo(row - seg * segmentRows, col, newInfo);
+		} finally {
+			locks[seg].unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * Returns contents of specified cell, sharing its segment's lock with other
+	 * readers.
+	 *
+	 * @pre: (row,col) is legal cell in table
+	 *
+	 * @param row
+	 *            row of cell to be queried
+	 * @param col
+	 *            column of cell to be queried
+	 * @return value stored in (row, col) cell of table
+	 */
+	public E getInfo(int row, int col) {
+		checkCell(row, col);
+		int seg = row / segmentRows;
+		long stamp = locks[seg].readLock();
+		try {
+			return segments[seg].peekInfo(row - seg * segmentRows, col);
+		} finally {
+			locks[seg].unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * Sets every cell from (startRow, startCol) through (endRow, endCol), scanning
+	 * from left to right across successive rows, to newInfo. Each segment the
+	 * range crosses is locked and filled in turn, so other threads may see the
+	 * range part-way filled.
+	 *
+	 * @pre: both cells are legal and (startRow, startCol) does not come after
+	 *       (endRow, endCol)
+	 *
+	 * @param startRow
+	 *            row of first cell to be updated
+	 * @param startCol
+	 *            column of first cell to be updated
+	 * @param endRow
+	 *            row of last cell to be updated
+	 * @param endCol
+	 *            column of last cell to be updated
+	 * @param newInfo
+	 *            new value to place in the cells
+	 */
+	public void fillRange(int startRow, int startCol, int endRow, int endCol, E newInfo) {
+		checkCell(startRow, startCol);
+		checkCell(endRow, endCol);
+		if ((long) startRow * numCols + startCol > (long) endRow * numCols + endCol) {
+			throw new IllegalArgumentException("Start of range comes after its end");
+		}
+		for (int seg = startRow / segmentRows; seg <= endRow / segmentRows; seg++) {
+			int base = seg * segmentRows;
+			int height = segments[seg].numRows;
+			// part of the range inside this segment
+			int fromRow = Math.max(startRow, base) - base;
+			int fromCol = startRow >= base ? startCol : 0;
+			int toRow = Math.min(endRow, base + height - 1) - base;
+			int toCol = endRow < base + height ? endCol : numCols - 1;
+			long stamp = locks[seg].writeLock();
+			try {
+				segments[seg].fillRange(fromRow, fromCol, toRow, toCol, newInfo);
+			} finally {
+				locks[seg].unlockWrite(stamp);
+			}
+		}
+	}
+
+	/**
+	 * Sets every cell in rows r0 through r1 and columns c0 through c1 to newInfo,
+	 * locking each segment the rectangle crosses once.
+	 *
+	 * @pre: both corners are legal, r0 <= r1 and c0 <= c1
+	 *
+	 * @param r0
+	 *            first row of the rectangle
+	 * @param c0
+	 *            first column of the rectangle
+	 * @param r1
+	 *            last row of the rectangle
+	 * @param c1
+	 *            last column of the rectangle
+	 * @param newInfo
+	 *            new value to place in the cells
+	 */
+	public void fillRect(int r0, int c0, int r1, int c1, E newInfo) {
+		checkCell(r0, c0);
+		checkCell(r1, c1);
+		if (r0 > r1 || c0 > c1) {
+			throw new IllegalArgumentException("Corners of rectangle are out of order");
+		}
+		for (int seg = r0 / segmentRows; seg <= r1 / segmentRows; seg++) {
+			int base = seg * segmentRows;
+			long stamp = locks[seg].writeLock();
+			try {
+				segments[seg].fillRect(Math.max(r0, base) - base, c0,
+						Math.min(r1, base + segments[seg].numRows - 1) - base, c1, newInfo);
+			} finally {
+				locks[seg].unlockWrite(stamp);
+			}
+		}
+	}
+
+	/**
+	 * throws IllegalArgumentException if (row, col) is not a cell of the table
+	 */
+	private void checkCell(int row, int col) {
+		if (row < 0 || col < 0 || row >= numRows || col >= numCols) {
+			throw new IllegalArgumentException("Row or Column does not exist in current table");
+		}
+	}
+
+	/**
+	 * @return succinct description of contents of each segment
+	 */
+	public String toString() {
+		StringBuilder ans = new StringBuilder();
+		long[] stamps = readLockAll();
+		try {
+			for (int i = 0; i < segments.length; i++) {
+				ans.append("Segment " + i + " (from row " + i * segmentRows + "): " + segments[i]);
+			}
+		} finally {
+			unlockAll(stamps);
+		}
+		return ans.toString();
+	}
+
+	/**
+	 * @return a string representation of the entire table
+	 */
+	public String entireTable() {
+		StringBuilder ans = new StringBuilder();
+		try {
+			writeTable(ans);
+		} catch (IOException e) {
+			throw new IllegalStateException(e); // StringBuilder does not throw
+		}
+		return ans.toString();
+	}
+
+	/**
+	 * Writes the same text as entireTable() to out, holding every segment's read
+	 * lock so that the output is a consistent view of the table.
+	 *
+	 * @param out
+	 *            destination of the text
+	 * @throws IOException
+	 *             if out cannot be written
+	 */
+	public void writeTable(Appendable out) throws IOException {
+		long[] stamps = readLockAll();
+		try {
+			for (CompressedTable<E> segment : segments) {
+				segment.writeTable(out);
+			}
+		} finally {
+			unlockAll(stamps);
+		}
+	}
+
+	/**
+	 * Takes every segment's read lock, always in the same order.
+	 * 
+	 * @return stamps to release them with
+	 */
+	private long[] readLockAll() {
+		long[] stamps = new long[locks.length];
+		for (int i = 0; i < locks.length; i++) {
+			stamps[i] = locks[i].readLock();
+		}
+		return stamps;
+	}
+
+	/**
+	 * Releases the read locks taken by readLockAll.
+	 */
+	private void unlockAll(long[] stamps) {
+		for (int i = 0; i < locks.length; i++) {
+			locks[i].unlockRead(stamps[i]);
+		}
+	}
+}
@@ -46,6 +46,20 @@ public class CurDoublyLinkedList<E> extends DoublyLinkedList<E> {
 		off_right = false;
 	}
 
+	/**
+	 * set current to the given node of the list
+	 *
+	 * @pre: node is a node of this list
+	 * 
+	 * @post: current points to node, off states are false
+	 *
+	 */
+	protected void setCurrent(DoublyLinkedList<E>.Node node) {
+		current = node;
+		off_left = false;
+		off_right = false;
+	}
+
 	/**
 	 * set current to last element of list (tail)
 	 *
@@ -221,6 +235,8 @@ public class CurDoublyLinkedList<E> extends DoublyLinkedList<E> {
 		super.addFirst(newFirst);
 		
 		current = this.first;
+		off_left = false;
+		off_right = false;
 	}
 
 	/**
@@ -246,6 +262,8 @@ public class CurDoublyLinkedList<E> extends DoublyLinkedList<E> {
 		super.addLast(newLast);
 		
 		current = this.last;
+		off_left = false;
+		off_right = false;
 	}
 
 	/**
@@ -385,15 +403,76 @@ public class CurDoublyLinkedList<E> extends DoublyLinkedList<E> {
 			throw new IllegalArgumentException("Current is off list");
 		}
 		
-		//adds new node after current
-		if(super.getIndex(current.item)+1==this.size()) {
-			super.addLast(value);
-		}else {
-			super.add(super.getIndex(current.item)+1, value);
+		//splices new node in after current
+		current = linkAfter(current, value);
+	}
+
+	/**
+	 * Create a new node with specified value immediately before the current node.
+	 * Move current pointer to point to the newly-created node.
+	 *
+	 * @pre: Given value for new node to be created is not null, list is non-empty,
+	 *       and current is not off list
+	 * 
+	 *       throws IllegalArgumentException if given value is null "Cannot create a
+	 *       node that contains the null value"
+	 * 
+	 *       throws IllegalStateException if list is empty with message "Empty list,
+	 *       current points to null"
+	 * 
+	 *       throws IllegalStateException if current is off list with message
+	 *       "Current is off list"
+	 *
+	 * @post: creates a new node with specified element and adds it right before the
+	 *        node that current points to. Upon creation, current now points to the
+	 *        newly-created node.
+	 * 
+	 */
+	public void addBeforeCurrent(E value) {
+		//Exception Handling
+		if(value==null) {
+			throw new IllegalArgumentException("Cannot create a node that contains the null value");
+		}else if(this.size()==0) {
+			throw new IllegalStateException("Empty list, current points to null");
+		}else if(isOff()) {
+			throw new IllegalStateException("Current is off list");
 		}
 		
+		//splices new node in before current
+		current = linkBefore(current, value);
+	}
+
+	/**
+	 * Replaces the value of the node that current points to and returns the old
+	 * value. Current does not move.
+	 *
+	 * @pre: Given value is not null, list is non-empty, and current is not off list
+	 * 
+	 *       throws IllegalArgumentException if given value is null "Cannot create a
+	 *       node that contains the null value"
+	 * 
+	 *       throws IllegalStateException if list is empty with message "Empty list,
+	 *       current points to null"
+	 * 
+	 *       throws IllegalStateException if current is off list with message
+	 *       "Current is off list"
+	 *
+	 * @post: node that current points to holds value
+	 * 
+	 */
+	public E replaceCurrent(E value) {
+		//Exception Handling
+		if(value==null) {
+			throw new IllegalArgumentException("Cannot create a node that contains the null value");
+		}else if(this.size()==0) {
+			throw new IllegalStateException("Empty list, current points to null");
+		}else if(isOff()) {
+			throw new IllegalStateException("Current is off list");
+		}
 		
-		current = current.next;
+		E old = current.item;
+		current.item = value;
+		return old;
 	}
 
 	/**
@@ -409,7 +488,8 @@ public class CurDoublyLinkedList<E> extends DoublyLinkedList<E> {
 	 *       "Current is off list"
 	 *
 	 * @post: Removes the node that current points to and moves current to its
-	 *        successor
+	 *        successor. If current was the tail, it points to null and the off
+	 *        right state becomes true.
 	 */
 	public void removeCurrent() {
 		//Exceptions
@@ -419,29 +499,40 @@ public class CurDoublyLinkedList<E> extends DoublyLinkedList<E> {
 			throw new IllegalStateException("Current is off list");
 		}
 		
-		//Finds index for current
-		Node finger = first;
-				
-		int index = 0;
-		while(finger!=current) {
-			finger = finger.next;
-			index++;
+		//unlink moves current to its successor (off right if it was the tail)
+		unlink(current);
+	}
+
+	/**
+	 * Removes the given node from the list. Every removal by node, including
+	 * removeIf, remove(index) and removal through a list iterator, comes here, so
+	 * a removed node that current points to is left by the rules of
+	 * removeCurrent before it can be pooled and reused.
+	 *
+	 * @post: if current pointed to node, it now points to its successor, or to
+	 *        null with the off right state true if node was the tail.
+	 */
+	protected E unlink(DoublyLinkedList<E>.Node node) {
+		if(node == current) {
+			current = node.next;
+			if(current == null) {
+				off_right = true;
+			}
 		}
 		
-		current = current.next;
-		
-		super.remove(index);
+		return super.unlink(node);
 	}
 
 	/**
 	 * Clear doubly linked list and reset current pointer and off states
 	 */
 	public void clear() {
-		super.clear();
-		
+		//leave current before its node can be pooled
 		current = null;
 		off_left = false;
 		off_right = false;
+		
+		super.clear();
 	}
 
 	/**
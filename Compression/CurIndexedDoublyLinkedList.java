@@ -0,0 +1,590 @@
+package compression;
+
+/**
+ * Indexed version of CurDoublyLinkedList: an indexable skip list with an
+ * additional pointer to the "current" node. This enables get/insert/delete
+ * operations relative to the current position, with the same behaviour as
+ * CurDoublyLinkedList, including going "off" the list to the right of the tail
+ * or the left of the head, and also moving current to an index, or finding its
+ * index, in expected logarithmic time.
+ */
+
+public class CurIndexedDoublyLinkedList<E> extends IndexedDoublyLinkedList<E> {
+
+	protected Node current; // pointer to current node
+
+	private boolean off_left; // current has been shifted off left edge (left from head of list)
+	private boolean off_right; // current has been shifted off right edge (right from tail of list)
+
+	/**
+	 * @post: constructs an empty list, current points to null, off states are false
+	 */
+	public CurIndexedDoublyLinkedList() {
+		current = null;
+		off_left = false;
+		off_right = false;
+	}
+
+	/**
+	 * set current to the first element of list (head)
+	 *
+	 * @pre: list is non-empty
+	 *
+	 *       throws IllegalStateException if list is empty with message "Empty list,
+	 *       cannot move current to head"
+	 *
+	 * @post: current set to first node of list (head), off states are false
+	 *
+	 */
+	public void first() {
+		if (this.size() == 0) {
+			throw new IllegalStateException("Empty list cannot move current to head");
+		}
+
+		current = head.next[0];
+		off_left = false;
+		off_right = false;
+	}
+
+	/**
+	 * set current to last element of list (tail)
+	 *
+	 * @pre: list is non-empty
+	 *
+	 *       throws IllegalStateException if list is empty with message "Empty list,
+	 *       cannot move current to tail"
+	 *
+	 * @post: current set to last node of list (tail), off states are false
+	 *
+	 */
+	public void last() {
+		if (this.size() == 0) {
+			throw new IllegalStateException("Empty list cannot move current to head");
+		}
+
+		current = last;
+		off_left = false;
+		off_right = false;
+	}
+
+	/**
+	 * set current to the node at the given index
+	 *
+	 * @pre: 0 <= index < size()
+	 *
+	 *       throws IndexOutOfBoundsException if index is not the index of an item
+	 *
+	 * @post: current set to the node at index, off states are false
+	 *
+	 * @param index
+	 *            index of the new current item
+	 */
+	public void moveTo(int index) {
+		if (index < 0 || index >= size()) {
+			throw new IndexOutOfBoundsException("Index " + index + " out of bounds");
+		}
+
+		current = node(index);
+		off_left = false;
+		off_right = false;
+	}
+
+	/**
+	 * @return index of the current item, or -1 if current is off the list or
+	 *         null
+	 */
+	public int currentIndex() {
+		if (current == null || isOff()) {
+			return -1;
+		}
+		return indexOf(current);
+	}
+
+	/**
+	 * Move current pointer one node to the right
+	 *
+	 * @pre: list is non-empty and off right state is false
+	 *
+	 *       throws IllegalStateException if list is empty with message "Empty list,
+	 *       cannot move current to the right"
+	 *
+	 *       throws IllegalStateException if off right state is true with message
+	 *       "Current is already off right, cannot move it further"
+	 *
+	 * @post: if the off left state is true, then current points to head and off
+	 *        left becomes false. Else move current pointer one node to the right.
+	 *        If already at tail, current points to null and off right state becomes
+	 *        true.
+	 *
+	 */
+	public void next() {
+		//exceptions for empty list and pointer already null
+		if (this.size() == 0) {
+			throw new IllegalStateException("Empty list cannot move current to the right");
+		} else if (off_right) {
+			throw new IllegalStateException("Current is already off right, cannot move it further");
+		}
+
+		//moving pointer to the right
+		if (off_left) {
+			first();
+		} else if (current == last) {
+			current = null;
+			off_right = true;
+		} else {
+			current = current.next[0];
+		}
+	}
+
+	/**
+	 * Move current pointer one node to the left
+	 *
+	 * @pre: list is non-empty and off left state is false
+	 *
+	 *       throws IllegalStateException if list is empty with message "Empty list,
+	 *       cannot move current to the left"
+	 *
+	 *       throws IllegalStateException if off left state is true with message
+	 *       "Current is already off left, cannot move it further"
+	 *
+	 * @post: if the off right state is true, then current points to tail and off
+	 *        right becomes false. Else move current pointer one node to the left.
+	 *        If already at head, current points to null and off left state becomes
+	 *        true.
+	 */
+	public void back() {
+		//Exceptions
+		if (this.size() == 0) {
+			throw new IllegalStateException("Empty list cannot move current to the left");
+		} else if (off_left) {
+			throw new IllegalStateException("Current is already off left, cannot move it further");
+		}
+
+		//move pointer to the left
+		if (off_right) {
+			last();
+		} else if (current.prev[0] == head) {
+			current = null;
+			off_left = true;
+		} else {
+			current = current.prev[0];
+		}
+	}
+
+	/**
+	 * Check whether current pointer is off the right side of the list (right of the
+	 * tail)
+	 *
+	 * @return whether current is off right side of list
+	 */
+	public boolean isOffRight() {
+		return off_right;
+	}
+
+	/**
+	 * Check whether current pointer is off the left side of the list (left of the
+	 * head)
+	 *
+	 * @return whether current is off left side of list
+	 */
+	public boolean isOffLeft() {
+		return off_left;
+	}
+
+	/**
+	 * Check whether current pointer is off the right side of the list (right of the
+	 * tail) or off the left side of the list (left of the head)
+	 *
+	 * @return whether current is either off left or off right side of list
+	 */
+	public boolean isOff() {
+		return isOffLeft() || isOffRight();
+	}
+
+	/**
+	 * Returns the value of the node that current points to
+	 *
+	 * @pre: list is non-empty and current is not off list
+	 *
+	 *       throws IllegalStateException if list is empty with message "Empty list,
+	 *       current points to null"
+	 *
+	 *       throws IllegalStateException if current is off list with message
+	 *       "Current is off list"
+	 *
+	 */
+	public E currentValue() {
+		//Exceptions for empty list and bad current
+		if (size() == 0) {
+			throw new IllegalStateException("Empty list, current points to null");
+		} else if (isOff()) {
+			throw new IllegalStateException("Current is off list");
+		}
+
+		return current.item;
+	}
+
+	/**
+	 * Create a new node with specified value and make it the new head. Move current
+	 * pointer to point to the newly-created node.
+	 *
+	 * @pre: Given value for new node to be created is not null
+	 *
+	 *       throws IllegalArgumentException if given value is null "Cannot create a
+	 *       node that contains the null value"
+	 *
+	 * @post: creates a new node with specified element and makes it the new head.
+	 *        Upon creation, current now points to the newly-created node. Off left
+	 *        and off right states are set to false.
+	 *
+	 */
+	public void addFirst(E newFirst) {
+		//Exception
+		if (newFirst == null) {
+			throw new IllegalArgumentException("Cannot create a node that contains the null value");
+		}
+
+		current = linkAfter(head, newFirst);
+		off_left = false;
+		off_right = false;
+	}
+
+	/**
+	 * Create a new node with specified value and make it the new tail. Move current
+	 * pointer to point to the newly-created node.
+	 *
+	 * @pre: Given value for new node to be created is not null
+	 *
+	 *       throws IllegalArgumentException if given value is null "Cannot create a
+	 *       node that contains the null value"
+	 *
+	 * @post: creates a new node with specified element and makes it the new tail.
+	 *        Upon creation, current now points to the newly-created node. Off left
+	 *        and off right states are set to false.
+	 *
+	 */
+	public void addLast(E newLast) {
+		//Exception Handling
+		if (newLast == null) {
+			throw new IllegalArgumentException("Cannot create a node that contains the null value");
+		}
+
+		current = linkAfter(last, newLast);
+		off_left = false;
+		off_right = false;
+	}
+
+	/**
+	 * Retrieves and removes the item at the specified index. Removing the head or
+	 * tail moves current as removeFirst or removeLast does; removing the current
+	 * item moves current to its successor; otherwise current stays on the same
+	 * item.
+	 *
+	 * @param index
+	 *            the index of the item to be removed
+	 * @return the item previously at the specified index
+	 */
+	public E remove(int index) {
+		if (index == 0 || index == size() - 1) {
+			return super.remove(index);
+		}
+		Node removed = node(index);
+		if (removed == current) {
+			current = current.next[0]; // not the tail, as index < size() - 1
+		}
+		return unlink(removed);
+	}
+
+	/**
+	 * Removes the first item equal to the specified item and returns it. If there
+	 * is none, returns null. Current stays on the same item, or moves to the
+	 * successor of the removed item if it was current (off right if there is
+	 * none).
+	 *
+	 * @param item
+	 *            the item to be removed
+	 * @return the item that was removed
+	 */
+	public E remove(E item) {
+		Node finger = head.next[0];
+		while (finger != null && !finger.item.equals(item)) {
+			finger = finger.next[0];
+		}
+		if (finger == null) {
+			return null;
+		} else if (finger == current && isOff()) {
+			current = null; // left on the item by addFirst or addLast while off
+		} else if (finger == current) {
+			current = current.next[0];
+			if (current == null) {
+				off_right = true;
+			}
+		}
+		return unlink(finger);
+	}
+
+	/**
+	 * Remove the head node and return its value. Current now points to the new
+	 * head.
+	 *
+	 * @pre: list is non-empty.
+	 *
+	 *       throws IllegalStateException if list is empty with message "Empty list,
+	 *       current points to null"
+	 *
+	 * @post: removes the head node and returns its value. Current now points either
+	 *        to the new head if the list has at least one node (and therefore the
+	 *        off left and right state should be false), or points to null with the
+	 *        off left state becoming true.
+	 *
+	 */
+	public E removeFirst() {
+		if (this.size() == 0) {
+			throw new IllegalStateException("Empty list, current points to null");
+		}
+
+		if (this.size() == 1) {
+			current = null;
+			off_left = true;
+		} else {
+			current = head.next[0].next[0];
+			off_left = false;
+			off_right = false;
+		}
+
+		return super.removeFirst();
+	}
+
+	/**
+	 * Remove the tail node and return its value. Current now points to null and off
+	 * right becomes true (off left is false)
+	 *
+	 * @pre: list is non-empty.
+	 *
+	 *       throws IllegalStateException if list is empty with message "Empty list,
+	 *       current points to null"
+	 *
+	 * @post: removes the tail node and returns its value. Current now points to
+	 *        null with the off right state becoming true (and off left becoming
+	 *        false).
+	 *
+	 */
+	public E removeLast() {
+		if (this.size() == 0) {
+			throw new IllegalStateException("Empty list, current points to null");
+		}
+
+		current = null;
+		off_right = true;
+		off_left = false;
+
+		return super.removeLast();
+	}
+
+	/**
+	 * Return value of the head and point current to head
+	 *
+	 * @pre: list is non-empty
+	 *
+	 *       throws IllegalStateException if list is empty with message "Empty list,
+	 *       current points to null"
+	 *
+	 * @post: points current to first element of list (head). Off states are false
+	 *
+	 */
+	public E getFirst() {
+		if (this.size() == 0) {
+			throw new IllegalStateException("Empty list, current points to null");
+		}
+
+		first();
+		return current.item;
+	}
+
+	/**
+	 * Return value of the tail and point current to tail
+	 *
+	 * @pre: list is non-empty
+	 *
+	 *       throws IllegalStateException if list is empty with message "Empty list,
+	 *       current points to null"
+	 *
+	 * @post: points current to last element of list (tail). Off states are false
+	 *
+	 */
+	public E getLast() {
+		if (this.size() == 0) {
+			throw new IllegalStateException("Empty list, current points to null");
+		}
+
+		last();
+		return current.item;
+	}
+
+	/**
+	 * Create a new node with specified value immediately after the current node.
+	 * Move current pointer to point to the newly-created node.
+	 *
+	 * @pre: Given value for new node to be created is not null, list is non-empty,
+	 *       and current is not off list
+	 *
+	 *       throws IllegalArgumentException if given value is null "Cannot create a
+	 *       node that contains the null value"
+	 *
+	 *       throws IllegalArgumentException if list is empty with message "Empty
+	 *       list, current points to null"
+	 *
+	 *       throws IllegalArgumentException if current is off list with message
+	 *       "Current is off list"
+	 *
+	 * @post: creates a new node with specified element and adds it right after the
+	 *        node that current points to. Upon creation, current now points to the
+	 *        newly-created node.
+	 *
+	 */
+	public void addAfterCurrent(E value) {
+		//Exception Handling
+		if (value == null) {
+			throw new IllegalArgumentException("Cannot create a node that contains the null value");
+		} else if (this.size() == 0) {
+			throw new IllegalArgumentException("Empty list, current points to null");
+		} else if (isOff()) {
+			throw new IllegalArgumentException("Current is off list");
+		}
+
+		current = linkAfter(current, value);
+	}
+
+	/**
+	 * Create a new node with specified value immediately before the current node.
+	 * Move current pointer to point to the newly-created node.
+	 *
+	 * @pre: Given value for new node to be created is not null, list is non-empty,
+	 *       and current is not off list
+	 *
+	 *       throws IllegalArgumentException if given value is null "Cannot create a
+	 *       node that contains the null value"
+	 *
+	 *       throws IllegalStateException if list is empty with message "Empty list,
+	 *       current points to null"
+	 *
+	 *       throws IllegalStateException if current is off list with message
+	 *       "Current is off list"
+	 *
+	 * @post: creates a new node with specified element and adds it right before the
+	 *        node that current points to. Upon creation, current now points to the
+	 *        newly-created node.
+	 *
+	 */
+	public void addBeforeCurrent(E value) {
+		//Exception Handling
+		if (value == null) {
+			throw new IllegalArgumentException("Cannot create a node that contains the null value");
+		} else if (this.size() == 0) {
+			throw new IllegalStateException("Empty list, current points to null");
+		} else if (isOff()) {
+			throw new IllegalStateException("Current is off list");
+		}
+
+		current = linkAfter(current.prev[0], value);
+	}
+
+	/**
+	 * Replaces the value of the node that current points to and returns the old
+	 * value. Current does not move.
+	 *
+	 * @pre: Given value is not null, list is non-empty, and current is not off list
+	 *
+	 *       throws IllegalArgumentException if given value is null "Cannot create a
+	 *       node that contains the null value"
+	 *
+	 *       throws IllegalStateException if list is empty with message "Empty list,
+	 *       current points to null"
+	 *
+	 *       throws IllegalStateException if current is off list with message
+	 *       "Current is off list"
+	 *
+	 * @post: node that current points to holds value
+	 *
+	 */
+	public E replaceCurrent(E value) {
+		//Exception Handling
+		if (value == null) {
+			throw new IllegalArgumentException("Cannot create a node that contains the null value");
+		} else if (this.size() == 0) {
+			throw new IllegalStateException("Empty list, current points to null");
+		} else if (isOff()) {
+			throw new IllegalStateException("Current is off list");
+		}
+
+		E old = current.item;
+		current.item = value;
+		return old;
+	}
+
+	/**
+	 * Removes the node that current points to. Current now points to the successor.
+	 *
+	 * @pre: List is non-empty and current is not off list
+	 *
+	 *       throws IllegalStateException if list is empty with message "Empty list,
+	 *       current points to null"
+	 *
+	 *       throws IllegalStateException if current is off list with message
+	 *       "Current is off list"
+	 *
+	 * @post: Removes the node that current points to and moves current to its
+	 *        successor. If current was the tail, it points to null and the off
+	 *        right state becomes true.
+	 */
+	public void removeCurrent() {
+		//Exceptions
+		if (this.size() == 0) {
+			throw new IllegalStateException("Empty list, current points to null");
+		} else if (isOff()) {
+			throw new IllegalStateException("Current is off list");
+		}
+
+		//unlinks current directly, moving to its successor (off right if it was the tail)
+		Node successor = current.next[0];
+		unlink(current);
+
+		current = successor;
+		if (current == null) {
+			off_right = true;
+		}
+	}
+
+	/**
+	 * Clear list and reset current pointer and off states
+	 */
+	public void clear() {
+		super.clear();
+
+		current = null;
+		off_left = false;
+		off_right = false;
+	}
+
+	/**
+	 * @return readable representation of list
+	 *
+	 *         Shows contents of underlying list and the current item.
+	 */
+	public String toString() {
+		return super.toString() + "\nCurrent is " + current;
+	}
+
+	/**
+	 * An alternative representation of the object
+	 *
+	 * @return a string representation of the list, with each element on a new line.
+	 */
+	public String otherString() {
+		StringBuilder ans = new StringBuilder("CurIndexedDoublyLinkedList:\n");
+		for (E item : this) {
+			ans.append(item + "\n");
+		}
+		return ans.toString();
+	}
+}
@@ -0,0 +1,626 @@
+package compression;
+
+/**
+ * Unrolled version of CurDoublyLinkedList: a list stored in chunks of items
+ * with an additional "current" position, given by a chunk and a slot in it.
+ * This enables get/insert/delete operations relative to the current position,
+ * with the same behaviour as CurDoublyLinkedList, including going "off" the
+ * list to the right of the tail or the left of the head.
+ *
+ * Splitting and merging chunks moves items between chunks, so every operation
+ * that changes the list sets current afresh from where its item ended up.
+ */
+
+public class CurUnrolledDoublyLinkedList<E> extends UnrolledDoublyLinkedList<E> {
+
+	protected Chunk current; // chunk holding the current item, or null
+	protected int currentIndex; // slot of the current item in current
+
+	private boolean off_left; // current has been shifted off left edge (left from head of list)
+	private boolean off_right; // current has been shifted off right edge (right from tail of list)
+
+	/**
+	 * @post: constructs an empty list, current points to null, off states are false
+	 */
+	public CurUnrolledDoublyLinkedList() {
+		this(DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * @pre: chunkSize >= 2
+	 *
+	 * @post: constructs an empty list whose chunks hold chunkSize items, current
+	 *        points to null, off states are false
+	 *
+	 * @param chunkSize
+	 *            most items a chunk holds
+	 */
+	public CurUnrolledDoublyLinkedList(int chunkSize) {
+		super(chunkSize);
+		current = null;
+		off_left = false;
+		off_right = false;
+	}
+
+	/**
+	 * Points current at the item found or placed by the last locate, insertAt or
+	 * removeAt.
+	 */
+	private void setCurrentToFound() {
+		current = foundChunk;
+		currentIndex = foundIndex;
+	}
+
+	/**
+	 * @return index of the current item in the list, or -1 if current is off the
+	 *         list or null
+	 */
+	private int currentPosition() {
+		if (current == null || isOff()) {
+			return -1;
+		}
+		int ans = currentIndex;
+		for (Chunk chunk = current.prev; chunk != null; chunk = chunk.prev) {
+			ans += chunk.count;
+		}
+		return ans;
+	}
+
+	/**
+	 * set current to the first element of list (head)
+	 *
+	 * @pre: list is non-empty
+	 *
+	 *       throws IllegalStateException if list is empty with message "Empty list,
+	 *       cannot move current to head"
+	 *
+	 * @post: current set to first item of list (head), off states are false
+	 *
+	 */
+	public void first() {
+		if (this.size() == 0) {
+			throw new IllegalStateException("Empty list cannot move current to head");
+		}
+
+		current = first;
+		currentIndex = 0;
+		off_left = false;
+		off_right = false;
+	}
+
+	/**
+	 * set current to last element of list (tail)
+	 *
+	 * @pre: list is non-empty
+	 *
+	 *       throws IllegalStateException if list is empty with message "Empty list,
+	 *       cannot move current to tail"
+	 *
+	 * @post: current set to last item of list (tail), off states are false
+	 *
+	 */
+	public void last() {
+		if (this.size() == 0) {
+			throw new IllegalStateException("Empty list cannot move current to head");
+		}
+
+		current = last;
+		currentIndex = last.count - 1;
+		off_left = false;
+		off_right = false;
+	}
+
+	/**
+	 * Move current pointer one item to the right
+	 *
+	 * @pre: list is non-empty and off right state is false
+	 *
+	 *       throws IllegalStateException if list is empty with message "Empty list,
+	 *       cannot move current to the right"
+	 *
+	 *       throws IllegalStateException if off right state is true with message
+	 *       "Current is already off right, cannot move it further"
+	 *
+	 * @post: if the off left state is true, then current points to head and off
+	 *        left becomes false. Else move current pointer one item to the right.
+	 *        If already at tail, current points to null and off right state becomes
+	 *        true.
+	 *
+	 */
+	public void next() {
+		//exceptions for empty list and pointer already null
+		if (this.size() == 0) {
+			throw new IllegalStateException("Empty list cannot move current to the right");
+		} else if (off_right) {
+			throw new IllegalStateException("Current is already off right, cannot move it further");
+		}
+
+		//moving pointer to the right, to the next chunk at the end of this one
+		if (off_left) {
+			first();
+		} else if (current == last && currentIndex == last.count - 1) {
+			current = null;
+			off_right = true;
+		} else if (++currentIndex == current.count) {
+			current = current.next;
+			currentIndex = 0;
+		}
+	}
+
+	/**
+	 * Move current pointer one item to the left
+	 *
+	 * @pre: list is non-empty and off left state is false
+	 *
+	 *       throws IllegalStateException if list is empty with message "Empty list,
+	 *       cannot move current to the left"
+	 *
+	 *       throws IllegalStateException if off left state is true with message
+	 *       "Current is already off left, cannot move it further"
+	 *
+	 * @post: if the off right state is true, then current points to tail and off
+	 *        right becomes false. Else move current pointer one item to the left.
+	 *        If already at head, current points to null and off left state becomes
+	 *        true.
+	 */
+	public void back() {
+		//Exceptions
+		if (this.size() == 0) {
+			throw new IllegalStateException("Empty list cannot move current to the left");
+		} else if (off_left) {
+			throw new IllegalStateException("Current is already off left, cannot move it further");
+		}
+
+		//move pointer to the left, to the previous chunk at the start of this one
+		if (off_right) {
+			last();
+		} else if (current == first && currentIndex == 0) {
+			current = null;
+			off_left = true;
+		} else if (currentIndex-- == 0) {
+			current = current.prev;
+			currentIndex = current.count - 1;
+		}
+	}
+
+	/**
+	 * Check whether current pointer is off the right side of the list (right of the
+	 * tail)
+	 *
+	 * @return whether current is off right side of list
+	 */
+	public boolean isOffRight() {
+		return off_right;
+	}
+
+	/**
+	 * Check whether current pointer is off the left side of the list (left of the
+	 * head)
+	 *
+	 * @return whether current is off left side of list
+	 */
+	public boolean isOffLeft() {
+		return off_left;
+	}
+
+	/**
+	 * Check whether current pointer is off the right side of the list (right of the
+	 * tail) or off the left side of the list (left of the head)
+	 *
+	 * @return whether current is either off left or off right side of list
+	 */
+	public boolean isOff() {
+		return isOffLeft() || isOffRight();
+	}
+
+	/**
+	 * Returns the value of the item that current points to
+	 *
+	 * @pre: list is non-empty and current is not off list
+	 *
+	 *       throws IllegalStateException if list is empty with message "Empty list,
+	 *       current points to null"
+	 *
+	 *       throws IllegalStateException if current is off list with message
+	 *       "Current is off list"
+	 *
+	 */
+	public E currentValue() {
+		//Exceptions for empty list and bad current
+		if (size() == 0) {
+			throw new IllegalStateException("Empty list, current points to null");
+		} else if (isOff()) {
+			throw new IllegalStateException("Current is off list");
+		}
+
+		return current.item(currentIndex);
+	}
+
+	/**
+	 * Insert the specified value as the new head. Move current pointer to point to
+	 * it.
+	 *
+	 * @pre: Given value is not null
+	 *
+	 *       throws IllegalArgumentException if given value is null "Cannot create a
+	 *       node that contains the null value"
+	 *
+	 * @post: inserts the specified element as the new head. Current now points to
+	 *        it, and the off left and off right states are false.
+	 *
+	 */
+	public void addFirst(E newFirst) {
+		//Exception
+		if (newFirst == null) {
+			throw new IllegalArgumentException("Cannot create a node that contains the null value");
+		}
+
+		super.addFirst(newFirst);
+
+		setCurrentToFound();
+		off_left = false;
+		off_right = false;
+	}
+
+	/**
+	 * Insert the specified value as the new tail. Move current pointer to point to
+	 * it.
+	 *
+	 * @pre: Given value is not null
+	 *
+	 *       throws IllegalArgumentException if given value is null "Cannot create a
+	 *       node that contains the null value"
+	 *
+	 * @post: inserts the specified element as the new tail. Current now points to
+	 *        it, and the off left and off right states are false.
+	 *
+	 */
+	public void addLast(E newLast) {
+		//Exception Handling
+		if (newLast == null) {
+			throw new IllegalArgumentException("Cannot create a node that contains the null value");
+		}
+
+		super.addLast(newLast);
+
+		setCurrentToFound();
+		off_left = false;
+		off_right = false;
+	}
+
+	/**
+	 * Inserts the specified item at the specified index. Inserting at the head
+	 * moves current to it, as addFirst does; otherwise current stays on the same
+	 * item.
+	 *
+	 * @param index
+	 *            the index to insert the item
+	 * @param item
+	 *            the item to insert
+	 */
+	public void add(int index, E item) {
+		int position = index == 0 ? -1 : currentPosition();
+		super.add(index, item);
+		if (position >= 0) {
+			locate(index <= position ? position + 1 : position);
+			setCurrentToFound();
+		}
+	}
+
+	/**
+	 * Retrieves and removes the item at the specified index. Removing the head or
+	 * tail moves current as removeFirst or removeLast does; removing the current
+	 * item moves current to its successor; otherwise current stays on the same
+	 * item.
+	 *
+	 * @param index
+	 *            the index of the item to be removed
+	 * @return the item previously at the specified index
+	 */
+	public E remove(int index) {
+		if (index == 0 || index == size() - 1) {
+			return super.remove(index);
+		}
+		int position = currentPosition();
+		E ans = super.remove(index);
+		if (position >= 0) {
+			locate(index < position ? position - 1 : position);
+			setCurrentToFound();
+		}
+		return ans;
+	}
+
+	/**
+	 * Removes the first item equal to the specified item and returns it. If there
+	 * is none, returns null. Current stays on the same item, or moves to the
+	 * successor of the removed item if it was current (off right if there is
+	 * none).
+	 *
+	 * @param item
+	 *            the item to be removed
+	 * @return the item that was removed
+	 */
+	public E remove(E item) {
+		int position = currentPosition();
+		int index = 0;
+		for (Chunk chunk = first; chunk != null; index += chunk.count, chunk = chunk.next) {
+			for (int i = 0; i < chunk.count; i++) {
+				if (chunk.items[i].equals(item)) {
+					E ans = removeAt(chunk, i);
+					if (position == index + i && foundChunk == null) {
+						current = null;
+						off_right = true;
+					} else if (position == index + i) {
+						setCurrentToFound();
+					} else if (position >= 0) {
+						locate(index + i < position ? position - 1 : position);
+						setCurrentToFound();
+					}
+					return ans;
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Remove the head item and return its value. Current now points to the new
+	 * head.
+	 *
+	 * @pre: list is non-empty.
+	 *
+	 *       throws IllegalStateException if list is empty with message "Empty list,
+	 *       current points to null"
+	 *
+	 * @post: removes the head item and returns its value. Current now points either
+	 *        to the new head if the list has at least one item (and therefore the
+	 *        off left and right state should be false), or points to null with the
+	 *        off left state becoming true.
+	 *
+	 */
+	public E removeFirst() {
+		if (this.size() == 0) {
+			throw new IllegalStateException("Empty list, current points to null");
+		}
+
+		E ans = super.removeFirst();
+		if (this.size() == 0) {
+			current = null;
+			off_left = true;
+		} else {
+			setCurrentToFound();
+			off_left = false;
+			off_right = false;
+		}
+
+		return ans;
+	}
+
+	/**
+	 * Remove the tail item and return its value. Current now points to null and off
+	 * right becomes true (off left is false)
+	 *
+	 * @pre: list is non-empty.
+	 *
+	 *       throws IllegalStateException if list is empty with message "Empty list,
+	 *       current points to null"
+	 *
+	 * @post: removes the tail item and returns its value. Current now points to
+	 *        null with the off right state becoming true (and off left becoming
+	 *        false).
+	 *
+	 */
+	public E removeLast() {
+		if (this.size() == 0) {
+			throw new IllegalStateException("Empty list, current points to null");
+		}
+
+		current = null;
+		off_right = true;
+		off_left = false;
+
+		return super.removeLast();
+	}
+
+	/**
+	 * Return value of the head and point current to head
+	 *
+	 * @pre: list is non-empty
+	 *
+	 *       throws IllegalStateException if list is empty with message "Empty list,
+	 *       current points to null"
+	 *
+	 * @post: points current to first element of list (head). Off states are false
+	 *
+	 */
+	public E getFirst() {
+		if (this.size() == 0) {
+			throw new IllegalStateException("Empty list, current points to null");
+		}
+
+		first();
+		return currentValue();
+	}
+
+	/**
+	 * Return value of the tail and point current to tail
+	 *
+	 * @pre: list is non-empty
+	 *
+	 *       throws IllegalStateException if list is empty with message "Empty list,
+	 *       current points to null"
+	 *
+	 * @post: points current to last element of list (tail). Off states are false
+	 *
+	 */
+	public E getLast() {
+		if (this.size() == 0) {
+			throw new IllegalStateException("Empty list, current points to null");
+		}
+
+		last();
+		return currentValue();
+	}
+
+	/**
+	 * Insert the specified value immediately after the current item. Move current
+	 * pointer to point to it.
+	 *
+	 * @pre: Given value is not null, list is non-empty, and current is not off list
+	 *
+	 *       throws IllegalArgumentException if given value is null "Cannot create a
+	 *       node that contains the null value"
+	 *
+	 *       throws IllegalArgumentException if list is empty with message "Empty
+	 *       list, current points to null"
+	 *
+	 *       throws IllegalArgumentException if current is off list with message
+	 *       "Current is off list"
+	 *
+	 * @post: inserts the specified element right after the current item. Current
+	 *        now points to it.
+	 *
+	 */
+	public void addAfterCurrent(E value) {
+		//Exception Handling
+		if (value == null) {
+			throw new IllegalArgumentException("Cannot create a node that contains the null value");
+		} else if (this.size() == 0) {
+			throw new IllegalArgumentException("Empty list, current points to null");
+		} else if (isOff()) {
+			throw new IllegalArgumentException("Current is off list");
+		}
+
+		insertAt(current, currentIndex + 1, value);
+		setCurrentToFound();
+	}
+
+	/**
+	 * Insert the specified value immediately before the current item. Move
+	 * current pointer to point to it.
+	 *
+	 * @pre: Given value is not null, list is non-empty, and current is not off list
+	 *
+	 *       throws IllegalArgumentException if given value is null "Cannot create a
+	 *       node that contains the null value"
+	 *
+	 *       throws IllegalStateException if list is empty with message "Empty list,
+	 *       current points to null"
+	 *
+	 *       throws IllegalStateException if current is off list with message
+	 *       "Current is off list"
+	 *
+	 * @post: inserts the specified element right before the current item. Current
+	 *        now points to it.
+	 *
+	 */
+	public void addBeforeCurrent(E value) {
+		//Exception Handling
+		if (value == null) {
+			throw new IllegalArgumentException("Cannot create a node that contains the null value");
+		} else if (this.size() == 0) {
+			throw new IllegalStateException("Empty list, current points to null");
+		} else if (isOff()) {
+			throw new IllegalStateException("Current is off list");
+		}
+
+		insertAt(current, currentIndex, value);
+		setCurrentToFound();
+	}
+
+	/**
+	 * Replaces the value of the item that current points to and returns the old
+	 * value. Current does not move.
+	 *
+	 * @pre: Given value is not null, list is non-empty, and current is not off list
+	 *
+	 *       throws IllegalArgumentException if given value is null "Cannot create a
+	 *       node that contains the null value"
+	 *
+	 *       throws IllegalStateException if list is empty with message "Empty list,
+	 *       current points to null"
+	 *
+	 *       throws IllegalStateException if current is off list with message
+	 *       "Current is off list"
+	 *
+	 * @post: item that current points to holds value
+	 *
+	 */
+	public E replaceCurrent(E value) {
+		//Exception Handling
+		if (value == null) {
+			throw new IllegalArgumentException("Cannot create a node that contains the null value");
+		} else if (this.size() == 0) {
+			throw new IllegalStateException("Empty list, current points to null");
+		} else if (isOff()) {
+			throw new IllegalStateException("Current is off list");
+		}
+
+		E old = current.item(currentIndex);
+		current.items[currentIndex] = value;
+		return old;
+	}
+
+	/**
+	 * Removes the item that current points to. Current now points to the successor.
+	 *
+	 * @pre: List is non-empty and current is not off list
+	 *
+	 *       throws IllegalStateException if list is empty with message "Empty list,
+	 *       current points to null"
+	 *
+	 *       throws IllegalStateException if current is off list with message
+	 *       "Current is off list"
+	 *
+	 * @post: Removes the item that current points to and moves current to its
+	 *        successor. If current was the tail, it points to null and the off
+	 *        right state becomes true.
+	 */
+	public void removeCurrent() {
+		//Exceptions
+		if (this.size() == 0) {
+			throw new IllegalStateException("Empty list, current points to null");
+		} else if (isOff()) {
+			throw new IllegalStateException("Current is off list");
+		}
+
+		removeAt(current, currentIndex);
+		setCurrentToFound();
+		if (current == null) {
+			off_right = true;
+		}
+	}
+
+	/**
+	 * Clear list and reset current pointer and off states
+	 */
+	public void clear() {
+		super.clear();
+
+		current = null;
+		off_left = false;
+		off_right = false;
+	}
+
+	/**
+	 * @return readable representation of list
+	 *
+	 *         Shows contents of underlying list and the current item.
+	 */
+	public String toString() {
+		return super.toString() + "\nCurrent is " + (current == null ? null : current.item(currentIndex));
+	}
+
+	/**
+	 * An alternative representation of the object
+	 *
+	 * @return a string representation of the list, with each element on a new line.
+	 */
+	public String otherString() {
+		StringBuilder ans = new StringBuilder("CurUnrolledDoublyLinkedList:\n");
+		for (E item : this) {
+			ans.append(item + "\n");
+		}
+		return ans.toString();
+	}
+}
@@ -0,0 +1,243 @@
+package compression;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * 2-dimensional table stored as one int per cell: the code of its value in a
+ * ValueDictionary, in which each distinct value is stored once. Reads and writes of a
+ * cell take constant time whatever the contents, which suits tables too
+ * fragmented for run-length encoding to pay off. The table still keeps count
+ * of the runs its cells would form in row-major order, so that AdaptiveTable
+ * can tell when to switch back.
+ *
+ * @author cs62
+ * @param <E>
+ *            type of value stored in the table
+ */
+class DenseTable<E> implements TwoDTable<E> {
+	// Largest number of cells that fit in one array
+	static final long MAX_CELLS = Integer.MAX_VALUE - 8;
+
+	protected int numRows, numCols; // Number of rows and cols in table
+	protected int[] valueIds; // code of the value in each cell, in row-major order
+	protected long numRuns; // number of runs the cells form in row-major order
+
+	private ValueDictionary<E> dictionary = new ValueDictionary<E>(); // values, with the cells holding each
+
+	/**
+	 * Constructor for table of size rows x cols, all of whose values are initially
+	 * set to defaultValue
+	 *
+	 * @pre: rows * cols <= MAX_CELLS
+	 *
+	 * @param rows
+	 *            # of rows in table
+	 * @param cols
+	 *            # of columns in table
+	 * @param defaultValue
+	 *            initial value of all entries in table
+	 */
+	public DenseTable(int rows, int cols, E defaultValue) {
+		if ((long) rows * cols > MAX_CELLS) {
+			throw new IllegalArgumentException("Table has too many cells to store densely");
+		}
+		numRows = rows;
+		numCols = cols;
+		valueIds = new int[rows * cols];
+		int id = idOf(defaultValue);
+		Arrays.fill(valueIds, id);
+		dictionary.addCells(id, valueIds.length);
+		numRuns = 1;
+	}
+
+	/**
+	 * @return number of runs the cells form in row-major order
+	 */
+	public long runCount() {
+		return numRuns;
+	}
+
+	/**
+	 * Given a legal (row, col) cell in the table, update its value to newInfo.
+	 *
+	 * @param row
+	 *            row of cell to be updated
+	 * @param col
+	 *            column of cell to be update
+	 * @param newInfo
+	 *            new value to place in cell (row, col)
+	 */
+	public void updateInfo(int row, int col, E newInfo) {
+		int offset = offset(row, col);
+		fill(offset, offset, idOf(newInfo));
+	}
+
+	/**
+	 * Sets every cell from (startRow, startCol) through (endRow, endCol), scanning
+	 * from left to right across successive rows, to newInfo.
+	 *
+	 * @pre: both cells are legal and (startRow, startCol) does not come after
+	 *       (endRow, endCol)
+	 *
+	 * @param startRow
+	 *            row of first cell to be updated
+	 * @param startCol
+	 *            column of first cell to be updated
+	 * @param endRow
+	 *            row of last cell to be updated
+	 * @param endCol
+	 *            column of last cell to be updated
+	 * @param newInfo
+	 *            new value to place in the cells
+	 */
+	public void fillRange(int startRow, int startCol, int endRow, int endCol, E newInfo) {
+		int from = offset(startRow, startCol);
+		int to = offset(endRow, endCol);
+		if (from > to) {
+			throw new IllegalArgumentException("Start of range comes after its end");
+		}
+		fill(from, to, idOf(newInfo));
+	}
+
+	/**
+	 * Sets the cells at row-major offsets from through to (inclusive) to newInfo.
+	 *
+	 * @pre: 0 <= from <= to < rows * cols
+	 */
+	void fillOffsets(int from, int to, E newInfo) {
+		fill(from, to, idOf(newInfo));
+	}
+
+	/**
+	 * Sets the cells at offsets from through to (inclusive) to the value with id
+	 * newId, updating the run count from the boundaries the range had before and
+	 * has after, and the cell counts of the values replaced.
+	 */
+	private void fill(int from, int to, int newId) {
+		int last = valueIds.length - 1;
+		numRuns -= boundaries(Math.max(1, from), Math.min(last, to + 1));
+		for (int i = from, j; i <= to; i = j) {
+			for (j = i + 1; j <= to && valueIds[j] == valueIds[i]; j++) {
+			}
+			dictionary.addCells(valueIds[i], i - j);
+		}
+		Arrays.fill(valueIds, from, to + 1, newId);
+		dictionary.addCells(newId, to - from + 1);
+		if (from > 0 && valueIds[from - 1] != newId) {
+			numRuns++;
+		}
+		if (to < last && valueIds[to + 1] != newId) {
+			numRuns++;
+		}
+	}
+
+	/**
+	 * @pre: lo >= 1
+	 * 
+	 * @return number of offsets i from lo through hi whose cell holds a different
+	 *         value from the cell before it
+	 */
+	private int boundaries(int lo, int hi) {
+		int ans = 0;
+		for (int i = lo; i <= hi; i++) {
+			if (valueIds[i] != valueIds[i - 1]) {
+				ans++;
+			}
+		}
+		return ans;
+	}
+
+	/**
+	 * Returns contents of specified cell
+	 *
+	 * @pre: (row,col) is legal cell in table
+	 *
+	 * @param row
+	 *            row of cell to be queried
+	 * @param col
+	 *            column of cell to be queried
+	 * @return value stored in (row, col) cell of table
+	 */
+	public E getInfo(int row, int col) {
+		return dictionary.value(valueIds[offset(row, col)]);
+	}
+
+	/**
+	 * @return value held by the cell at row-major offset
+	 */
+	E valueAt(int offset) {
+		return dictionary.value(valueIds[offset]);
+	}
+
+	/**
+	 * @return row-major offset of (row, col)
+	 */
+	private int offset(int row, int col) {
+		if (row < 0 || col < 0 || row >= numRows || col >= numCols) {
+			throw new IllegalArgumentException("Row or Column does not exist in current table");
+		}
+		return row * numCols + col;
+	}
+
+	/**
+	 * @return code of value, adding it to the dictionary if it is new
+	 */
+	private int idOf(E value) {
+		if (value == null) {
+			throw new IllegalArgumentException("Cannot store the null value in a table");
+		}
+		return dictionary.intern(value);
+	}
+
+	/**
+	 * @return dictionary of the values stored in the table, with the number of
+	 *         cells holding each
+	 */
+	ValueDictionary<E> getDictionary() {
+		return dictionary;
+	}
+
+	/**
+	 * @return succinct description of contents of table, one line per run
+	 */
+	public String toString() {
+		StringBuilder ans = new StringBuilder("DenseTable:\n");
+		for (int i = 0; i < valueIds.length; i++) {
+			if (i == 0 || valueIds[i] != valueIds[i - 1]) {
+				ans.append("<Position: (" + i / numCols + "," + i % numCols + ")=" + valueAt(i) + ">\n");
+			}
+		}
+		return ans.toString();
+	}
+
+	/**
+	 * @return a string representation of the entire table
+	 */
+	public String entireTable() {
+		StringBuilder ans = new StringBuilder();
+		try {
+			writeTable(ans);
+		} catch (IOException e) {
+			throw new IllegalStateException(e); // StringBuilder does not throw
+		}
+		return ans.toString();
+	}
+
+	/**
+	 * Writes the same text as entireTable() to out.
+	 *
+	 * @param out
+	 *            destination of the text
+	 * @throws IOException
+	 *             if out cannot be written
+	 */
+	public void writeTable(Appendable out) throws IOException {
+		for (int i = 0; i < valueIds.length; i++) {
+			out.append(String.valueOf(valueAt(i)));
+			if ((i + 1) % numCols == 0) {
+				out.append('\n');
+			}
+		}
+	}
+}
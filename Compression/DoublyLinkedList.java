@@ -1,6 +1,13 @@
 package compression;
 
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 /**
  * The {@code DoublyLinkedList} class represents a doubly linked list. It has
@@ -15,6 +22,13 @@ public class DoublyLinkedList<Item> implements Iterable<Item> {
 	protected Node first; // head of the doubly linked list
 	protected Node last; // tail of the doubly linked list
 	protected int n; // number of nodes in the doubly linked list
+	protected int modCount; // number of structural changes, checked by iterators to fail fast
+
+	private Node pool; // removed nodes kept for reuse, chained through next
+	private int pooled; // number of nodes in the pool
+	private int poolCapacity; // most nodes the pool keeps, 0 when pooling is off
+	private long poolHits; // nodes taken from the pool
+	private long poolMisses; // nodes allocated while pooling was on but the pool was empty
 
 	/**
 	 * This nested class defines the nodes in the doubly linked list with a value
@@ -67,15 +81,31 @@ public class DoublyLinkedList<Item> implements Iterable<Item> {
 		else if (index == size() - 1)
 			return last.item;
 
-		Node finger = first;
-		// search for index-th element or end of list
-		while (index > 0) {
-			finger = finger.next;
-			index--;
-		}
-		return finger.item;
+		return node(index).item;
 	}
 	
+	/**
+	 * @pre: 0 <= index < size()
+	 * 
+	 * @return the node holding the item at index, found by walking from
+	 *         whichever end of the list is nearer
+	 */
+	protected Node node(int index) {
+		Node finger;
+		if (index < n / 2) {
+			finger = first;
+			for (int i = 0; i < index; i++) {
+				finger = finger.next;
+			}
+		} else {
+			finger = last;
+			for (int i = n - 1; i > index; i--) {
+				finger = finger.prev;
+			}
+		}
+		return finger;
+	}
+
 	/**
 	 * Returns index of the specified item
 	 * 
@@ -115,7 +145,7 @@ public class DoublyLinkedList<Item> implements Iterable<Item> {
 		Node oldfirst = first;
 
 		// Make a new node and assign it to head. Fix pointers.
-		first = new Node();
+		first = obtainNode();
 		first.item = item;
 		first.next = oldfirst;
 		first.prev = null;
@@ -126,6 +156,7 @@ public class DoublyLinkedList<Item> implements Iterable<Item> {
 		else
 			oldfirst.prev = first;
 
+		modCount++;
 		n++; // increase number of nodes in doubly linked list.
 	}
 
@@ -140,7 +171,7 @@ public class DoublyLinkedList<Item> implements Iterable<Item> {
 		Node oldlast = last;
 
 		// Make a new node and assign it to tail. Fix pointers.
-		last = new Node();
+		last = obtainNode();
 		last.item = item;
 		last.next = null;
 		last.prev = oldlast;
@@ -151,6 +182,7 @@ public class DoublyLinkedList<Item> implements Iterable<Item> {
 		else
 			oldlast.next = last;
 
+		modCount++;
 		n++;
 	}
 
@@ -170,24 +202,7 @@ public class DoublyLinkedList<Item> implements Iterable<Item> {
 		} else if (index == size()) {
 			this.addLast(item);
 		} else {
-
-			Node previous = null;
-			Node finger = first;
-			// search for index-th position
-			while (index > 0) {
-				previous = finger;
-				finger = finger.next;
-				index--;
-			}
-			// create new value to insert in correct position
-			Node current = new Node();
-			current.item = item;
-			current.next = finger;
-			current.prev = previous;
-			previous.next = current;
-			finger.prev = current;
-
-			n++;
+			linkBefore(node(index), item);
 		}
 	}
 
@@ -208,9 +223,12 @@ public class DoublyLinkedList<Item> implements Iterable<Item> {
 		}
 		oldFirst.next = null;
 
+		modCount++;
 		n--;
 
-		return oldFirst.item;
+		Item item = oldFirst.item;
+		releaseNode(oldFirst);
+		return item;
 	}
 
 	/**
@@ -229,8 +247,11 @@ public class DoublyLinkedList<Item> implements Iterable<Item> {
 		} else {
 			last.next = null;
 		}
+		modCount++;
 		n--;
-		return temp.item;
+		Item item = temp.item;
+		releaseNode(temp);
+		return item;
 	}
 
 	/**
@@ -248,20 +269,8 @@ public class DoublyLinkedList<Item> implements Iterable<Item> {
 		} else if (index == size() - 1) {
 			return this.removeLast();
 		} else {
-			Node previous = null;
-			Node finger = first;
-			// search for value indexed, keep track of previous
-			while (index > 0) {
-				previous = finger;
-				finger = finger.next;
-				index--;
-			}
-			previous.next = finger.next;
-			finger.next.prev = previous;
-
-			n--;
-			// finger's value is old value, return it
-			return finger.item;
+			// the node's value is old value, return it
+			return unlink(node(index));
 		}
 
 	}
@@ -283,31 +292,284 @@ public class DoublyLinkedList<Item> implements Iterable<Item> {
 			finger = finger.next;
 		}
 		if (finger!=null){
-			if(finger.prev !=null){
-				finger.prev.next = finger.next;
-			}
-			else{
-				first = finger.next;
-			}
-			if(finger.next !=null){
-				finger.next.prev = finger.prev;
-			}
-			else{
-				last = finger.prev;
-			}
-			n--;
-			return finger.item;
+			return unlink(finger);
 		}
 		return null;
 	}
 
 	/**
-	 * remove all items from list
+	 * Inserts the specified item right after the given node.
+	 * 
+	 * @param node
+	 *            node of this list to insert after
+	 * @param item
+	 *            the item to be inserted
+	 * @return the node holding the inserted item
+	 */
+	protected Node linkAfter(Node node, Item item) {
+		Node added = obtainNode();
+		added.item = item;
+		added.prev = node;
+		added.next = node.next;
+		if (node.next == null) {
+			last = added;
+		} else {
+			node.next.prev = added;
+		}
+		node.next = added;
+
+		modCount++;
+		n++;
+		return added;
+	}
+
+	/**
+	 * Inserts the specified item right before the given node.
+	 * 
+	 * @param node
+	 *            node of this list to insert before
+	 * @param item
+	 *            the item to be inserted
+	 * @return the node holding the inserted item
+	 */
+	protected Node linkBefore(Node node, Item item) {
+		Node added = obtainNode();
+		added.item = item;
+		added.next = node;
+		added.prev = node.prev;
+		if (node.prev == null) {
+			first = added;
+		} else {
+			node.prev.next = added;
+		}
+		node.prev = added;
+
+		modCount++;
+		n++;
+		return added;
+	}
+
+	/**
+	 * Removes the given node from the list.
+	 * 
+	 * @param node
+	 *            node of this list to remove
+	 * @return the item held by the node
+	 */
+	protected Item unlink(Node node) {
+		if (node.prev != null) {
+			node.prev.next = node.next;
+		} else {
+			first = node.next;
+		}
+		if (node.next != null) {
+			node.next.prev = node.prev;
+		} else {
+			last = node.prev;
+		}
+
+		modCount++;
+		n--;
+		Item item = node.item;
+		releaseNode(node);
+		return item;
+	}
+
+	/**
+	 * @return a node for a new item, taken from the pool if it holds one
+	 */
+	protected Node obtainNode() {
+		if (pool == null) {
+			if (poolCapacity > 0) {
+				poolMisses++;
+			}
+			return new Node();
+		}
+
+		Node node = pool;
+		pool = node.next;
+		node.next = null;
+		pooled--;
+		poolHits++;
+		return node;
+	}
+
+	/**
+	 * Hands a node that has left the list to the pool, clearing its item and links
+	 * so the pool keeps nothing else alive. When pooling is off or the pool is
+	 * full the node is left as it is, for the garbage collector. A subclass that
+	 * keeps pointers to nodes, like the cursor of CurDoublyLinkedList, must move
+	 * them off a node in unlink, before it is released and reused.
+	 * 
+	 * @param node
+	 *            node no longer on this list
+	 */
+	protected void releaseNode(Node node) {
+		if (pooled >= poolCapacity) {
+			return;
+		}
+
+		node.item = null;
+		node.prev = null;
+		node.next = pool;
+		pool = node;
+		pooled++;
+	}
+
+	/**
+	 * Turns on pooling of removed nodes, keeping up to capacity of them to hold
+	 * later insertions instead of allocating new ones, or turns it off with a
+	 * capacity of 0. This suits lists with heavy insert and remove churn.
+	 * 
+	 * @pre: capacity >= 0, and while pooling is on no reference to a removed
+	 *       node is kept or used (it may come back holding another item)
+	 * 
+	 * @param capacity
+	 *            most nodes kept in the pool
+	 */
+	public void setNodePool(int capacity) {
+		if (capacity < 0) {
+			throw new IllegalArgumentException("Pool capacity must not be negative");
+		}
+
+		poolCapacity = capacity;
+		while (pooled > capacity) {
+			pool = pool.next;
+			pooled--;
+		}
+	}
+
+	/**
+	 * @return number of nodes taken from the pool
+	 */
+	public long getPoolHits() {
+		return poolHits;
+	}
+
+	/**
+	 * @return number of nodes allocated while pooling was on because the pool was
+	 *         empty
+	 */
+	public long getPoolMisses() {
+		return poolMisses;
+	}
+
+	/**
+	 * @return fraction of the nodes needed while pooling was on that came from
+	 *         the pool, or 0 if none were needed
+	 */
+	public double getPoolHitRate() {
+		long needed = poolHits + poolMisses;
+		return needed == 0 ? 0 : (double) poolHits / needed;
+	}
+
+	/**
+	 * @return number of nodes in the pool
+	 */
+	public int getPooledNodes() {
+		return pooled;
+	}
+
+	/**
+	 * remove all items from list, handing their nodes to the pool until it is
+	 * full and leaving the rest for the garbage collector
 	 */
 	public void clear() {
+		for (Node node = first; node != null && pooled < poolCapacity;) {
+			Node next = node.next;
+			releaseNode(node);
+			node = next;
+		}
 		first = null;
 		last = null;
 		n = 0;
+		modCount++;
+	}
+
+	/**
+	 * Appends the items of the given collection to the tail of the list in their
+	 * iteration order. The new nodes are chained together first and then spliced
+	 * on in one step, so the list changes only once.
+	 * 
+	 * @param items
+	 *            the items to be appended
+	 * @return true if the list changed
+	 */
+	public boolean addAll(Collection<? extends Item> items) {
+		Node chainFirst = null;
+		Node chainLast = null;
+		int count = 0;
+		for (Item item : items) {
+			Node added = obtainNode();
+			added.item = item;
+			added.prev = chainLast;
+			if (chainLast == null) {
+				chainFirst = added;
+			} else {
+				chainLast.next = added;
+			}
+			chainLast = added;
+			count++;
+		}
+		if (count == 0) {
+			return false;
+		}
+
+		if (last == null) {
+			first = chainFirst;
+		} else {
+			last.next = chainFirst;
+			chainFirst.prev = last;
+		}
+		last = chainLast;
+
+		modCount++;
+		n += count;
+		return true;
+	}
+
+	/**
+	 * Removes every item satisfying the given predicate, in a single pass from the
+	 * head.
+	 * 
+	 * @param filter
+	 *            returns true for the items to be removed
+	 * @return true if any item was removed
+	 */
+	public boolean removeIf(Predicate<? super Item> filter) {
+		int expected = modCount;
+		int removed = 0;
+		for (Node finger = first, following; finger != null; finger = following) {
+			following = finger.next;
+			if (filter.test(finger.item)) {
+				if (modCount != expected) {
+					throw new ConcurrentModificationException();
+				}
+				unlink(finger);
+				expected = modCount;
+				removed++;
+			}
+		}
+		if (modCount != expected) {
+			throw new ConcurrentModificationException();
+		}
+		return removed > 0;
+	}
+
+	/**
+	 * Performs the given action on each item, from head to tail.
+	 * 
+	 * @param action
+	 *            the action to be performed
+	 */
+	public void forEach(Consumer<? super Item> action) {
+		int expected = modCount;
+		for (Node finger = first; finger != null && modCount == expected; finger = finger.next) {
+			action.accept(finger.item);
+		}
+		if (modCount != expected) {
+			throw new ConcurrentModificationException();
+		}
 	}
 
 	/**
@@ -347,26 +609,212 @@ public class DoublyLinkedList<Item> implements Iterable<Item> {
 	 * Constructs an iterator for the doubly linked list.
 	 */
 	public Iterator<Item> iterator() {
-		return new ListIterator();
+		return new ListItr(0);
+	}
+
+	/**
+	 * Returns a list iterator starting before the item at the specified index.
+	 * 
+	 * @param index
+	 *            index of the first item to be returned by next (size() to
+	 *            start past the tail)
+	 * @return a list iterator over the items of the list
+	 */
+	public ListIterator<Item> listIterator(int index) {
+		if (index < 0 || index > n) {
+			throw new IndexOutOfBoundsException("Index " + index + " out of bounds");
+		}
+		return new ListItr(index);
+	}
+
+	/**
+	 * @return a list iterator starting at the head of the list
+	 */
+	public ListIterator<Item> listIterator() {
+		return new ListItr(0);
+	}
+
+	/**
+	 * Creates a spliterator over the items of the list. It is ORDERED, SIZED and
+	 * SUBSIZED, and splits by walking to the middle of what remains, so both
+	 * halves know their exact size and no items are copied.
+	 * 
+	 * @return a spliterator over the items of the list
+	 */
+	public Spliterator<Item> spliterator() {
+		return new NodeSpliterator(first, n, modCount);
 	}
 
 	/**
-	 * A subclass that defines the iterator for the doubly linked list.
+	 * A subclass that defines the iterator for the doubly linked list. It can
+	 * move in both directions and remove, replace or insert items in place, and
+	 * it fails fast with a ConcurrentModificationException once the list is
+	 * changed other than through it.
 	 */
-	private class ListIterator implements Iterator<Item> {
-		private Node current = first;
+	private class ListItr implements ListIterator<Item> {
+		private Node next; // node returned by next, or null past the tail
+		private Node lastReturned; // node returned by the last next or previous
+		private int nextIndex; // index of next
+		private int expectedModCount = modCount;
+
+		ListItr(int index) {
+			next = index == n ? null : node(index);
+			nextIndex = index;
+		}
 
 		public boolean hasNext() {
-			return current != null;
+			return nextIndex < n;
+		}
+
+		public Item next() {
+			checkForComodification();
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+
+			lastReturned = next;
+			next = next.next;
+			nextIndex++;
+			return lastReturned.item;
+		}
+
+		public boolean hasPrevious() {
+			return nextIndex > 0;
+		}
+
+		public Item previous() {
+			checkForComodification();
+			if (!hasPrevious()) {
+				throw new NoSuchElementException();
+			}
+
+			next = next == null ? last : next.prev;
+			lastReturned = next;
+			nextIndex--;
+			return lastReturned.item;
+		}
+
+		public int nextIndex() {
+			return nextIndex;
+		}
+
+		public int previousIndex() {
+			return nextIndex - 1;
 		}
 
 		public void remove() {
+			checkForComodification();
+			if (lastReturned == null) {
+				throw new IllegalStateException();
+			}
+
+			if (next == lastReturned) {
+				next = lastReturned.next; // removing the item returned by previous
+			} else {
+				nextIndex--;
+			}
+			unlink(lastReturned);
+			lastReturned = null;
+			expectedModCount = modCount;
 		}
 
-		public Item next() {
+		public void set(Item item) {
+			checkForComodification();
+			if (lastReturned == null) {
+				throw new IllegalStateException();
+			}
+
+			lastReturned.item = item;
+		}
+
+		public void add(Item item) {
+			checkForComodification();
+
+			if (next != null) {
+				linkBefore(next, item);
+			} else if (last != null) {
+				linkAfter(last, item);
+			} else {
+				DoublyLinkedList.this.addFirst(item);
+			}
+			lastReturned = null;
+			nextIndex++;
+			expectedModCount = modCount;
+		}
+
+		private void checkForComodification() {
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+		}
+	}
+
+	/**
+	 * A spliterator over a stretch of consecutive nodes of known length.
+	 */
+	private class NodeSpliterator implements Spliterator<Item> {
+		private Node current; // next node to be returned
+		private int remaining; // nodes left from current on
+		private final int expectedModCount;
+
+		NodeSpliterator(Node current, int remaining, int expectedModCount) {
+			this.current = current;
+			this.remaining = remaining;
+			this.expectedModCount = expectedModCount;
+		}
+
+		public boolean tryAdvance(Consumer<? super Item> action) {
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+			if (remaining == 0) {
+				return false;
+			}
+
 			Item item = current.item;
 			current = current.next;
-			return item;
+			remaining--;
+			action.accept(item);
+			return true;
+		}
+
+		public void forEachRemaining(Consumer<? super Item> action) {
+			for (; remaining > 0; remaining--) {
+				if (modCount != expectedModCount) {
+					throw new ConcurrentModificationException();
+				}
+				Item item = current.item;
+				current = current.next;
+				action.accept(item);
+			}
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+		}
+
+		public Spliterator<Item> trySplit() {
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+			int half = remaining / 2;
+			if (half == 0) {
+				return null;
+			}
+
+			Node prefix = current;
+			for (int i = 0; i < half; i++) {
+				current = current.next;
+			}
+			remaining -= half;
+			return new NodeSpliterator(prefix, half, expectedModCount);
+		}
+
+		public long estimateSize() {
+			return remaining;
+		}
+
+		public int characteristics() {
+			return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED;
 		}
 	}
 
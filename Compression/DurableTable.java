@@ -0,0 +1,581 @@
+package compression;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Table of strings kept in a CompressedTable in memory and made durable by a
+ * directory holding a snapshot of the table (a TableFile) and a write-ahead
+ * log of the updates made since. Updates are applied to the table at once and
+ * gathered into a batch, which is appended to the log and forced to disk as a
+ * whole when it holds batchSize updates or commit() is called, so the cost of
+ * a disk flush is shared by every update in the batch. Updates not yet
+ * committed are lost if the process dies.
+ *
+ * Each snapshot and log belongs to a generation. Once the log has grown past
+ * compactBytes, the table is compacted: a snapshot of it is written as the next
+ * generation, with an empty log, and the files of the last generation are
+ * deleted, but only once the directory has been forced to disk so that the
+ * names of the new files are durable. Opening the directory again loads the
+ * latest complete snapshot and replays its log, stopping at the first batch
+ * that was only partly written or whose checksum does not match.
+ *
+ * The log is a header followed by batches:
+ *
+ * <pre>
+ * int    LOG_MAGIC, LOG_VERSION
+ * long   generation of the snapshot the log follows
+ * then for each batch:
+ * int    #updates, #bytes of updates
+ * byte[] the updates, each a kind (UPDATE, RANGE or RECT), its ints and its value
+ * long   CRC32 of the updates
+ * </pre>
+ *
+ * @author cs62
+ */
+class DurableTable implements TwoDTable<String>, Closeable {
+	static final int LOG_MAGIC = 0x4354574c; // "CTWL"
+	static final int LOG_VERSION = 1;
+	static final int LOG_HEADER_BYTES = 2 * Integer.BYTES + Long.BYTES;
+	static final int BATCH_OVERHEAD = 2 * Integer.BYTES + Long.BYTES; // bytes around the updates of a batch
+	static final int DEFAULT_BATCH_SIZE = 1024; // updates per batch
+	static final long DEFAULT_COMPACT_BYTES = 1L << 26; // log size that triggers compaction
+
+	// kinds of update in the log
+	private static final byte UPDATE = 0, RANGE = 1, RECT = 2;
+
+	// names of the files of a generation; anything else in the directory is left alone
+	private static final Pattern FILE_NAME = Pattern.compile("(snapshot|log)-(\\d{1,18})\\.(ctbf|wal|tmp)");
+
+	private final Path dir;
+	private final int batchSize;
+	private final long compactBytes;
+	private CompressedTable<String> table; // current contents
+	private long generation; // generation of the snapshot and log in use
+	private FileChannel log;
+	private long logSize; // bytes of the log holding whole batches
+	private ByteArrayOutputStream batch = new ByteArrayOutputStream(); // updates not yet committed
+	private DataOutputStream batchOut = new DataOutputStream(batch);
+	private int batchUpdates; // number of updates in batch
+	private long commits, compactions, replayed; // metrics
+
+	/**
+	 * Opens the table kept in dir, with the default batch size and compaction
+	 * threshold, creating a rows x cols table of defaultValue if dir holds none.
+	 *
+	 * @param dir
+	 *            directory holding the snapshot and log
+	 * @param rows
+	 *            # of rows in a new table
+	 * @param cols
+	 *            # of columns in a new table
+	 * @param defaultValue
+	 *            initial value of all entries in a new table
+	 * @throws IOException
+	 *             if dir cannot be read or written
+	 */
+	public DurableTable(Path dir, int rows, int cols, String defaultValue) throws IOException {
+		this(dir, rows, cols, defaultValue, DEFAULT_BATCH_SIZE, DEFAULT_COMPACT_BYTES);
+	}
+
+	/**
+	 * Opens the table kept in dir, creating a rows x cols table of defaultValue
+	 * if dir holds none. An existing table keeps its own size.
+	 *
+	 * @param dir
+	 *            directory holding the snapshot and log
+	 * @param rows
+	 *            # of rows in a new table
+	 * @param cols
+	 *            # of columns in a new table
+	 * @param defaultValue
+	 *            initial value of all entries in a new table
+	 * @param batchSize
+	 *            number of updates gathered before they are committed
+	 * @param compactBytes
+	 *            size the log may reach before the table is compacted
+	 * @throws IOException
+	 *             if dir cannot be read or written
+	 */
+	public DurableTable(Path dir, int rows, int cols, String defaultValue, int batchSize, long compactBytes)
+			throws IOException {
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("Batches must hold at least one update");
+		}
+		this.dir = dir;
+		this.batchSize = batchSize;
+		this.compactBytes = compactBytes;
+		Files.createDirectories(dir);
+		recover(rows, cols, defaultValue);
+	}
+
+	/**
+	 * @return path of the snapshot of generation gen
+	 */
+	private Path snapshotPath(long gen) {
+		return dir.resolve("snapshot-" + gen + ".ctbf");
+	}
+
+	/**
+	 * @return path of the log of generation gen
+	 */
+	private Path logPath(long gen) {
+		return dir.resolve("log-" + gen + ".wal");
+	}
+
+	/**
+	 * Loads the latest snapshot in dir, or creates one for a new table, replays
+	 * the whole batches in its log, cuts off any partial batch after them and
+	 * deletes the files of older generations.
+	 */
+	private void recover(int rows, int cols, String defaultValue) throws IOException {
+		generation = -1;
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+			for (Path file : files) {
+				Matcher name = FILE_NAME.matcher(file.getFileName().toString());
+				if (name.matches() && name.group(1).equals("snapshot") && name.group(3).equals("ctbf")) {
+					generation = Math.max(generation, Long.parseLong(name.group(2)));
+				}
+			}
+		}
+		if (generation < 0) {
+			generation = 0;
+			table = new CompressedTable<String>(rows, cols, defaultValue);
+			writeSnapshot(generation);
+		} else {
+			table = TableFile.load(snapshotPath(generation));
+		}
+
+		log = FileChannel.open(logPath(generation), StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		logSize = replay();
+		if (logSize < LOG_HEADER_BYTES) {
+			log.truncate(0);
+			log.position(0);
+			writeFully(log, logHeader(generation));
+			log.force(true);
+			logSize = LOG_HEADER_BYTES;
+		} else {
+			log.truncate(logSize); // drop a torn batch so new ones follow the last whole one
+		}
+		log.position(logSize);
+		forceDirectory(); // the log's name must be durable before older generations go
+		deleteOlderThan(generation);
+	}
+
+	/**
+	 * Applies the whole batches of the log to table.
+	 *
+	 * @return bytes of the log up to the end of its last whole batch, or 0 if it
+	 *         has no valid header
+	 */
+	private long replay() throws IOException {
+		log.position(0);
+		// not closed, as that would close the log
+		DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(log), 1 << 16));
+		long pos;
+		try {
+			if (in.readInt() != LOG_MAGIC || in.readInt() != LOG_VERSION || in.readLong() != generation) {
+				return 0;
+			}
+			pos = LOG_HEADER_BYTES;
+		} catch (EOFException e) {
+			return 0;
+		}
+		CRC32 crc = new CRC32();
+		while (true) {
+			try {
+				int updates = in.readInt();
+				int length = in.readInt();
+				if (updates < 0 || length < 0 || length > log.size() - pos) {
+					return pos; // garbage where a batch should start
+				}
+				byte[] bytes = new byte[length];
+				in.readFully(bytes);
+				crc.reset();
+				crc.update(bytes);
+				if (in.readLong() != crc.getValue()) {
+					return pos;
+				}
+				apply(bytes, updates);
+				pos += BATCH_OVERHEAD + length;
+			} catch (EOFException e) {
+				return pos;
+			}
+		}
+	}
+
+	/**
+	 * Applies the updates encoded in bytes to table.
+	 */
+	private void apply(byte[] bytes, int updates) throws IOException {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+		for (int i = 0; i < updates; i++) {
+			byte kind = in.readByte();
+			int a = in.readInt(), b = in.readInt();
+			int c = kind == UPDATE ? 0 : in.readInt();
+			int d = kind == UPDATE ? 0 : in.readInt();
+			byte[] value = new byte[in.readInt()];
+			in.readFully(value);
+			String newInfo = new String(value, StandardCharsets.UTF_8);
+			if (kind == UPDATE) {
+				table.updateInfo(a, b, newInfo);
+			} else if (kind == RANGE) {
+				table.fillRange(a, b, c, d, newInfo);
+			} else if (kind == RECT) {
+				table.fillRect(a, b, c, d, newInfo);
+			} else {
+				throw new IOException("Unknown kind of update in " + logPath(generation));
+			}
+			replayed++;
+		}
+	}
+
+	/**
+	 * @return header of the log of generation gen
+	 */
+	private static ByteBuffer logHeader(long gen) {
+		ByteBuffer header = ByteBuffer.allocate(LOG_HEADER_BYTES);
+		header.putInt(LOG_MAGIC).putInt(LOG_VERSION).putLong(gen).flip();
+		return header;
+	}
+
+	/**
+	 * Writes table as the snapshot of generation gen, under a temporary name
+	 * until it is complete, and forces the rename to disk.
+	 */
+	private void writeSnapshot(long gen) throws IOException {
+		Path tmp = dir.resolve("snapshot-" + gen + ".tmp");
+		TableFile.save(table, tmp);
+		try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+			channel.force(true);
+		}
+		Files.move(tmp, snapshotPath(gen), StandardCopyOption.ATOMIC_MOVE);
+		forceDirectory();
+	}
+
+	/**
+	 * Forces the entries of dir to disk, so that files created or renamed in it
+	 * survive a crash. Forcing a file only makes its contents durable, not its
+	 * name.
+	 */
+	private void forceDirectory() throws IOException {
+		try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+			channel.force(true);
+		}
+	}
+
+	/**
+	 * Deletes the snapshots and logs of generations before gen, and any
+	 * snapshot left half written. Files whose names are not those of a
+	 * generation are skipped.
+	 */
+	private void deleteOlderThan(long gen) throws IOException {
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+			for (Path file : files) {
+				Matcher name = FILE_NAME.matcher(file.getFileName().toString());
+				if (name.matches() && (name.group(3).equals("tmp") || Long.parseLong(name.group(2)) < gen)) {
+					Files.delete(file);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Writes all of buffer to channel at its current position.
+	 */
+	private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+
+	/**
+	 * Appends the updates gathered so far to the log as one batch and forces it
+	 * to disk, then compacts the table if the log has grown past compactBytes.
+	 *
+	 * @throws IOException
+	 *             if the log cannot be written
+	 */
+	public void commit() throws IOException {
+		if (batchUpdates == 0) {
+			return;
+		}
+		CRC32 crc = new CRC32();
+		byte[] bytes = batch.toByteArray();
+		crc.update(bytes);
+		ByteBuffer buffer = ByteBuffer.allocate(BATCH_OVERHEAD + bytes.length);
+		buffer.putInt(batchUpdates).putInt(bytes.length).put(bytes).putLong(crc.getValue()).flip();
+		try {
+			writeFully(log, buffer);
+			log.force(false);
+		} catch (IOException e) {
+			try {
+				log.truncate(logSize); // keep the batch to try again, after the last whole one
+				log.position(logSize);
+			} catch (IOException f) {
+				e.addSuppressed(f);
+			}
+			throw e;
+		}
+		logSize += buffer.limit();
+		batch.reset();
+		batchUpdates = 0;
+		commits++;
+		if (logSize >= compactBytes) {
+			compact();
+		}
+	}
+
+	/**
+	 * Writes a snapshot of the table, including the updates gathered but not yet
+	 * committed, as the next generation with an empty log, and deletes the files
+	 * of the last one. The gathered updates are only discarded once the new
+	 * generation is durable: if it cannot be written, its files are removed and
+	 * the table carries on with the last generation and the updates still to be
+	 * committed to it.
+	 *
+	 * @throws IOException
+	 *             if the snapshot or log cannot be written
+	 */
+	public void compact() throws IOException {
+		long next = generation + 1;
+		FileChannel nextLog = null;
+		try {
+			writeSnapshot(next);
+			nextLog = FileChannel.open(logPath(next), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+					StandardOpenOption.READ, StandardOpenOption.WRITE);
+			writeFully(nextLog, logHeader(next));
+			nextLog.force(true);
+			forceDirectory();
+		} catch (IOException e) {
+			// a snapshot left behind would hide the updates committed to the last generation from now on
+			try {
+				if (nextLog != null) {
+					nextLog.close();
+				}
+				Files.deleteIfExists(snapshotPath(next));
+				Files.deleteIfExists(logPath(next));
+			} catch (IOException f) {
+				e.addSuppressed(f);
+			}
+			throw e;
+		}
+		log.close();
+		log = nextLog;
+		batch.reset();
+		batchUpdates = 0; // captured by the snapshot
+		logSize = LOG_HEADER_BYTES;
+		generation = next;
+		compactions++;
+		deleteOlderThan(generation);
+	}
+
+	/**
+	 * Adds an update to the current batch, committing the batch if it is full.
+	 */
+	private void record(byte kind, int a, int b, int c, int d, String newInfo) {
+		try {
+			batchOut.writeByte(kind);
+			batchOut.writeInt(a);
+			batchOut.writeInt(b);
+			if (kind != UPDATE) {
+				batchOut.writeInt(c);
+				batchOut.writeInt(d);
+			}
+			byte[] bytes = newInfo.getBytes(StandardCharsets.UTF_8);
+			batchOut.writeInt(bytes.length);
+			batchOut.write(bytes);
+			if (++batchUpdates >= batchSize) {
+				commit();
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Given a legal (row, col) cell in the table, update its value to newInfo,
+	 * and add the update to the current batch.
+	 *
+	 * @param row
+	 *            row of cell to be updated
+	 * @param col
+	 *            column of cell to be update
+	 * @param newInfo
+	 *            new value to place in cell (row, col)
+	 * @throws UncheckedIOException
+	 *             if the batch is committed and the log cannot be written
+	 */
+	public void updateInfo(int row, int col, String newInfo) {
+		table.updateInfo(row, col, newInfo);
+		record(UPDATE, row, col, 0, 0, newInfo);
+	}
+
+	/**
+	 * Sets every cell from (startRow, startCol) through (endRow, endCol), scanning
+	 * from left to right across successive rows, to newInfo, and adds the update
+	 * to the current batch.
+	 *
+	 * @pre: both cells are legal and (startRow, startCol) does not come after
+	 *       (endRow, endCol)
+	 *
+	 * @param startRow
+	 *            row of first cell to be updated
+	 * @param startCol
+	 *            column of first cell to be updated
+	 * @param endRow
+	 *            row of last cell to be updated
+	 * @param endCol
+	 *            column of last cell to be updated
+	 * @param newInfo
+	 *            new value to place in the cells
+	 * @throws UncheckedIOException
+	 *             if the batch is committed and the log cannot be written
+	 */
+	public void fillRange(int startRow, int startCol, int endRow, int endCol, String newInfo) {
+		table.fillRange(startRow, startCol, endRow, endCol, newInfo);
+		record(RANGE, startRow, startCol, endRow, endCol, newInfo);
+	}
+
+	/**
+	 * Sets every cell in rows r0 through r1 and columns c0 through c1 to newInfo,
+	 * and adds the update to the current batch.
+	 *
+	 * @pre: both corners are legal, r0 <= r1 and c0 <= c1
+	 *
+	 * @param r0
+	 *            first row of the rectangle
+	 * @param c0
+	 *            first column of the rectangle
+	 * @param r1
+	 *            last row of the rectangle
+	 * @param c1
+	 *            last column of the rectangle
+	 * @param newInfo
+	 *            new value to place in the cells
+	 * @throws UncheckedIOException
+	 *             if the batch is committed and the log cannot be written
+	 */
+	public void fillRect(int r0, int c0, int r1, int c1, String newInfo) {
+		table.fillRect(r0, c0, r1, c1, newInfo);
+		record(RECT, r0, c0, r1, c1, newInfo);
+	}
+
+	/**
+	 * Returns contents of specified cell
+	 *
+	 * @pre: (row,col) is legal cell in table
+	 *
+	 * @param row
+	 *            row of cell to be queried
+	 * @param col
+	 *            column of cell to be queried
+	 * @return value stored in (row, col) cell of table
+	 */
+	public String getInfo(int row, int col) {
+		return table.getInfo(row, col);
+	}
+
+	/**
+	 * Commits the updates gathered so far and closes the log.
+	 *
+	 * @throws IOException
+	 *             if the log cannot be written
+	 */
+	public void close() throws IOException {
+		try {
+			commit();
+		} finally {
+			log.close();
+		}
+	}
+
+	/**
+	 * @return generation of the snapshot and log in use
+	 */
+	public long getGeneration() {
+		return generation;
+	}
+
+	/**
+	 * @return bytes of the log holding committed batches
+	 */
+	public long getLogSize() {
+		return logSize;
+	}
+
+	/**
+	 * @return number of updates made but not yet committed
+	 */
+	public int getPendingUpdates() {
+		return batchUpdates;
+	}
+
+	/**
+	 * @return number of batches committed since the table was opened
+	 */
+	public long getCommits() {
+		return commits;
+	}
+
+	/**
+	 * @return number of compactions since the table was opened
+	 */
+	public long getCompactions() {
+		return compactions;
+	}
+
+	/**
+	 * @return number of updates replayed from the log when the table was opened
+	 */
+	public long getReplayed() {
+		return replayed;
+	}
+
+	/**
+	 * @return succinct description of contents of table
+	 */
+	public String toString() {
+		return "DurableTable (generation " + generation + ", " + logSize + " log bytes, " + batchUpdates
+				+ " pending):\n" + table;
+	}
+
+	/**
+	 * @return a string representation of the entire table
+	 */
+	public String entireTable() {
+		return table.entireTable();
+	}
+
+	/**
+	 * Writes the same text as entireTable() to out.
+	 *
+	 * @param out
+	 *            destination of the text
+	 * @throws IOException
+	 *             if out cannot be written
+	 */
+	public void writeTable(Appendable out) throws IOException {
+		table.writeTable(out);
+	}
+}
@@ -0,0 +1,414 @@
+package compression;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * The {@code IndexedDoublyLinkedList} class represents a list with the same
+ * operations as {@code DoublyLinkedList}, built as an indexable skip list so
+ * that get, add and remove at an index take expected time logarithmic in the
+ * size of the list rather than linear.
+ *
+ * Every node is on the doubly linked list of level 0, which holds the items in
+ * order. A node of height h is also on the lists of levels 1 through h - 1,
+ * where each level holds about half the nodes of the one below. Each link
+ * records its span, the number of level-0 steps it covers (a link off the end
+ * of a level spans up to just past the last item), so the index of an item is
+ * found by adding up spans while descending from the head. The links are
+ * doubly linked on every level, so a node can also be inserted after or
+ * removed from a given node, and its index found, by climbing from the node
+ * instead of searching from the head; nodes never move, so they can be held
+ * as cursors.
+ *
+ * @author cs62
+ */
+public class IndexedDoublyLinkedList<Item> implements Iterable<Item> {
+	static final int MAX_HEIGHT = 32; // enough levels for any int-sized list
+
+	protected final Node head = new Node(null, MAX_HEIGHT); // sentinel before the first item, on every level
+	protected Node last; // node holding the last item, or the head if the list is empty
+	protected int n; // number of items in the list
+	private int seed = 0x2545F491; // state of the xorshift generator choosing heights
+
+	/**
+	 * This nested class defines the nodes of the list, each with links to the
+	 * previous and next node on each level it is on, and the spans of its links
+	 * to the next ones.
+	 */
+	protected class Node {
+		Item item;
+		Node[] next; // next node on each level, or null at the end
+		Node[] prev; // previous node on each level (the head before the first)
+		int[] span; // level-0 steps from this node to next on each level
+
+		@SuppressWarnings("unchecked")
+		Node(Item item, int height) {
+			this.item = item;
+			next = (Node[]) new IndexedDoublyLinkedList<?>.Node[height];
+			prev = (Node[]) new IndexedDoublyLinkedList<?>.Node[height];
+			span = new int[height];
+		}
+
+		/**
+		 * @return number of levels the node is on
+		 */
+		int height() {
+			return next.length;
+		}
+
+		/**
+		 * a Node displays as its item
+		 */
+		public String toString() {
+			return String.valueOf(item);
+		}
+	}
+
+	/**
+	 * @post: constructs an empty list
+	 */
+	public IndexedDoublyLinkedList() {
+		clear();
+	}
+
+	/**
+	 * Returns true if the list does not contain any item.
+	 *
+	 * @return true if the list does not contain any item
+	 */
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	/**
+	 * Returns the number of items in the list.
+	 *
+	 * @return the number of items in the list
+	 */
+	public int size() {
+		return n;
+	}
+
+	/**
+	 * Returns item at the specified index.
+	 *
+	 * @param index
+	 *            the index of the item to be returned
+	 * @return the item at specified index
+	 */
+	public Item get(int index) {
+		rangeCheck(index);
+		return node(index).item;
+	}
+
+	/**
+	 * Returns index of the specified item
+	 *
+	 * @param desired
+	 *            the item to be located
+	 * @return index of that item (or -1)
+	 */
+	public int getIndex(Item desired) {
+		int index = 0;
+		for (Node finger = head.next[0]; finger != null; finger = finger.next[0]) {
+			if (finger.item == desired)
+				return index;
+			index++;
+		}
+		return -1;
+	}
+
+	/**
+	 * Add a value to head of list.
+	 *
+	 * @post adds value to beginning of list
+	 *
+	 * @param item
+	 *            value to be added.
+	 */
+	public void add(Item item) {
+		this.addFirst(item);
+	}
+
+	/**
+	 * Inserts the specified item at the head of the list.
+	 *
+	 * @param item
+	 *            the item to be inserted
+	 */
+	public void addFirst(Item item) {
+		linkAfter(head, item);
+	}
+
+	/**
+	 * Inserts the specified item at the tail of the list.
+	 *
+	 * @param item
+	 *            the item to be inserted
+	 */
+	public void addLast(Item item) {
+		linkAfter(last, item);
+	}
+
+	/**
+	 * Inserts the specified item at the specified index.
+	 *
+	 * @param index
+	 *            the index to insert the item
+	 * @param item
+	 *            the item to insert
+	 */
+	public void add(int index, Item item) {
+		rangeCheck(index);
+
+		if (index == 0) {
+			this.addFirst(item);
+		} else {
+			linkAfter(node(index - 1), item);
+		}
+	}
+
+	/**
+	 * Retrieves and removes the head of the list.
+	 *
+	 * @return the head of the list.
+	 */
+	public Item removeFirst() {
+		if (n == 0) {
+			throw new NoSuchElementException("Empty list");
+		}
+		return unlink(head.next[0]);
+	}
+
+	/**
+	 * Retrieves and removes the tail of the list.
+	 *
+	 * @return the tail of the list.
+	 */
+	public Item removeLast() {
+		if (n == 0) {
+			throw new NoSuchElementException("Empty list");
+		}
+		return unlink(last);
+	}
+
+	/**
+	 * Retrieves and removes the item at the specified index.
+	 *
+	 * @param index
+	 *            the index of the item to be removed
+	 * @return the item previously at the specified index
+	 */
+	public Item remove(int index) {
+		rangeCheck(index);
+
+		if (index == 0) {
+			return this.removeFirst();
+		} else if (index == size() - 1) {
+			return this.removeLast();
+		} else {
+			return unlink(node(index));
+		}
+	}
+
+	/**
+	 * Removes the first item equal to the specified item and returns it. If there
+	 * is none, returns null.
+	 *
+	 * @param item
+	 *            the item to be removed
+	 * @return the item that was removed
+	 */
+	public Item remove(Item item) {
+		Node finger = head.next[0];
+		while (finger != null && !finger.item.equals(item)) {
+			finger = finger.next[0];
+		}
+		if (finger != null) {
+			return unlink(finger);
+		}
+		return null;
+	}
+
+	/**
+	 * @pre: 0 <= index < size()
+	 *
+	 * @return the node holding the item at index, found by descending from the
+	 *         head
+	 */
+	protected Node node(int index) {
+		Node finger = head;
+		int rank = index + 1; // level-0 steps from the head
+		for (int level = MAX_HEIGHT - 1; level >= 0; level--) {
+			while (finger.next[level] != null && finger.span[level] <= rank) {
+				rank -= finger.span[level];
+				finger = finger.next[level];
+			}
+		}
+		return finger;
+	}
+
+	/**
+	 * @pre: node is a node of this list holding an item
+	 *
+	 * @return index of the item held by node, found by climbing back to the head
+	 */
+	protected int indexOf(Node node) {
+		int rank = 0;
+		for (Node finger = node; finger != head;) {
+			int top = finger.height() - 1;
+			finger = finger.prev[top];
+			rank += finger.span[top];
+		}
+		return rank - 1;
+	}
+
+	/**
+	 * @return a random height, h with probability 2^-h
+	 */
+	private int randomHeight() {
+		seed ^= seed << 13;
+		seed ^= seed >>> 17;
+		seed ^= seed << 5;
+		return Math.min(MAX_HEIGHT, Integer.numberOfTrailingZeros(seed) + 1);
+	}
+
+	/**
+	 * Inserts the specified item right after the given node, climbing from it to
+	 * find the nodes whose links pass over the new one.
+	 *
+	 * @param node
+	 *            node of this list (or the head) to insert after
+	 * @param item
+	 *            the item to be inserted
+	 * @return the node holding the inserted item
+	 */
+	protected Node linkAfter(Node node, Item item) {
+		Node added = new Node(item, randomHeight());
+		Node pred = node; // last node before added on the current level
+		int dist = 1; // level-0 steps from pred to added
+		for (int level = 0; level < MAX_HEIGHT; level++) {
+			while (pred.height() <= level) {
+				pred = pred.prev[level - 1];
+				dist += pred.span[level - 1];
+			}
+			if (level < added.height()) {
+				added.next[level] = pred.next[level];
+				added.prev[level] = pred;
+				if (pred.next[level] != null) {
+					pred.next[level].prev[level] = added;
+				}
+				pred.next[level] = added;
+				added.span[level] = pred.span[level] + 1 - dist;
+				pred.span[level] = dist;
+			} else {
+				pred.span[level]++; // passes over added
+			}
+		}
+		if (added.next[0] == null) {
+			last = added;
+		}
+
+		n++;
+		return added;
+	}
+
+	/**
+	 * Removes the given node from the list.
+	 *
+	 * @param node
+	 *            node of this list to remove
+	 * @return the item held by the node
+	 */
+	protected Item unlink(Node node) {
+		Node pred = node;
+		for (int level = 0; level < MAX_HEIGHT; level++) {
+			if (level < node.height()) {
+				pred = node.prev[level];
+				pred.next[level] = node.next[level];
+				if (node.next[level] != null) {
+					node.next[level].prev[level] = pred;
+				}
+				pred.span[level] += node.span[level] - 1;
+			} else {
+				while (pred.height() <= level) {
+					pred = pred.prev[level - 1];
+				}
+				pred.span[level]--; // passed over node
+			}
+		}
+		if (node == last) {
+			last = node.prev[0];
+		}
+
+		n--;
+		return node.item;
+	}
+
+	/**
+	 * remove all items from list
+	 */
+	public void clear() {
+		for (int level = 0; level < MAX_HEIGHT; level++) {
+			head.next[level] = null;
+			head.span[level] = 1; // to just past the (missing) last item
+		}
+		last = head;
+		n = 0;
+	}
+
+	/**
+	 * A helper method to check if the specified index is in range.
+	 *
+	 * @param index
+	 *            the index to check
+	 */
+	private void rangeCheck(int index) {
+		if (index >= n || index < 0)
+			throw new IndexOutOfBoundsException("Index " + index + " out of bounds");
+	}
+
+	/**
+	 * Converts the list to a String.
+	 */
+	public String toString() {
+		if (isEmpty()) {
+			return "Indexed Linked List: []";
+		}
+
+		StringBuilder ret = new StringBuilder("Indexed Linked List: [<- ");
+		for (Item item : this) {
+			ret.append(item).append(" <-> ");
+		}
+		ret.setLength(ret.length() - 5);
+		ret.append(" ->] First: " + head.next[0].item + ", Last: " + last.item);
+		return ret.toString();
+	}
+
+	/**
+	 * Constructs an iterator for the list.
+	 */
+	public Iterator<Item> iterator() {
+		return new ListIterator();
+	}
+
+	/**
+	 * An iterator walking level 0.
+	 */
+	private class ListIterator implements Iterator<Item> {
+		private Node current = head.next[0];
+
+		public boolean hasNext() {
+			return current != null;
+		}
+
+		public Item next() {
+			if (current == null) {
+				throw new NoSuchElementException();
+			}
+			Item item = current.item;
+			current = current.next[0];
+			return item;
+		}
+	}
+}
@@ -0,0 +1,181 @@
+package compression;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Read-only 2-dimensional table reading its runs straight out of a memory
+ * mapped file written by TableFile. Run i is the (long start offset, int value
+ * id) pair at byte i * TableFile.RUN_BYTES of the mapping; the runs are never
+ * copied into a list.
+ *
+ * @author cs62
+ */
+class MappedTable implements TwoDTable<String> {
+	protected int numRows, numCols; // Number of rows and cols in table
+	private CellOrder order; // order of the cells, which the runs follow
+	private String[] values; // value with each id
+	private ByteBuffer runs; // mapped run entries
+	private int numRuns;
+
+	/**
+	 * @param rows
+	 *            # of rows in table
+	 * @param cols
+	 *            # of columns in table
+	 * @param order
+	 *            order of the cells of the table
+	 * @param values
+	 *            value with each id
+	 * @param runs
+	 *            numRuns run entries, ordered by start offset
+	 * @param numRuns
+	 *            number of runs
+	 */
+	MappedTable(int rows, int cols, CellOrder order, String[] values, ByteBuffer runs, int numRuns) {
+		numRows = rows;
+		numCols = cols;
+		this.order = order;
+		this.values = values;
+		this.runs = runs;
+		this.numRuns = numRuns;
+	}
+
+	/**
+	 * @return number of runs in the table
+	 */
+	public int runCount() {
+		return numRuns;
+	}
+
+	/**
+	 * Returns contents of specified cell, by binary search over the mapped runs
+	 *
+	 * @pre: (row,col) is legal cell in table
+	 *
+	 * @param row
+	 *            row of cell to be queried
+	 * @param col
+	 *            column of cell to be queried
+	 * @return value stored in (row, col) cell of table
+	 */
+	public String getInfo(int row, int col) {
+		if (row < 0 || col < 0 || row >= numRows || col >= numCols) {
+			throw new IllegalArgumentException("Row or Column does not exist in current table");
+		}
+		long offset = order.offset(row, col, numRows, numCols);
+		int low = 0;
+		int high = numRuns - 1;
+		while (low < high) {
+			int mid = (low + high + 1) >>> 1;
+			if (start(mid) <= offset) {
+				low = mid;
+			} else {
+				high = mid - 1;
+			}
+		}
+		return value(low);
+	}
+
+	/**
+	 * Not supported, as the table is read-only
+	 */
+	public void updateInfo(int row, int col, String newInfo) {
+		throw new UnsupportedOperationException("Mapped table is read-only");
+	}
+
+	/**
+	 * Not supported, as the table is read-only
+	 */
+	public void fillRange(int startRow, int startCol, int endRow, int endCol, String newInfo) {
+		throw new UnsupportedOperationException("Mapped table is read-only");
+	}
+
+	/**
+	 * @return offset of the first cell of run i
+	 */
+	private long start(int i) {
+		return runs.getLong(i * TableFile.RUN_BYTES);
+	}
+
+	/**
+	 * @return value held by run i
+	 */
+	private String value(int i) {
+		return values[runs.getInt(i * TableFile.RUN_BYTES + Long.BYTES)];
+	}
+
+	/**
+	 * @return a new CompressedTable with the same contents, which can be updated
+	 */
+	public CompressedTable<String> toCompressedTable() {
+		CompressedTable<String> table = new CompressedTable<String>(numRows, numCols, value(0), order);
+		for (int i = 1; i < numRuns; i++) {
+			long to = i + 1 < numRuns ? start(i + 1) - 1 : (long) numRows * numCols - 1;
+			table.fillOffsets(start(i), to, value(i));
+		}
+		return table;
+	}
+
+	/**
+	 * @return succinct description of contents of table
+	 */
+	public String toString() {
+		StringBuilder ans = new StringBuilder("MappedTable:\n");
+		for (int i = 0; i < numRuns; i++) {
+			RowOrderedPosn start = order.position(start(i), numRows, numCols);
+			ans.append("<Position: (" + start.getRow() + "," + start.getCol() + ")=" + value(i) + ">\n");
+		}
+		return ans.toString();
+	}
+
+	/**
+	 * @return a string representation of the entire table
+	 */
+	public String entireTable() {
+		StringBuilder ans = new StringBuilder();
+		try {
+			writeTable(ans);
+		} catch (IOException e) {
+			throw new IllegalStateException(e); // StringBuilder does not throw
+		}
+		return ans.toString();
+	}
+
+	/**
+	 * Writes the same text as entireTable() to out by expanding each run in turn,
+	 * or, if the cells are not in row-major order, by looking up each cell.
+	 *
+	 * @param out
+	 *            destination of the text
+	 * @throws IOException
+	 *             if out cannot be written
+	 */
+	public void writeTable(Appendable out) throws IOException {
+		if (order != CellOrder.ROW_MAJOR) {
+			for (int r = 0; r < numRows; r++) {
+				for (int c = 0; c < numCols; c++) {
+					out.append(getInfo(r, c));
+				}
+				out.append('\n');
+			}
+			return;
+		}
+		long end = (long) numRows * numCols;
+		for (int i = 0; i < numRuns; i++) {
+			String text = value(i);
+			long pos = start(i);
+			long runEnd = i + 1 < numRuns ? start(i + 1) : end;
+			while (pos < runEnd) {
+				long count = Math.min(runEnd - pos, numCols - pos % numCols);
+				for (long j = 0; j < count; j++) {
+					out.append(text);
+				}
+				pos += count;
+				if (pos % numCols == 0) {
+					out.append('\n');
+				}
+			}
+		}
+	}
+}
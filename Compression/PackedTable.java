@@ -0,0 +1,284 @@
+package compression;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Run-length encoded 2-dimensional table that keeps its runs in parallel
+ * primitive arrays rather than a linked list. Run i starts at row-major offset
+ * starts[i] and holds the value with id valueIds[i]; each distinct value is
+ * stored once in a ValueDictionary, which counts the runs holding it.
+ *
+ * Reads and updates allocate nothing, apart from growing the arrays or adding a
+ * value that has not been seen before. Runs are found by binary search; an
+ * update that splits or merges runs shifts the tail of the arrays.
+ *
+ * @author cs62
+ * @param <E>
+ *            type of value stored in the table
+ */
+class PackedTable<E> implements TwoDTable<E> {
+	private static final int INITIAL_CAPACITY = 16;
+
+	protected int numRows, numCols; // Number of rows and cols in table
+	protected long[] starts; // offset of the first cell of each run
+	protected int[] valueIds; // id of the value held by each run
+	protected int numRuns; // number of runs in use
+
+	private ValueDictionary<E> dictionary = new ValueDictionary<E>(); // values, with the runs holding each
+
+	/**
+	 * Constructor for table of size rows x cols, all of whose values are initially
+	 * set to defaultValue
+	 *
+	 * @param rows
+	 *            # of rows in table
+	 * @param cols
+	 *            # of columns in table
+	 * @param defaultValue
+	 *            initial value of all entries in table
+	 */
+	public PackedTable(int rows, int cols, E defaultValue) {
+		numRows = rows;
+		numCols = cols;
+
+		starts = new long[INITIAL_CAPACITY];
+		valueIds = new int[INITIAL_CAPACITY];
+		starts[0] = 0;
+		valueIds[0] = idOf(defaultValue);
+		dictionary.addRuns(valueIds[0], 1);
+		numRuns = 1;
+	}
+
+	/**
+	 * @return number of runs in the table
+	 */
+	public int runCount() {
+		return numRuns;
+	}
+
+	/**
+	 * Given a legal (row, col) cell in the table, update its value to newInfo.
+	 *
+	 * @param row
+	 *            row of cell to be updated
+	 * @param col
+	 *            column of cell to be update
+	 * @param newInfo
+	 *            new value to place in cell (row, col)
+	 */
+	public void updateInfo(int row, int col, E newInfo) {
+		long offset = offset(row, col);
+		fill(offset, offset, idOf(newInfo));
+	}
+
+	/**
+	 * Sets every cell from (startRow, startCol) through (endRow, endCol), scanning
+	 * from left to right across successive rows, to newInfo, replacing the runs
+	 * inside the range in one splice.
+	 *
+	 * @pre: both cells are legal and (startRow, startCol) does not come after
+	 *       (endRow, endCol)
+	 *
+	 * @param startRow
+	 *            row of first cell to be updated
+	 * @param startCol
+	 *            column of first cell to be updated
+	 * @param endRow
+	 *            row of last cell to be updated
+	 * @param endCol
+	 *            column of last cell to be updated
+	 * @param newInfo
+	 *            new value to place in the cells
+	 */
+	public void fillRange(int startRow, int startCol, int endRow, int endCol, E newInfo) {
+		long from = offset(startRow, startCol);
+		long to = offset(endRow, endCol);
+		if (from > to) {
+			throw new IllegalArgumentException("Start of range comes after its end");
+		}
+		fill(from, to, idOf(newInfo));
+	}
+
+	/**
+	 * Sets the cells at offsets from through to (inclusive) to the value with id
+	 * newId, splitting or merging only the runs around the range.
+	 */
+	private void fill(long from, long to, int newId) {
+		int run = find(from);
+		int last = find(to);
+		if (run == last && valueIds[run] == newId) {
+			return;
+		}
+
+		// absorb the runs starting inside the range, remembering the value the range ended with
+		int afterId = valueIds[last];
+		removeRuns(run + 1, last + 1);
+
+		int filled = run;
+		if (starts[run] == from) {
+			// range heads its run, so reuse it
+			dictionary.addRuns(valueIds[run], -1);
+			dictionary.addRuns(newId, 1);
+			valueIds[run] = newId;
+		} else {
+			filled = run + 1;
+			insertRun(filled, from, newId);
+		}
+
+		// cells after the range keep the value they had, unless another run already starts there
+		boolean endsRun = to + 1 == (long) numRows * numCols
+				|| (filled + 1 < numRuns && starts[filled + 1] == to + 1);
+		if (!endsRun && afterId != newId) {
+			insertRun(filled + 1, to + 1, afterId);
+		} else if (filled + 1 < numRuns && valueIds[filled + 1] == newId) {
+			removeRuns(filled + 1, filled + 2);
+		}
+
+		if (filled > 0 && valueIds[filled - 1] == newId) {
+			removeRuns(filled, filled + 1);
+		}
+	}
+
+	/**
+	 * Returns contents of specified cell
+	 *
+	 * @pre: (row,col) is legal cell in table
+	 *
+	 * @param row
+	 *            row of cell to be queried
+	 * @param col
+	 *            column of cell to be queried
+	 * @return value stored in (row, col) cell of table
+	 */
+	public E getInfo(int row, int col) {
+		return dictionary.value(valueIds[find(offset(row, col))]);
+	}
+
+	/**
+	 * @return row-major offset of (row, col)
+	 */
+	private long offset(int row, int col) {
+		if (row < 0 || col < 0 || row >= numRows || col >= numCols) {
+			throw new IllegalArgumentException("Row or Column does not exist in current table");
+		}
+		return (long) row * numCols + col;
+	}
+
+	/**
+	 * @return index of the run covering offset, i.e., the last run starting at or
+	 *         before it
+	 */
+	private int find(long offset) {
+		int low = 0;
+		int high = numRuns - 1;
+		while (low < high) {
+			int mid = (low + high + 1) >>> 1;
+			if (starts[mid] <= offset) {
+				low = mid;
+			} else {
+				high = mid - 1;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * @return id of value, adding it to the dictionary if it is new
+	 */
+	private int idOf(E value) {
+		if (value == null) {
+			throw new IllegalArgumentException("Cannot store the null value in a table");
+		}
+		return dictionary.intern(value);
+	}
+
+	/**
+	 * @return dictionary of the values stored in the table, with the number of
+	 *         runs holding each
+	 */
+	ValueDictionary<E> getDictionary() {
+		return dictionary;
+	}
+
+	/**
+	 * Makes room for and stores a run at index, shifting later runs up.
+	 */
+	private void insertRun(int index, long start, int valueId) {
+		if (numRuns == starts.length) {
+			starts = Arrays.copyOf(starts, 2 * numRuns);
+			valueIds = Arrays.copyOf(valueIds, 2 * numRuns);
+		}
+		System.arraycopy(starts, index, starts, index + 1, numRuns - index);
+		System.arraycopy(valueIds, index, valueIds, index + 1, numRuns - index);
+		starts[index] = start;
+		valueIds[index] = valueId;
+		dictionary.addRuns(valueId, 1);
+		numRuns++;
+	}
+
+	/**
+	 * Removes the runs with indices from (inclusive) to to (exclusive), so that
+	 * their cells belong to the run before them.
+	 */
+	private void removeRuns(int from, int to) {
+		for (int i = from; i < to; i++) {
+			dictionary.addRuns(valueIds[i], -1);
+		}
+		System.arraycopy(starts, to, starts, from, numRuns - to);
+		System.arraycopy(valueIds, to, valueIds, from, numRuns - to);
+		numRuns -= to - from;
+	}
+
+	/**
+	 * @return succinct description of contents of table
+	 */
+	public String toString() {
+		StringBuilder ans = new StringBuilder("PackedTable:\n");
+		for (int i = 0; i < numRuns; i++) {
+			ans.append("<Position: (" + starts[i] / numCols + "," + starts[i] % numCols + ")="
+					+ dictionary.value(valueIds[i]) + ">\n");
+		}
+		return ans.toString();
+	}
+
+	/**
+	 * @return a string representation of the entire table
+	 */
+	public String entireTable() {
+		StringBuilder ans = new StringBuilder();
+		try {
+			writeTable(ans);
+		} catch (IOException e) {
+			throw new IllegalStateException(e); // StringBuilder does not throw
+		}
+		return ans.toString();
+	}
+
+	/**
+	 * Writes the same text as entireTable() to out by expanding each run in turn.
+	 *
+	 * @param out
+	 *            destination of the text
+	 * @throws IOException
+	 *             if out cannot be written
+	 */
+	public void writeTable(Appendable out) throws IOException {
+		long end = (long) numRows * numCols;
+		for (int i = 0; i < numRuns; i++) {
+			String text = String.valueOf(dictionary.value(valueIds[i]));
+			long pos = starts[i];
+			long runEnd = i + 1 < numRuns ? starts[i + 1] : end;
+			while (pos < runEnd) {
+				long count = Math.min(runEnd - pos, numCols - pos % numCols);
+				for (long j = 0; j < count; j++) {
+					out.append(text);
+				}
+				pos += count;
+				if (pos % numCols == 0) {
+					out.append('\n');
+				}
+			}
+		}
+	}
+}
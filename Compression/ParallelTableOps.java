@@ -0,0 +1,298 @@
+package compression;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Renders and compares large CompressedTables in parallel. The rows are split
+ * into bands, and each band is handled by a fork/join task that walks the runs
+ * covering it in place, starting from the run index, without copying them.
+ *
+ * The tables must not be updated while an operation is running.
+ *
+ * @author cs62
+ */
+class ParallelTableOps {
+	private static final int BAND_CELLS = 1 << 16; // cells per band (bands are whole rows)
+
+	/**
+	 * @return number of rows in each band of table
+	 */
+	private static int bandRows(CompressedTable<?> table) {
+		return Math.max(1, BAND_CELLS / Math.max(1, table.numCols));
+	}
+
+	/**
+	 * @return number of bands table is split into
+	 */
+	private static int bandCount(CompressedTable<?> table) {
+		return (table.numRows + bandRows(table) - 1) / bandRows(table);
+	}
+
+	/**
+	 * Computes entireTable() of table using the threads of pool.
+	 *
+	 * @param table
+	 *            table to render
+	 * @param pool
+	 *            pool to run the tasks in
+	 * @return same string as table.entireTable()
+	 */
+	public static <E> String entireTable(CompressedTable<E> table, ForkJoinPool pool) {
+		StringBuilder ans = new StringBuilder();
+		try {
+			writeTable(table, ans, pool);
+		} catch (IOException e) {
+			throw new IllegalStateException(e); // StringBuilder does not throw
+		}
+		return ans.toString();
+	}
+
+	/**
+	 * Writes the same text as table.entireTable() to out. The bands are rendered
+	 * in parallel on pool and then written out in order.
+	 *
+	 * @param table
+	 *            table to render
+	 * @param out
+	 *            destination of the text
+	 * @param pool
+	 *            pool to run the tasks in
+	 * @throws IOException
+	 *             if out cannot be written
+	 */
+	public static <E> void writeTable(CompressedTable<E> table, Appendable out, ForkJoinPool pool)
+			throws IOException {
+		StringBuilder[] parts = new StringBuilder[bandCount(table)];
+		pool.invoke(new RenderTask(table, parts, 0, parts.length));
+		for (StringBuilder part : parts) {
+			out.append(part);
+		}
+	}
+
+	/**
+	 * Renders bands [fromBand, toBand) of a table into parts.
+	 */
+	private static class RenderTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final CompressedTable<?> table;
+		private final StringBuilder[] parts;
+		private final int fromBand, toBand;
+
+		RenderTask(CompressedTable<?> table, StringBuilder[] parts, int fromBand, int toBand) {
+			this.table = table;
+			this.parts = parts;
+			this.fromBand = fromBand;
+			this.toBand = toBand;
+		}
+
+		protected void compute() {
+			if (toBand - fromBand > 1) {
+				int mid = (fromBand + toBand) >>> 1;
+				invokeAll(new RenderTask(table, parts, fromBand, mid), new RenderTask(table, parts, mid, toBand));
+				return;
+			}
+			int rows = bandRows(table);
+			int fromRow = fromBand * rows;
+			int toRow = Math.min(table.numRows, fromRow + rows);
+			StringBuilder part = new StringBuilder((int) ((long) (toRow - fromRow) * (table.numCols + 1)));
+			try {
+				table.writeRows(part, fromRow, toRow);
+			} catch (IOException e) {
+				throw new IllegalStateException(e); // StringBuilder does not throw
+			}
+			parts[fromBand] = part;
+		}
+	}
+
+	/**
+	 * Finds the cells where two tables of the same dimensions differ, using the
+	 * threads of pool. Changed cells are reported as rectangles: each row's
+	 * changed cells are grouped into maximal spans of columns, and a span is
+	 * joined to the rectangle above it when that rectangle covers exactly the
+	 * same columns in the previous row.
+	 *
+	 * @param before
+	 *            one table
+	 * @param after
+	 *            other table
+	 * @param pool
+	 *            pool to run the tasks in
+	 * @return disjoint rectangles covering exactly the cells where the tables
+	 *         differ, ordered by first row and then first column
+	 */
+	public static <E> List<TableRegion> diff(CompressedTable<E> before, CompressedTable<E> after,
+			ForkJoinPool pool) {
+		if (before.numRows != after.numRows || before.numCols != after.numCols) {
+			throw new IllegalArgumentException("Tables have different dimensions");
+		}
+		ArrayList<int[]> rects = pool.invoke(new DiffTask<E>(before, after, 0, bandCount(before)));
+		ArrayList<TableRegion> ans = new ArrayList<TableRegion>(rects.size());
+		for (int[] rect : rects) {
+			ans.add(new TableRegion(rect[0], rect[1], rect[2], rect[3]));
+		}
+		ans.sort((x, y) -> x.r0 != y.r0 ? Integer.compare(x.r0, y.r0) : Integer.compare(x.c0, y.c0));
+		return ans;
+	}
+
+	/**
+	 * Compares bands [fromBand, toBand) of two tables, producing rectangles as
+	 * {r0, c0, r1, c1} arrays.
+	 */
+	private static class DiffTask<E> extends RecursiveTask<ArrayList<int[]>> {
+		private static final long serialVersionUID = 1L;
+		private final CompressedTable<E> before, after;
+		private final int fromBand, toBand;
+
+		DiffTask(CompressedTable<E> before, CompressedTable<E> after, int fromBand, int toBand) {
+			this.before = before;
+			this.after = after;
+			this.fromBand = fromBand;
+			this.toBand = toBand;
+		}
+
+		protected ArrayList<int[]> compute() {
+			int rows = bandRows(before);
+			if (toBand - fromBand == 1) {
+				return diffRows(before, after, fromBand * rows, Math.min(before.numRows, (fromBand + 1) * rows));
+			}
+			int mid = (fromBand + toBand) >>> 1;
+			DiffTask<E> upper = new DiffTask<E>(before, after, fromBand, mid);
+			upper.fork();
+			ArrayList<int[]> lower = new DiffTask<E>(before, after, mid, toBand).compute();
+			ArrayList<int[]> ans = upper.join();
+
+			// join rectangles meeting across the boundary between the halves
+			int boundary = mid * rows;
+			HashMap<Long, int[]> bottom = new HashMap<Long, int[]>();
+			for (int[] rect : ans) {
+				if (rect[2] == boundary - 1) {
+					bottom.put(span(rect[1], rect[3]), rect);
+				}
+			}
+			for (int[] rect : lower) {
+				int[] above = rect[0] == boundary ? bottom.get(span(rect[1], rect[3])) : null;
+				if (above != null) {
+					above[2] = rect[2];
+				} else {
+					ans.add(rect);
+				}
+			}
+			return ans;
+		}
+	}
+
+	/**
+	 * @return key identifying the columns c0 through c1
+	 */
+	private static long span(int c0, int c1) {
+		return ((long) c0 << 32) | c1;
+	}
+
+	/**
+	 * Compares rows fromRow up to (but not including) toRow of two tables by
+	 * walking both run lists side by side, or cell by cell if either table is not
+	 * in row-major order.
+	 */
+	private static <E> ArrayList<int[]> diffRows(CompressedTable<E> before, CompressedTable<E> after, int fromRow,
+			int toRow) {
+		int cols = before.numCols;
+		RegionBuilder regions = new RegionBuilder();
+		if (before.order != CellOrder.ROW_MAJOR || after.order != CellOrder.ROW_MAJOR) {
+			for (int r = fromRow; r < toRow; r++) {
+				for (int c = 0; c < cols; c++) {
+					if (!before.peekInfo(r, c).equals(after.peekInfo(r, c))) {
+						regions.add(r, c, c);
+					}
+				}
+			}
+			regions.flush();
+			return regions.rects;
+		}
+		long end = (long) before.numRows * cols;
+		long pos = (long) fromRow * cols;
+		long bandEnd = (long) toRow * cols;
+		DoublyLinkedList<Association<RowOrderedPosn, E>>.Node x = before.runIndex.floorEntry(pos).getValue();
+		DoublyLinkedList<Association<RowOrderedPosn, E>>.Node y = after.runIndex.floorEntry(pos).getValue();
+
+		while (pos < bandEnd) {
+			long endX = x.next == null ? end : x.next.item.theKey.offset();
+			long endY = y.next == null ? end : y.next.item.theKey.offset();
+			long segmentEnd = Math.min(bandEnd, Math.min(endX, endY));
+			if (!x.item.theValue.equals(y.item.theValue)) {
+				// split the differing cells into one span per row
+				for (long from = pos; from < segmentEnd;) {
+					long rowEnd = Math.min(segmentEnd, (from / cols + 1) * cols);
+					regions.add((int) (from / cols), (int) (from % cols), (int) ((rowEnd - 1) % cols));
+					from = rowEnd;
+				}
+			}
+			pos = segmentEnd;
+			if (endX == segmentEnd) {
+				x = x.next;
+			}
+			if (endY == segmentEnd) {
+				y = y.next;
+			}
+		}
+		regions.flush();
+		return regions.rects;
+	}
+
+	/**
+	 * Gathers spans of changed cells, given in row-major order, into rectangles.
+	 */
+	private static class RegionBuilder {
+		ArrayList<int[]> rects = new ArrayList<int[]>();
+		// rectangles ending in the previous row and in the current row, by their columns
+		HashMap<Long, int[]> previousRow = new HashMap<Long, int[]>();
+		HashMap<Long, int[]> currentRow = new HashMap<Long, int[]>();
+		int row = -1; // row of the span being built
+		int c0, c1; // columns of the span being built
+		boolean pending; // whether a span is being built
+
+		/**
+		 * Adds the span of columns c0 through c1 of row.
+		 */
+		void add(int row, int c0, int c1) {
+			if (pending && row == this.row && c0 == this.c1 + 1) {
+				this.c1 = c1; // continues the span being built
+				return;
+			}
+			flush();
+			if (row != this.row) {
+				previousRow = row == this.row + 1 ? currentRow : new HashMap<Long, int[]>();
+				currentRow = new HashMap<Long, int[]>();
+				this.row = row;
+			}
+			this.c0 = c0;
+			this.c1 = c1;
+			pending = true;
+		}
+
+		/**
+		 * Finishes the span being built, extending the rectangle above it if that
+		 * covers the same columns.
+		 */
+		void flush() {
+			if (!pending) {
+				return;
+			}
+			long key = span(c0, c1);
+			int[] rect = previousRow.get(key);
+			if (rect != null) {
+				rect[2] = row;
+			} else {
+				rect = new int[] { row, c0, row, c1 };
+				rects.add(rect);
+			}
+			currentRow.put(key, rect);
+			pending = false;
+		}
+	}
+}
@@ -0,0 +1,83 @@
+package compression;
+
+import java.util.Arrays;
+
+/**
+ * The runs of a table holding one value, with running totals of their
+ * lengths, so that the number of cells holding the value in any range of
+ * offsets can be found by two binary searches. Built from the runs of a table
+ * in time proportional to their number and only valid until the table next
+ * changes.
+ *
+ * @author cs62
+ */
+class PrefixCounts {
+	private long[] starts = new long[4]; // offset of the first cell of each run of the value
+	private long[] ends = new long[4]; // offset just past the last cell of each run
+	private long[] totals = new long[5]; // totals[i] is the total length of the first i runs
+	private int size; // number of runs
+
+	/**
+	 * Adds a run after all those added so far.
+	 *
+	 * @pre: start is at or after the end of the last run added
+	 *
+	 * @param start
+	 *            offset of the first cell of the run
+	 * @param end
+	 *            offset just past the last cell of the run
+	 */
+	void add(long start, long end) {
+		if (size == starts.length) {
+			starts = Arrays.copyOf(starts, 2 * size);
+			ends = Arrays.copyOf(ends, 2 * size);
+			totals = Arrays.copyOf(totals, 2 * size + 1);
+		}
+		starts[size] = start;
+		ends[size] = end;
+		totals[size + 1] = totals[size] + end - start;
+		size++;
+	}
+
+	/**
+	 * @return number of runs
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @param from
+	 *            offset of the first cell of the range
+	 * @param to
+	 *            offset of the last cell of the range
+	 * @return number of cells from offset from through to (inclusive) in the runs
+	 */
+	public long cellsIn(long from, long to) {
+		int first = firstAbove(ends, from); // first run ending after from
+		int last = firstAbove(starts, to); // just past the last run starting by to
+		if (first >= last) {
+			return 0;
+		}
+		// trim the runs sticking out of either end of the range
+		return totals[last] - totals[first] - Math.max(0, from - starts[first])
+				- Math.max(0, ends[last - 1] - (to + 1));
+	}
+
+	/**
+	 * @return index of the first of the size sorted entries of sorted greater
+	 *         than key, or size if there is none
+	 */
+	private int firstAbove(long[] sorted, long key) {
+		int lo = 0, hi = size;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (sorted[mid] > key) {
+				hi = mid;
+			} else {
+				lo = mid + 1;
+			}
+		}
+		return lo;
+	}
+}
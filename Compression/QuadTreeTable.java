@@ -0,0 +1,389 @@
+package compression;
+
+import java.io.IOException;
+
+/**
+ * Implementation of a 2-dimensional table as a region quadtree, suited to
+ * tables made of large rectangular blocks of equal values. The table is
+ * covered by a square whose side is a power of 2. Each node of the tree covers
+ * a square and either holds one value for all of its cells (a leaf) or splits
+ * the square into four quarters: top left, top right, bottom left and bottom
+ * right. A quarter lying wholly outside the table is never allocated, and is
+ * left null.
+ *
+ * Lookups and single updates take time proportional to the depth of the tree,
+ * the log of the larger dimension. After each update, any node whose quarters
+ * have all become leaves holding the same value is turned back into a leaf, so
+ * the tree always has one leaf per maximal uniform square.
+ *
+ * @author cs62
+ * @param <E>
+ *            type of value stored in the table
+ */
+class QuadTreeTable<E> implements TwoDTable<E> {
+	protected int numRows, numCols; // Number of rows and cols in table
+	protected long side; // side of the square covered by root, a power of 2
+	protected Node root;
+	protected int numNodes; // size of the tree
+	protected int numLeaves; // leaves of the tree
+
+	/**
+	 * Node of the tree, covering a square of the table
+	 */
+	protected class Node {
+		E value; // value of every cell of a leaf, or null for an internal node
+		Node[] quarters; // top left, top right, bottom left and bottom right (null outside the table), or null for a leaf
+
+		/**
+		 * Creates a leaf.
+		 *
+		 * @param value
+		 *            value of every cell in the square
+		 */
+		Node(E value) {
+			this.value = value;
+		}
+	}
+
+	/**
+	 * Constructor for table of size rows x cols, all of whose values are initially
+	 * set to defaultValue
+	 *
+	 * @param rows
+	 *            # of rows in table
+	 * @param cols
+	 *            # of columns in table
+	 * @param defaultValue
+	 *            initial value of all entries in table
+	 */
+	public QuadTreeTable(int rows, int cols, E defaultValue) {
+		if (defaultValue == null) {
+			throw new IllegalArgumentException("Cannot store the null value in a table");
+		}
+		numRows = rows;
+		numCols = cols;
+		side = 1;
+		while (side < rows || side < cols) {
+			side <<= 1;
+		}
+		root = new Node(defaultValue);
+		numNodes = 1;
+		numLeaves = 1;
+	}
+
+	/**
+	 * @return number of leaves, the uniform squares the table is made of
+	 */
+	public int leafCount() {
+		return numLeaves;
+	}
+
+	/**
+	 * @return number of nodes in the tree
+	 */
+	public int nodeCount() {
+		return numNodes;
+	}
+
+	/**
+	 * throws IllegalArgumentException if (row, col) is not a cell of the table
+	 */
+	private void checkCell(int row, int col) {
+		if (row < 0 || col < 0 || row >= numRows || col >= numCols) {
+			throw new IllegalArgumentException("Row or Column does not exist in current table");
+		}
+	}
+
+	/**
+	 * Returns contents of specified cell, by descending from the root to the leaf
+	 * covering it
+	 *
+	 * @pre: (row,col) is legal cell in table
+	 *
+	 * @param row
+	 *            row of cell to be queried
+	 * @param col
+	 *            column of cell to be queried
+	 * @return value stored in (row, col) cell of table
+	 */
+	public E getInfo(int row, int col) {
+		checkCell(row, col);
+		Node node = root;
+		long half = side >>> 1;
+		while (node.quarters != null) {
+			int q = ((row & half) != 0 ? 2 : 0) + ((col & half) != 0 ? 1 : 0);
+			node = node.quarters[q];
+			half >>>= 1;
+		}
+		return node.value;
+	}
+
+	/**
+	 * Given a legal (row, col) cell in the table, update its value to newInfo.
+	 *
+	 * @param row
+	 *            row of cell to be updated
+	 * @param col
+	 *            column of cell to be update
+	 * @param newInfo
+	 *            new value to place in cell (row, col)
+	 */
+	public void updateInfo(int row, int col, E newInfo) {
+		fillRect(row, col, row, col, newInfo);
+	}
+
+	/**
+	 * Sets every cell from (startRow, startCol) through (endRow, endCol), scanning
+	 * from left to right across successive rows, to newInfo, by filling up to
+	 * three rectangles.
+	 *
+	 * @pre: both cells are legal and (startRow, startCol) does not come after
+	 *       (endRow, endCol)
+	 *
+	 * @param startRow
+	 *            row of first cell to be updated
+	 * @param startCol
+	 *            column of first cell to be updated
+	 * @param endRow
+	 *            row of last cell to be updated
+	 * @param endCol
+	 *            column of last cell to be updated
+	 * @param newInfo
+	 *            new value to place in the cells
+	 */
+	public void fillRange(int startRow, int startCol, int endRow, int endCol, E newInfo) {
+		checkCell(startRow, startCol);
+		checkCell(endRow, endCol);
+		if ((long) startRow * numCols + startCol > (long) endRow * numCols + endCol) {
+			throw new IllegalArgumentException("Start of range comes after its end");
+		}
+		if (startRow == endRow) {
+			fillRect(startRow, startCol, endRow, endCol, newInfo);
+		} else {
+			//rest of the first row, the whole rows in between, and the start of the last row
+			fillRect(startRow, startCol, startRow, numCols - 1, newInfo);
+			if (startRow + 1 < endRow) {
+				fillRect(startRow + 1, 0, endRow - 1, numCols - 1, newInfo);
+			}
+			fillRect(endRow, 0, endRow, endCol, newInfo);
+		}
+	}
+
+	/**
+	 * Sets every cell in rows r0 through r1 and columns c0 through c1 to newInfo.
+	 * Every square lying wholly inside the rectangle becomes a single leaf, so
+	 * this takes time proportional to the perimeter of the rectangle times the
+	 * depth of the tree, however many cells it covers.
+	 *
+	 * @pre: both corners are legal, r0 <= r1 and c0 <= c1
+	 *
+	 * @param r0
+	 *            first row of the rectangle
+	 * @param c0
+	 *            first column of the rectangle
+	 * @param r1
+	 *            last row of the rectangle
+	 * @param c1
+	 *            last column of the rectangle
+	 * @param newInfo
+	 *            new value to place in the cells
+	 */
+	public void fillRect(int r0, int c0, int r1, int c1, E newInfo) {
+		checkCell(r0, c0);
+		checkCell(r1, c1);
+		if (r0 > r1 || c0 > c1) {
+			throw new IllegalArgumentException("Corners of rectangle are out of order");
+		} else if (newInfo == null) {
+			throw new IllegalArgumentException("Cannot store the null value in a table");
+		}
+		fill(root, 0, 0, side, r0, c0, r1, c1, newInfo);
+	}
+
+	/**
+	 * Sets the cells of the rectangle inside the square of node, which has the
+	 * given size and top left cell (top, left), to newInfo, then merges node
+	 * into a leaf if its quarters have become uniform.
+	 */
+	private void fill(Node node, long top, long left, long size, int r0, int c0, int r1, int c1, E newInfo) {
+		if (node.quarters == null && node.value.equals(newInfo)) {
+			return; // already holds newInfo
+		}
+		long bottom = Math.min(top + size, numRows) - 1; // last cell of the square in the table
+		long right = Math.min(left + size, numCols) - 1;
+		if (top >= r0 && left >= c0 && bottom <= r1 && right <= c1) {
+			makeLeaf(node, newInfo);
+			return;
+		}
+		if (node.quarters == null) {
+			split(node, top, left, size >>> 1);
+		}
+		long half = size >>> 1;
+		for (int q = 0; q < 4; q++) {
+			long qTop = top + (q >> 1) * half;
+			long qLeft = left + (q & 1) * half;
+			if (qTop <= r1 && qLeft <= c1 && qTop + half > r0 && qLeft + half > c0) {
+				fill(node.quarters[q], qTop, qLeft, half, r0, c0, r1, c1, newInfo);
+			}
+		}
+		merge(node, top, left, half);
+	}
+
+	/**
+	 * Turns node into a leaf holding value, discarding any subtree below it.
+	 */
+	private void makeLeaf(Node node, E value) {
+		if (node.quarters != null) {
+			numNodes -= countNodes(node) - 1;
+			numLeaves -= countLeaves(node) - 1;
+			node.quarters = null;
+		}
+		node.value = value;
+	}
+
+	/**
+	 * Splits a leaf, covering the square with top left cell (top, left), into
+	 * leaves of side half holding its value, one for each quarter inside the
+	 * table.
+	 */
+	@SuppressWarnings("unchecked")
+	private void split(Node leaf, long top, long left, long half) {
+		leaf.quarters = (Node[]) new QuadTreeTable<?>.Node[4];
+		int added = 0;
+		for (int q = 0; q < 4; q++) {
+			if (top + (q >> 1) * half < numRows && left + (q & 1) * half < numCols) {
+				leaf.quarters[q] = new Node(leaf.value);
+				added++;
+			}
+		}
+		leaf.value = null;
+		numNodes += added;
+		numLeaves += added - 1;
+	}
+
+	/**
+	 * Turns node, covering the square with top left cell (top, left) split into
+	 * quarters of side half, into a leaf if all of its quarters inside the table
+	 * are leaves holding the same value.
+	 */
+	private void merge(Node node, long top, long left, long half) {
+		E value = null;
+		for (int q = 0; q < 4; q++) {
+			if (top + (q >> 1) * half >= numRows || left + (q & 1) * half >= numCols) {
+				continue; // quarter lies outside the table
+			}
+			Node quarter = node.quarters[q];
+			if (quarter.quarters != null || (value != null && !value.equals(quarter.value))) {
+				return;
+			}
+			value = quarter.value;
+		}
+		makeLeaf(node, value);
+	}
+
+	/**
+	 * @return number of nodes in the subtree of node
+	 */
+	private int countNodes(Node node) {
+		int ans = 1;
+		if (node.quarters != null) {
+			for (Node quarter : node.quarters) {
+				if (quarter != null) {
+					ans += countNodes(quarter);
+				}
+			}
+		}
+		return ans;
+	}
+
+	/**
+	 * @return number of leaves in the subtree of node
+	 */
+	private int countLeaves(Node node) {
+		if (node.quarters == null) {
+			return 1;
+		}
+		int ans = 0;
+		for (Node quarter : node.quarters) {
+			if (quarter != null) {
+				ans += countLeaves(quarter);
+			}
+		}
+		return ans;
+	}
+
+	/**
+	 * @return succinct description of contents of table, one line per leaf
+	 *         inside the table, in Z-order
+	 */
+	public String toString() {
+		StringBuilder ans = new StringBuilder("QuadTreeTable:\n");
+		describe(ans, root, 0, 0, side);
+		return ans.toString();
+	}
+
+	/**
+	 * Appends a line for each leaf in the subtree of node, which covers the
+	 * square of the given size with top left cell (top, left).
+	 */
+	private void describe(StringBuilder ans, Node node, long top, long left, long size) {
+		if (top >= numRows || left >= numCols) {
+			return;
+		} else if (node.quarters == null) {
+			ans.append("<Square: (" + top + "," + left + ") side " + size + "=" + node.value + ">\n");
+			return;
+		}
+		long half = size >>> 1;
+		for (int q = 0; q < 4; q++) {
+			describe(ans, node.quarters[q], top + (q >> 1) * half, left + (q & 1) * half, half);
+		}
+	}
+
+	/**
+	 * @return a string representation of the entire table
+	 */
+	public String entireTable() {
+		StringBuilder ans = new StringBuilder();
+		try {
+			writeTable(ans);
+		} catch (IOException e) {
+			throw new IllegalStateException(e); // StringBuilder does not throw
+		}
+		return ans.toString();
+	}
+
+	/**
+	 * Writes the same text as entireTable() to out, one row at a time, by
+	 * visiting the leaves that row passes through from left to right.
+	 *
+	 * @param out
+	 *            destination of the text
+	 * @throws IOException
+	 *             if out cannot be written
+	 */
+	public void writeTable(Appendable out) throws IOException {
+		for (int r = 0; r < numRows; r++) {
+			writeRow(out, root, 0, side, r);
+			out.append('\n');
+		}
+	}
+
+	/**
+	 * Writes the cells of row in the square of node, which has the given size
+	 * and left column left.
+	 */
+	private void writeRow(Appendable out, Node node, long left, long size, int row) throws IOException {
+		if (left >= numCols) {
+			return;
+		} else if (node.quarters == null) {
+			String text = String.valueOf(node.value);
+			for (long c = left; c < Math.min(left + size, numCols); c++) {
+				out.append(text);
+			}
+			return;
+		}
+		long half = size >>> 1;
+		int q = (row & half) != 0 ? 2 : 0;
+		writeRow(out, node.quarters[q], left, half, row);
+		writeRow(out, node.quarters[q + 1], left + half, half, row);
+	}
+}
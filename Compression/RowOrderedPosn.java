@@ -1,10 +1,13 @@
 package compression;
 
-// Class of 2-Dimensional table subscripts which are ordered first by row and then column
+// Class of 2-Dimensional table subscripts which are ordered first by row and then column,
+// or by another CellOrder chosen for the table
 
 class RowOrderedPosn{
-	private int row, col;			// row and column of entry
-	private int numRows, numCols; 	// total number of rows and columns in table
+	private final int row, col;			// row and column of entry
+	private final int numRows, numCols; 	// total number of rows and columns in table
+	private final CellOrder order;		// order of the cells of the table
+	private final long offset;			// cells before this one in the order, computed once
 
 	/**
 	 *  Constructor for position at (row,col) in table with numRows rows and numCols columns.
@@ -14,11 +17,40 @@ class RowOrderedPosn{
 	 * @param numCols total number of columns in table
 	 */
 	public RowOrderedPosn(int row,int col,int numRows,int numCols){
+		this(row, col, numRows, numCols, CellOrder.ROW_MAJOR);
+	}	
+	
+	/**
+	 *  Constructor for position at (row,col) in table with numRows rows and numCols columns
+	 *  whose cells are ordered by order.
+	 * @param row	row number
+	 * @param col	column number
+	 * @param numRows total number of rows in table
+	 * @param numCols total number of columns in table
+	 * @param order order of the cells of the table
+	 */
+	public RowOrderedPosn(int row,int col,int numRows,int numCols,CellOrder order){
+		this(row, col, numRows, numCols, order, order.offset(row, col, numRows, numCols));
+	}
+	
+	/**
+	 *  Constructor for a position whose offset in order is already known, e.g., because
+	 *  the position was found from it.
+	 * @param row	row number
+	 * @param col	column number
+	 * @param numRows total number of rows in table
+	 * @param numCols total number of columns in table
+	 * @param order order of the cells of the table
+	 * @param offset number of positions that come before (row, col) in order
+	 */
+	RowOrderedPosn(int row,int col,int numRows,int numCols,CellOrder order,long offset){
 		this.row = row;
 		this.col = col;
 		this.numRows = numRows;
 		this.numCols = numCols;
-	}	
+		this.order = order;
+		this.offset = offset;
+	}
 	
 	/**
 	 * @return row corresponding to this position
@@ -35,20 +67,21 @@ class RowOrderedPosn{
 	}
 	
 	/**
-	 * @return next position in scanning from left to right across successive rows
+	 * @return number of positions that come before this one in the order of the
+	 * table (scanning from left to right across successive rows, by default)
+	 */
+	public long offset(){
+		return offset;
+	}
+	
+	/**
+	 * @return next position in the order of the table
 	 * if already at last position then return null
 	 */
 	public RowOrderedPosn next(){
-		int newRow, newCol;
-		if (col == numCols -1){
-			if (row == numRows-1) return null;  // already at last position
-			newCol = 0;
-			newRow = row + 1;
-		} else {
-			newCol = col + 1;
-			newRow = row;
-		}
-		return new RowOrderedPosn(newRow,newCol,numRows,numCols);
+		long next = offset + 1;
+		if (next == (long) numRows * numCols) return null;  // already at last position
+		return order.position(next, numRows, numCols);
 	}
 	
 	/**
@@ -57,7 +90,7 @@ class RowOrderedPosn{
 	 * @return true iff this position comes before other.
 	 */
 	public boolean less(RowOrderedPosn other){
-		return (row < other.getRow()) || (row == other.getRow() && col < other.getCol());
+		return offset < other.offset;
 	}
 	
 	/**
@@ -0,0 +1,27 @@
+package compression;
+
+/**
+ * Entry of a CompressedTable: the position where a run starts, its value, and
+ * the code of that value in the table's ValueDictionary, so runs can be
+ * compared by code.
+ *
+ * @author cs62
+ * @param <E>
+ *            type of value stored in the table
+ */
+class Run<E> extends Association<RowOrderedPosn, E> {
+	protected int code; // code of theValue in the table's dictionary
+
+	/**
+	 * @param start
+	 *            position where the run starts
+	 * @param value
+	 *            value held by the run, as stored in the dictionary
+	 * @param code
+	 *            code of value in the dictionary
+	 */
+	public Run(RowOrderedPosn start, E value, int code) {
+		super(start, value);
+		this.code = code;
+	}
+}
@@ -0,0 +1,204 @@
+package compression;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Node of a persistent treap mapping the offset where each run of a table
+ * starts to the value of the run. A tree is never changed once built: put and
+ * remove copy only the nodes on the path to the run they change and share the
+ * rest, so every older root still describes the table as it was.
+ *
+ * Priorities are derived from the offsets, so the shape of a tree depends only
+ * on the runs it holds and its expected depth is logarithmic in their number.
+ *
+ * @author cs62
+ * @param <E>
+ *            type of value stored in the table
+ */
+class RunTree<E> {
+	final long start; // offset of the first cell of the run
+	final E value; // value held by the run
+	final int priority; // greater than the priorities of the children
+	// children, only assigned while a tree is being built
+	RunTree<E> left, right;
+
+	/**
+	 * @param start
+	 *            offset of the first cell of the run
+	 * @param value
+	 *            value held by the run
+	 * @param left
+	 *            runs starting before start
+	 * @param right
+	 *            runs starting after start
+	 */
+	private RunTree(long start, E value, RunTree<E> left, RunTree<E> right) {
+		this.start = start;
+		this.value = value;
+		this.priority = priorityOf(start);
+		this.left = left;
+		this.right = right;
+	}
+
+	/**
+	 * @return pseudo-random priority of the run starting at offset start
+	 */
+	private static int priorityOf(long start) {
+		long h = start * 0x9E3779B97F4A7C15L;
+		h ^= h >>> 31;
+		return (int) (h ^ (h >>> 32));
+	}
+
+	/**
+	 * Builds a tree from runs given in order of their starts, in time linear in
+	 * their number.
+	 *
+	 * @param runs
+	 *            runs of a table, in row-major order
+	 * @return root of the tree holding the runs
+	 */
+	static <E> RunTree<E> build(Iterable<Association<RowOrderedPosn, E>> runs) {
+		// right spine of the tree built so far, from the root down
+		ArrayDeque<RunTree<E>> spine = new ArrayDeque<RunTree<E>>();
+		for (Association<RowOrderedPosn, E> run : runs) {
+			RunTree<E> node = new RunTree<E>(run.getKey().offset(), run.getValue(), null, null);
+			RunTree<E> below = null;
+			while (!spine.isEmpty() && spine.peekLast().priority < node.priority) {
+				below = spine.removeLast();
+			}
+			node.left = below;
+			if (!spine.isEmpty()) {
+				spine.peekLast().right = node;
+			}
+			spine.addLast(node);
+		}
+		return spine.peekFirst();
+	}
+
+	/**
+	 * @param tree
+	 *            root of a tree, or null for no runs
+	 * @param start
+	 *            offset where the run starts
+	 * @param value
+	 *            value held by the run
+	 * @return root of a tree holding the runs of tree, with the run starting at
+	 *         start (added or replaced) holding value
+	 */
+	static <E> RunTree<E> put(RunTree<E> tree, long start, E value) {
+		if (tree == null) {
+			return new RunTree<E>(start, value, null, null);
+		} else if (start == tree.start) {
+			return new RunTree<E>(start, value, tree.left, tree.right);
+		} else if (start < tree.start) {
+			RunTree<E> left = put(tree.left, start, value);
+			if (left.priority > tree.priority) {
+				// rotate the new node up
+				return new RunTree<E>(left.start, left.value, left.left,
+						new RunTree<E>(tree.start, tree.value, left.right, tree.right));
+			}
+			return new RunTree<E>(tree.start, tree.value, left, tree.right);
+		} else {
+			RunTree<E> right = put(tree.right, start, value);
+			if (right.priority > tree.priority) {
+				return new RunTree<E>(right.start, right.value,
+						new RunTree<E>(tree.start, tree.value, tree.left, right.left), right.right);
+			}
+			return new RunTree<E>(tree.start, tree.value, tree.left, right);
+		}
+	}
+
+	/**
+	 * @param tree
+	 *            root of a tree
+	 * @param start
+	 *            offset of the run to remove
+	 * @return root of a tree holding the runs of tree except the one starting at
+	 *         start
+	 */
+	static <E> RunTree<E> remove(RunTree<E> tree, long start) {
+		if (tree == null) {
+			return null;
+		} else if (start == tree.start) {
+			return join(tree.left, tree.right);
+		} else if (start < tree.start) {
+			return new RunTree<E>(tree.start, tree.value, remove(tree.left, start), tree.right);
+		} else {
+			return new RunTree<E>(tree.start, tree.value, tree.left, remove(tree.right, start));
+		}
+	}
+
+	/**
+	 * @pre: every run of low starts before every run of high
+	 *
+	 * @return root of a tree holding the runs of both trees
+	 */
+	private static <E> RunTree<E> join(RunTree<E> low, RunTree<E> high) {
+		if (low == null) {
+			return high;
+		} else if (high == null) {
+			return low;
+		} else if (low.priority > high.priority) {
+			return new RunTree<E>(low.start, low.value, low.left, join(low.right, high));
+		} else {
+			return new RunTree<E>(high.start, high.value, join(low, high.left), high.right);
+		}
+	}
+
+	/**
+	 * @param tree
+	 *            root of a tree holding a run starting at offset 0
+	 * @param offset
+	 *            offset of a cell
+	 * @return node of the run covering the cell at offset
+	 */
+	static <E> RunTree<E> floor(RunTree<E> tree, long offset) {
+		RunTree<E> ans = null;
+		while (tree != null) {
+			if (tree.start <= offset) {
+				ans = tree;
+				tree = tree.right;
+			} else {
+				tree = tree.left;
+			}
+		}
+		return ans;
+	}
+
+	/**
+	 * @param tree
+	 *            root of a tree
+	 * @return iterator over the nodes of tree in order of their starts
+	 */
+	static <E> Iterator<RunTree<E>> inOrder(RunTree<E> tree) {
+		return new Iterator<RunTree<E>>() {
+			// nodes whose right subtrees are still to be visited, deepest last
+			private ArrayDeque<RunTree<E>> path = pushLeft(new ArrayDeque<RunTree<E>>(), tree);
+
+			public boolean hasNext() {
+				return !path.isEmpty();
+			}
+
+			public RunTree<E> next() {
+				if (path.isEmpty()) {
+					throw new NoSuchElementException();
+				}
+				RunTree<E> node = path.removeLast();
+				pushLeft(path, node.right);
+				return node;
+			}
+		};
+	}
+
+	/**
+	 * Pushes node and its chain of left children onto path.
+	 */
+	private static <E> ArrayDeque<RunTree<E>> pushLeft(ArrayDeque<RunTree<E>> path, RunTree<E> node) {
+		for (; node != null; node = node.left) {
+			path.addLast(node);
+		}
+		return path;
+	}
+}
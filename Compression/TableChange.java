@@ -0,0 +1,87 @@
+package compression;
+
+/**
+ * A change to a table: the cells from (startRow, startCol) through (endRow,
+ * endCol), consecutive in the table's cell order, all held oldValue and now
+ * hold newValue.
+ *
+ * @author cs62
+ * @param <E>
+ *            type of value stored in the table
+ */
+class TableChange<E> {
+	final long from, to; // offsets of the first and last cells changed
+	public final int startRow, startCol; // first cell changed
+	public final int endRow, endCol; // last cell changed
+	public final E oldValue, newValue;
+
+	/**
+	 * @param from
+	 *            offset of the first cell changed
+	 * @param to
+	 *            offset of the last cell changed
+	 * @param start
+	 *            position of the first cell changed
+	 * @param end
+	 *            position of the last cell changed
+	 * @param oldValue
+	 *            value the cells held
+	 * @param newValue
+	 *            value the cells now hold
+	 */
+	TableChange(long from, long to, RowOrderedPosn start, RowOrderedPosn end, E oldValue, E newValue) {
+		this(from, to, start.getRow(), start.getCol(), end.getRow(), end.getCol(), oldValue, newValue);
+	}
+
+	private TableChange(long from, long to, int startRow, int startCol, int endRow, int endCol, E oldValue,
+			E newValue) {
+		this.from = from;
+		this.to = to;
+		this.startRow = startRow;
+		this.startCol = startCol;
+		this.endRow = endRow;
+		this.endCol = endCol;
+		this.oldValue = oldValue;
+		this.newValue = newValue;
+	}
+
+	/**
+	 * @return number of cells changed
+	 */
+	public long length() {
+		return to - from + 1;
+	}
+
+	/**
+	 * @param other
+	 *            a later change to the same table
+	 * @return true iff other changes the cells just before or just after these
+	 *         between the same values, so the two can be described as one
+	 */
+	boolean canMerge(TableChange<E> other) {
+		return (other.from == to + 1 || other.to + 1 == from) && oldValue.equals(other.oldValue)
+				&& newValue.equals(other.newValue);
+	}
+
+	/**
+	 * @pre: canMerge(other)
+	 * 
+	 * @param other
+	 *            a later change to the same table
+	 * @return a single change covering the cells of both
+	 */
+	TableChange<E> merge(TableChange<E> other) {
+		TableChange<E> first = from < other.from ? this : other;
+		TableChange<E> last = first == this ? other : this;
+		return new TableChange<E>(first.from, last.to, first.startRow, first.startCol, last.endRow, last.endCol,
+				oldValue, newValue);
+	}
+
+	/**
+	 * @return description of change
+	 */
+	public String toString() {
+		return "Change: (" + startRow + "," + startCol + ")-(" + endRow + "," + endCol + ") " + oldValue + "->"
+				+ newValue;
+	}
+}
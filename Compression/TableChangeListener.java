@@ -0,0 +1,27 @@
+package compression;
+
+import java.util.List;
+
+/**
+ * Interface for receiving the changes made to a table, in batches, from a
+ * ChangePublisher
+ *
+ * @param <E>
+ *            type of value stored in the table
+ */
+interface TableChangeListener<E> {
+
+	/**
+	 * Called on the publisher's delivery thread with the next changes, in the
+	 * order they were made.
+	 * 
+	 * @param changes
+	 *            the changes, with changes to neighbouring cells between the same
+	 *            values merged
+	 * @param dropped
+	 *            number of changes dropped since the last batch because the queue
+	 *            was full; if not 0, the listener has missed changes and should
+	 *            read the table again
+	 */
+	public void tableChanged(List<TableChange<E>> changes, long dropped);
+}
@@ -0,0 +1,146 @@
+package compression;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Reads and writes tables of strings in a compact binary format:
+ *
+ * <pre>
+ * int    MAGIC, VERSION
+ * int    #rows, #cols, CellOrder of the runs (not in version 1 files, which are row-major)
+ * int    #values, then for each value its length in bytes and its UTF-8 bytes
+ * long   #runs, then for each run (long start offset, int value id)
+ * </pre>
+ *
+ * All numbers are big-endian. The runs are read through a memory mapping, so
+ * opening a file takes time proportional to the number of distinct values, not
+ * the number of runs or cells. A file can hold at most about 178 million runs
+ * (2GB of run entries), the most a single mapping can cover.
+ *
+ * @author cs62
+ */
+class TableFile {
+	static final int MAGIC = 0x43544246; // "CTBF"
+	static final int VERSION = 2;
+	static final int RUN_BYTES = Long.BYTES + Integer.BYTES; // size of one run entry
+
+	/**
+	 * Writes table to file, replacing anything already there.
+	 *
+	 * @param table
+	 *            table to write
+	 * @param file
+	 *            file to write it to
+	 * @throws IOException
+	 *             if file cannot be written
+	 */
+	public static void save(CompressedTable<String> table, Path file) throws IOException {
+		// number the distinct values in the order they first appear
+		ArrayList<String> values = new ArrayList<String>();
+		HashMap<String, Integer> ids = new HashMap<String, Integer>();
+		for (Association<RowOrderedPosn, String> run : table.tableInfo) {
+			if (!ids.containsKey(run.getValue())) {
+				ids.put(run.getValue(), values.size());
+				values.add(run.getValue());
+			}
+		}
+
+		try (DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(table.numRows);
+			out.writeInt(table.numCols);
+			out.writeInt(table.order.ordinal());
+			out.writeInt(values.size());
+			for (String value : values) {
+				byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+				out.writeInt(bytes.length);
+				out.write(bytes);
+			}
+			out.writeLong(table.tableInfo.size());
+			for (Association<RowOrderedPosn, String> run : table.tableInfo) {
+				out.writeLong(run.getKey().offset());
+				out.writeInt(ids.get(run.getValue()));
+			}
+		}
+	}
+
+	/**
+	 * Opens file as a read-only table whose runs stay in the file.
+	 *
+	 * @param file
+	 *            file written by save
+	 * @return table reading from a mapping of file
+	 * @throws IOException
+	 *             if file cannot be read or is not in this format
+	 */
+	public static MappedTable map(Path file) throws IOException {
+		int rows, cols;
+		String[] values;
+		long numRuns;
+		CellOrder order = CellOrder.ROW_MAJOR;
+		long runsStart = 5 * Integer.BYTES + Long.BYTES; // bytes in header, not counting the values
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+			int version = in.readInt() == MAGIC ? in.readInt() : -1;
+			if (version != 1 && version != VERSION) {
+				throw new IOException(file + " is not a table file");
+			}
+			rows = in.readInt();
+			cols = in.readInt();
+			if (version > 1) {
+				int ordinal = in.readInt();
+				if (ordinal < 0 || ordinal >= CellOrder.values().length) {
+					throw new IOException(file + " has an unknown cell order");
+				}
+				order = CellOrder.values()[ordinal];
+				runsStart += Integer.BYTES;
+			}
+			values = new String[in.readInt()];
+			for (int i = 0; i < values.length; i++) {
+				byte[] bytes = new byte[in.readInt()];
+				in.readFully(bytes);
+				values[i] = new String(bytes, StandardCharsets.UTF_8);
+				runsStart += Integer.BYTES + bytes.length;
+			}
+			numRuns = in.readLong();
+		}
+
+		if (numRuns * RUN_BYTES > Integer.MAX_VALUE) {
+			throw new IOException(file + " has too many runs to map at once");
+		}
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			if (runsStart + numRuns * RUN_BYTES > channel.size()) {
+				throw new IOException(file + " is truncated");
+			}
+			// the mapping stays valid after the channel is closed
+			ByteBuffer runs = channel.map(FileChannel.MapMode.READ_ONLY, runsStart, numRuns * RUN_BYTES);
+			return new MappedTable(rows, cols, order, values, runs, (int) numRuns);
+		}
+	}
+
+	/**
+	 * Reads file into a new CompressedTable that can be updated.
+	 *
+	 * @param file
+	 *            file written by save
+	 * @return table holding the contents of file
+	 * @throws IOException
+	 *             if file cannot be read or is not in this format
+	 */
+	public static CompressedTable<String> load(Path file) throws IOException {
+		return map(file).toCompressedTable();
+	}
+}
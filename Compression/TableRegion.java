@@ -0,0 +1,63 @@
+package compression;
+
+/**
+ * A rectangle of cells in a 2-dimensional table, from (r0, c0) through (r1, c1)
+ * inclusive.
+ *
+ * @author cs62
+ */
+class TableRegion {
+	public final int r0, c0; // top left cell
+	public final int r1, c1; // bottom right cell
+
+	/**
+	 * @pre: r0 <= r1 and c0 <= c1
+	 * 
+	 * @param r0
+	 *            first row of the rectangle
+	 * @param c0
+	 *            first column of the rectangle
+	 * @param r1
+	 *            last row of the rectangle
+	 * @param c1
+	 *            last column of the rectangle
+	 */
+	public TableRegion(int r0, int c0, int r1, int c1) {
+		this.r0 = r0;
+		this.c0 = c0;
+		this.r1 = r1;
+		this.c1 = c1;
+	}
+
+	/**
+	 * @return number of cells in the rectangle
+	 */
+	public long area() {
+		return (long) (r1 - r0 + 1) * (c1 - c0 + 1);
+	}
+
+	/**
+	 * @param other
+	 *            object to be compared with this one
+	 * @return true iff other is a region with the same corners
+	 */
+	public boolean equals(Object other) {
+		if (other instanceof TableRegion) {
+			TableRegion region = (TableRegion) other;
+			return r0 == region.r0 && c0 == region.c0 && r1 == region.r1 && c1 == region.c1;
+		} else {
+			return false;
+		}
+	}
+
+	public int hashCode() {
+		return ((r0 * 31 + c0) * 31 + r1) * 31 + c1;
+	}
+
+	/**
+	 * @return description of region
+	 */
+	public String toString() {
+		return "Region: (" + r0 + "," + c0 + ")-(" + r1 + "," + c1 + ")";
+	}
+}
@@ -0,0 +1,58 @@
+package compression;
+
+/**
+ * A run of a table: length consecutive cells, in the table's cell order,
+ * starting at (startRow, startCol) and all holding value.
+ *
+ * @author cs62
+ * @param <E>
+ *            type of value stored in the table
+ */
+class TableRun<E> {
+	public final int startRow, startCol; // first cell of the run
+	public final long length; // number of cells in the run
+	public final E value; // value held by every cell of the run
+
+	/**
+	 * @param startRow
+	 *            row of the first cell of the run
+	 * @param startCol
+	 *            column of the first cell of the run
+	 * @param length
+	 *            number of cells in the run
+	 * @param value
+	 *            value held by every cell of the run
+	 */
+	public TableRun(int startRow, int startCol, long length, E value) {
+		this.startRow = startRow;
+		this.startCol = startCol;
+		this.length = length;
+		this.value = value;
+	}
+
+	/**
+	 * @param other
+	 *            object to be compared with this one
+	 * @return true iff other is a run with the same start, length and value
+	 */
+	public boolean equals(Object other) {
+		if (other instanceof TableRun) {
+			TableRun<?> run = (TableRun<?>) other;
+			return startRow == run.startRow && startCol == run.startCol && length == run.length
+					&& value.equals(run.value);
+		} else {
+			return false;
+		}
+	}
+
+	public int hashCode() {
+		return ((startRow * 31 + startCol) * 31 + Long.hashCode(length)) * 31 + value.hashCode();
+	}
+
+	/**
+	 * @return description of run
+	 */
+	public String toString() {
+		return "Run: (" + startRow + "," + startCol + ") x " + length + "=" + value;
+	}
+}
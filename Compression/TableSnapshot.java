@@ -0,0 +1,147 @@
+package compression;
+
+import java.io.IOException;
+import java.util.Iterator;
+
+/**
+ * Read-only view of a CompressedTable as it was when snapshot() was called.
+ * Holds the root of the table's RunTree at that moment; later updates to the
+ * table build new roots and leave this one untouched, so the snapshot never
+ * changes and may be read by any number of threads at once.
+ *
+ * @author cs62
+ * @param <E>
+ *            type of value stored in the table
+ */
+class TableSnapshot<E> implements TwoDTable<E> {
+	protected int numRows, numCols; // Number of rows and cols in table
+	private final CellOrder order; // order of the cells, which the runs follow
+	private final RunTree<E> runs; // runs of the table when the snapshot was taken
+	private final int numRuns;
+
+	/**
+	 * @param rows
+	 *            # of rows in table
+	 * @param cols
+	 *            # of columns in table
+	 * @param order
+	 *            order of the cells of the table
+	 * @param runs
+	 *            root of the tree of runs, including one starting at offset 0
+	 * @param numRuns
+	 *            number of runs in the tree
+	 */
+	TableSnapshot(int rows, int cols, CellOrder order, RunTree<E> runs, int numRuns) {
+		numRows = rows;
+		numCols = cols;
+		this.order = order;
+		this.runs = runs;
+		this.numRuns = numRuns;
+	}
+
+	/**
+	 * @return number of runs in the table
+	 */
+	public int runCount() {
+		return numRuns;
+	}
+
+	/**
+	 * Returns contents of specified cell when the snapshot was taken
+	 *
+	 * @pre: (row,col) is legal cell in table
+	 *
+	 * @param row
+	 *            row of cell to be queried
+	 * @param col
+	 *            column of cell to be queried
+	 * @return value stored in (row, col) cell of table
+	 */
+	public E getInfo(int row, int col) {
+		if (row < 0 || col < 0 || row >= numRows || col >= numCols) {
+			throw new IllegalArgumentException("Row or Column does not exist in current table");
+		}
+		return RunTree.floor(runs, order.offset(row, col, numRows, numCols)).value;
+	}
+
+	/**
+	 * Not supported, as the snapshot is read-only
+	 */
+	public void updateInfo(int row, int col, E newInfo) {
+		throw new UnsupportedOperationException("Snapshot is read-only");
+	}
+
+	/**
+	 * Not supported, as the snapshot is read-only
+	 */
+	public void fillRange(int startRow, int startCol, int endRow, int endCol, E newInfo) {
+		throw new UnsupportedOperationException("Snapshot is read-only");
+	}
+
+	/**
+	 * @return succinct description of contents of table
+	 */
+	public String toString() {
+		StringBuilder ans = new StringBuilder("TableSnapshot:\n");
+		for (Iterator<RunTree<E>> it = RunTree.inOrder(runs); it.hasNext();) {
+			RunTree<E> run = it.next();
+			RowOrderedPosn start = order.position(run.start, numRows, numCols);
+			ans.append("<Position: (" + start.getRow() + "," + start.getCol() + ")=" + run.value + ">\n");
+		}
+		return ans.toString();
+	}
+
+	/**
+	 * @return a string representation of the entire table
+	 */
+	public String entireTable() {
+		StringBuilder ans = new StringBuilder();
+		try {
+			writeTable(ans);
+		} catch (IOException e) {
+			throw new IllegalStateException(e); // StringBuilder does not throw
+		}
+		return ans.toString();
+	}
+
+	/**
+	 * Writes the same text as entireTable() to out by expanding each run in turn,
+	 * or, if the cells are not in row-major order, by looking up each cell.
+	 *
+	 * @param out
+	 *            destination of the text
+	 * @throws IOException
+	 *             if out cannot be written
+	 */
+	public void writeTable(Appendable out) throws IOException {
+		if (order != CellOrder.ROW_MAJOR) {
+			for (int r = 0; r < numRows; r++) {
+				for (int c = 0; c < numCols; c++) {
+					out.append(String.valueOf(getInfo(r, c)));
+				}
+				out.append('\n');
+			}
+			return;
+		}
+		long end = (long) numRows * numCols;
+		Iterator<RunTree<E>> it = RunTree.inOrder(runs);
+		RunTree<E> next = it.next();
+		while (next != null) {
+			RunTree<E> run = next;
+			next = it.hasNext() ? it.next() : null;
+			String text = String.valueOf(run.value);
+			long pos = run.start;
+			long runEnd = next == null ? end : next.start;
+			while (pos < runEnd) {
+				long count = Math.min(runEnd - pos, numCols - pos % numCols);
+				for (long i = 0; i < count; i++) {
+					out.append(text);
+				}
+				pos += count;
+				if (pos % numCols == 0) {
+					out.append('\n');
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,118 @@
+package compression;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for AdaptiveTable class
+ * 
+ * @author cs62
+ */
+public class TestAdaptiveTable {
+	AdaptiveTable<String> table;
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		// dense above 4 runs, compressed again below 2
+		table = new AdaptiveTable<String>(4, 4, "r", 0.25, 0.125);
+	}
+
+	// a new table is stored as runs
+	@Test
+	public void testNewTable() {
+		assertEquals(AdaptiveTable.Representation.COMPRESSED, table.getRepresentation());
+		assertEquals(1, table.runCount());
+		assertEquals(-1, table.getRunsAtLastMove());
+	}
+
+	// fragmenting the table moves it to a dense array, and clearing it moves it back
+	@Test
+	public void testMovesBothWays() {
+		table.updateInfo(0, 1, "g");
+		assertEquals(AdaptiveTable.Representation.COMPRESSED, table.getRepresentation());
+		table.updateInfo(0, 3, "g");
+		assertEquals(AdaptiveTable.Representation.DENSE, table.getRepresentation());
+		assertEquals(1, table.getMovesToDense());
+		assertEquals(5, table.getRunsAtLastMove());
+		assertEquals("rgrg\nrrrr\nrrrr\nrrrr\n", table.entireTable());
+
+		// between the thresholds nothing moves
+		table.updateInfo(0, 3, "r");
+		assertEquals(AdaptiveTable.Representation.DENSE, table.getRepresentation());
+		assertEquals(3, table.runCount());
+
+		table.fillRange(0, 0, 3, 3, "b");
+		assertEquals(AdaptiveTable.Representation.COMPRESSED, table.getRepresentation());
+		assertEquals(1, table.getMovesToCompressed());
+		assertEquals("b", table.getInfo(2, 2));
+		assertEquals(1, table.runCount());
+	}
+
+	// thresholds without a gap between them are rejected
+	@Test
+	public void testBadThresholds() {
+		assertThrows(IllegalArgumentException.class, () -> {new AdaptiveTable<String>(4, 4, "r", 0.1, 0.2);});
+	}
+
+	// codes of values no cell holds any more are recycled in the dense array too
+	@Test
+	public void testDenseDictionaryRecycling() {
+		DenseTable<String> dense = new DenseTable<String>(3, 4, "r");
+		ValueDictionary<String> dictionary = dense.getDictionary();
+		for (int i = 0; i < 1000; i++) {
+			dense.fillRange(1, 1, 1, 2, "v" + i);
+		}
+		assertEquals(3, dictionary.size());
+		assertEquals(-1, dictionary.code("v0"));
+		assertEquals(2, dictionary.cellCount("v999"));
+		assertEquals(10, dictionary.cellCount("r"));
+		dense.updateInfo(1, 2, "r");
+		assertEquals(1, dictionary.cellCount("v999"));
+		assertEquals("v999", dense.getInfo(1, 1));
+		dense.fillRange(0, 0, 2, 3, "g");
+		assertEquals(0, dictionary.cellCount("v999"));
+		assertEquals(12, dictionary.cellCount("g"));
+		assertEquals(3, dictionary.size());
+	}
+
+	// on a non-square table, random updates moving it back and forth match a
+	// dense oracle in contents and run count, and each move follows the thresholds
+	@Test
+	public void testRandomMoves() {
+		int rows = 7, cols = 11, cells = rows * cols;
+		double toDense = 0.25, toCompressed = 0.08; // dense above 19 runs, compressed again below 7
+		AdaptiveTable<String> adaptive = new AdaptiveTable<String>(rows, cols, "r", toDense, toCompressed);
+		TestTableOracle oracle = new TestTableOracle(rows, cols, "r");
+		Random rand = new Random(17);
+		for (int i = 0; i < 4000; i++) {
+			// alternately fragment the table with single cells and clear it with large fills
+			boolean fragmenting = (i / 200) % 2 == 0;
+			if (fragmenting || rand.nextInt(3) == 0) {
+				String val = TestTableOracle.VALUES[rand.nextInt(TestTableOracle.VALUES.length)];
+				int r0 = rand.nextInt(rows), c0 = rand.nextInt(cols);
+				adaptive.updateInfo(r0, c0, val);
+				oracle.updateInfo(r0, c0, val);
+			} else {
+				oracle.randomOp(adaptive, rand);
+			}
+
+			long runs = oracle.runs();
+			assertEquals(runs, adaptive.runCount());
+			if (adaptive.getRepresentation() == AdaptiveTable.Representation.COMPRESSED) {
+				assertTrue(runs <= toDense * cells);
+			} else {
+				assertTrue(runs >= toCompressed * cells);
+			}
+			oracle.assertMatches(adaptive);
+			if (i % 100 == 0) {
+				assertEquals(oracle.entireTable(), adaptive.entireTable());
+			}
+		}
+		assertTrue(adaptive.getMovesToDense() >= 3);
+		assertTrue(adaptive.getMovesToCompressed() >= 3);
+	}
+}
@@ -0,0 +1,203 @@
+package compression;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for ChangePublisher class and the changes CompressedTable
+ * publishes
+ * 
+ * @author cs62
+ */
+public class TestChangePublisher {
+	CompressedTable<String> table;
+	List<TableChange<String>> received; // changes delivered, in order
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		table = new CompressedTable<String>(3, 4, "r");
+		received = new ArrayList<TableChange<String>>();
+	}
+
+	/**
+	 * @return listener adding the changes it is given to received
+	 */
+	private TableChangeListener<String> recorder() {
+		return (changes, dropped) -> {
+			synchronized (received) {
+				received.addAll(changes);
+			}
+		};
+	}
+
+	// a fill over several runs gives one change per value it replaces
+	@Test
+	public void testFillPublishesOldValues() throws Exception {
+		table.updateInfo(0, 2, "g");
+		table.addChangeListener(recorder());
+		table.fillRange(0, 1, 1, 0, "b");
+		table.updateInfo(2, 3, "r"); // no change
+		table.getChangePublisher().flush();
+
+		assertEquals(3, received.size());
+		assertEquals("Change: (0,1)-(0,1) r->b", received.get(0).toString());
+		assertEquals("Change: (0,2)-(0,2) g->b", received.get(1).toString());
+		assertEquals("Change: (0,3)-(1,0) r->b", received.get(2).toString());
+		assertEquals(3, table.getChangePublisher().getPublished());
+	}
+
+	// updating the cells of a row in turn is merged into one change
+	@Test
+	public void testScanIsMerged() throws Exception {
+		CountDownLatch taken = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		ChangePublisher<String> publisher = new ChangePublisher<String>();
+		table.setChangePublisher(publisher);
+		table.addChangeListener((changes, dropped) -> {
+			taken.countDown();
+			try {
+				release.await(); // hold delivery until every update is queued
+			} catch (InterruptedException e) {
+				return;
+			}
+			received.addAll(changes);
+		});
+		table.updateInfo(0, 0, "x");
+		taken.await(); // the first change is being delivered, so the scan is queued on its own
+		for (int c = 0; c < 4; c++) {
+			table.updateInfo(1, c, "g");
+		}
+		release.countDown();
+		publisher.flush();
+
+		assertEquals("Change: (1,0)-(1,3) r->g", received.get(received.size() - 1).toString());
+		assertEquals(5, publisher.getPublished());
+		assertEquals(3, publisher.getMerged());
+		assertEquals(2, publisher.getDelivered());
+		assertEquals(0, publisher.getQueueDepth());
+	}
+
+	// a full queue drops new changes, and the next batch says how many
+	@Test
+	public void testFullQueueDrops() throws Exception {
+		CountDownLatch taken = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		long[] reported = { 0 };
+		ChangePublisher<String> publisher = new ChangePublisher<String>(2);
+		table.setChangePublisher(publisher);
+		table.addChangeListener((changes, dropped) -> {
+			taken.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				return;
+			}
+			reported[0] += dropped;
+			received.addAll(changes);
+		});
+		table.updateInfo(0, 0, "g");
+		taken.await(); // the first change is being delivered, so the queue is empty
+		for (int r = 0; r < 3; r++) {
+			for (int c = r == 0 ? 2 : 0; c < 4; c += 2) {
+				table.updateInfo(r, c, "g"); // never next to the last change
+			}
+		}
+		assertEquals(2, publisher.getQueueDepth());
+		release.countDown();
+		publisher.flush();
+
+		assertEquals(6, publisher.getPublished());
+		assertEquals(3, publisher.getDropped());
+		assertEquals(3, received.size());
+		assertEquals(3, reported[0]);
+		assertEquals(2, publisher.getMaxQueueDepth());
+	}
+
+	// removing the last listener stops the delivery thread, and adding one starts another
+	@Test
+	public void testLastListenerStopsThread() throws Exception {
+		TableChangeListener<String> first = recorder();
+		TableChangeListener<String> second = recorder();
+		table.addChangeListener(first);
+		table.addChangeListener(second);
+		ChangePublisher<String> publisher = table.getChangePublisher();
+		Thread deliverer = publisher.getDeliverer();
+		assertTrue(deliverer.isAlive());
+
+		assertTrue(table.removeChangeListener(first));
+		table.updateInfo(0, 0, "g");
+		publisher.flush();
+		assertEquals(1, received.size());
+		assertSame(deliverer, publisher.getDeliverer());
+
+		assertTrue(table.removeChangeListener(second));
+		deliverer.join(5000);
+		assertFalse(deliverer.isAlive());
+		assertNull(publisher.getDeliverer());
+		assertFalse(table.removeChangeListener(second));
+		table.updateInfo(0, 1, "g"); // nobody listening, so not published
+		assertEquals(1, publisher.getPublished());
+
+		table.addChangeListener(second);
+		Thread restarted = publisher.getDeliverer();
+		assertNotSame(deliverer, restarted);
+		table.updateInfo(0, 2, "g");
+		publisher.flush();
+		assertEquals(2, received.size());
+		assertEquals("Change: (0,2)-(0,2) r->g", received.get(1).toString());
+		table.removeChangeListener(second);
+		restarted.join(5000);
+		assertFalse(restarted.isAlive());
+	}
+
+	// replaying the changes on a copy of the table reproduces it
+	@Test
+	public void testRandomChangesReplay() throws Exception {
+		String[] values = { "r", "g", "b" };
+		for (CellOrder order : CellOrder.values()) {
+			String[][] copy = new String[9][13];
+			for (String[] row : copy) {
+				Arrays.fill(row, "r");
+			}
+			CompressedTable<String> changed = new CompressedTable<String>(9, 13, "r", order);
+			List<TableChange<String>> changes = new ArrayList<TableChange<String>>();
+			changed.setChangePublisher(new ChangePublisher<String>(1 << 16));
+			changed.addChangeListener((batch, dropped) -> changes.addAll(batch));
+			Random rand = new Random(20);
+			for (int i = 0; i < 500; i++) {
+				String val = values[rand.nextInt(values.length)];
+				int r0 = rand.nextInt(9), r1 = r0 + rand.nextInt(3 - r0 % 3);
+				int c0 = rand.nextInt(13), c1 = c0 + rand.nextInt(13 - c0);
+				if (rand.nextBoolean()) {
+					changed.fillRect(r0, c0, r1, c1, val);
+				} else {
+					changed.updateInfo(r0, c0, val);
+				}
+			}
+			changed.getChangePublisher().flush();
+			assertEquals(0, changed.getChangePublisher().getDropped());
+
+			for (TableChange<String> change : changes) {
+				for (long offset = change.from; offset <= change.to; offset++) {
+					RowOrderedPosn posn = order.position(offset, 9, 13);
+					assertEquals(change.oldValue, copy[posn.getRow()][posn.getCol()]);
+					copy[posn.getRow()][posn.getCol()] = change.newValue;
+				}
+			}
+			for (int r = 0; r < 9; r++) {
+				for (int c = 0; c < 13; c++) {
+					assertEquals(changed.getInfo(r, c), copy[r][c]);
+				}
+			}
+			changed.getChangePublisher().close();
+		}
+	}
+}
@@ -0,0 +1,543 @@
+package compression;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for CompressedTable class
+ * 
+ * @author cs62
+ */
+public class TestCompressedTable {
+	CompressedTable<String> table;
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		table = new CompressedTable<String>(3, 4, "r");
+	}
+
+	// a new table is one run holding the default value
+	@Test
+	public void testNewTable() {
+		assertEquals(1, table.tableInfo.size());
+		assertEquals("r", table.getInfo(0, 0));
+		assertEquals("r", table.getInfo(2, 3));
+		assertEquals("rrrr\nrrrr\nrrrr\n", table.entireTable());
+	}
+
+	// updating a cell in the middle of a run splits it in three
+	@Test
+	public void testUpdateSplitsRun() {
+		table.updateInfo(1, 1, "g");
+		assertEquals(3, table.tableInfo.size());
+		assertEquals("r", table.getInfo(1, 0));
+		assertEquals("g", table.getInfo(1, 1));
+		assertEquals("r", table.getInfo(1, 2));
+	}
+
+	// writing the value a cell already holds leaves the runs alone
+	@Test
+	public void testUpdateSameValue() {
+		table.updateInfo(1, 1, "r");
+		assertEquals(1, table.tableInfo.size());
+	}
+
+	// restoring a cell merges it back with both neighbours
+	@Test
+	public void testUpdateMergesRuns() {
+		table.updateInfo(1, 1, "g");
+		table.updateInfo(1, 1, "r");
+		assertEquals(1, table.tableInfo.size());
+		assertEquals(1, table.runIndex.size());
+	}
+
+	// first and last cells of the table have only one neighbour
+	@Test
+	public void testUpdateCorners() {
+		table.updateInfo(0, 0, "g");
+		table.updateInfo(2, 3, "g");
+		assertEquals(3, table.tableInfo.size());
+		assertEquals("grrr\nrrrr\nrrrg\n", table.entireTable());
+		table.updateInfo(2, 2, "g");
+		assertEquals(3, table.tableInfo.size());
+		table.updateInfo(0, 1, "g");
+		assertEquals("ggrr\nrrrr\nrrgg\n", table.entireTable());
+		assertEquals(3, table.tableInfo.size());
+	}
+
+	// filling a range spanning rows replaces the runs inside it with one run
+	@Test
+	public void testFillRange() {
+		table.updateInfo(0, 3, "g");
+		table.updateInfo(1, 1, "b");
+		table.updateInfo(2, 0, "g");
+		table.fillRange(0, 2, 2, 0, "b");
+		assertEquals("rrbb\nbbbb\nbrrr\n", table.entireTable());
+		assertEquals(3, table.tableInfo.size());
+		assertEquals(3, table.runIndex.size());
+	}
+
+	// filling a range with its neighbours' value merges them
+	@Test
+	public void testFillRangeMerges() {
+		table.fillRange(0, 1, 1, 2, "g");
+		table.fillRange(0, 1, 1, 2, "r");
+		assertEquals(1, table.tableInfo.size());
+		table.fillRange(0, 0, 2, 3, "b");
+		assertEquals("bbbb\nbbbb\nbbbb\n", table.entireTable());
+		assertEquals(1, table.tableInfo.size());
+	}
+
+	// a rectangle is filled row by row, whole-row rectangles in one go
+	@Test
+	public void testFillRect() {
+		table.fillRect(0, 1, 2, 2, "g");
+		assertEquals("rggr\nrggr\nrggr\n", table.entireTable());
+		assertEquals(7, table.tableInfo.size());
+		table.fillRect(1, 0, 2, 3, "b");
+		assertEquals("rggr\nbbbb\nbbbb\n", table.entireTable());
+		assertEquals(4, table.tableInfo.size());
+	}
+
+	// ranges must be inside the table and in order
+	@Test
+	public void testFillBadRange() {
+		assertThrows(IllegalArgumentException.class, () -> {table.fillRange(1, 0, 0, 3, "g");});
+		assertThrows(IllegalArgumentException.class, () -> {table.fillRange(0, 0, 3, 0, "g");});
+		assertThrows(IllegalArgumentException.class, () -> {table.fillRect(0, 2, 1, 1, "g");});
+	}
+
+	// streamed output matches entireTable, including runs spanning rows
+	@Test
+	public void testWriteTable() throws Exception {
+		table.updateInfo(0, 2, "g");
+		table.updateInfo(1, 3, "b");
+		table.updateInfo(2, 0, "b");
+		table.updateInfo(2, 3, "g");
+		StringBuilder out = new StringBuilder();
+		table.writeTable(out);
+		assertEquals(table.entireTable(), out.toString());
+		assertEquals("rrgr\nrrrb\nbrrg\n", out.toString());
+	}
+
+	// reading cells in order resumes from the previous run rather than the index
+	@Test
+	public void testSequentialScanUsesCursor() {
+		table.updateInfo(0, 2, "g");
+		table.updateInfo(1, 3, "b");
+		long misses = table.getCursorMisses();
+		for (int r = 0; r < 3; r++) {
+			for (int c = 0; c < 4; c++) {
+				table.getInfo(r, c);
+			}
+		}
+		assertEquals(misses, table.getCursorMisses());
+		assertTrue(table.getCursorHits() >= 12);
+	}
+
+	// a saved table reads back the same, both mapped and loaded
+	@Test
+	public void testSaveAndMap() throws Exception {
+		table.updateInfo(0, 2, "g");
+		table.fillRange(1, 3, 2, 1, "blue");
+		Path file = Files.createTempFile("table", ".bin");
+		try {
+			TableFile.save(table, file);
+			MappedTable mapped = TableFile.map(file);
+			assertEquals(table.tableInfo.size(), mapped.runCount());
+			assertEquals("blue", mapped.getInfo(2, 0));
+			assertEquals(table.entireTable(), mapped.entireTable());
+			assertThrows(UnsupportedOperationException.class, () -> {mapped.updateInfo(0, 0, "g");});
+
+			CompressedTable<String> loaded = TableFile.load(file);
+			assertEquals(table.entireTable(), loaded.entireTable());
+			assertEquals(table.tableInfo.size(), loaded.tableInfo.size());
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	// parallel rendering and diffing agree with a plain array across band boundaries
+	@Test
+	public void testParallelRenderAndDiff() {
+		int rows = 700, cols = 300; // several bands
+		CompressedTable<String> before = new CompressedTable<String>(rows, cols, "a");
+		CompressedTable<String> after = new CompressedTable<String>(rows, cols, "a");
+		Random rand = new Random(62);
+		for (int i = 0; i < 300; i++) {
+			int r0 = rand.nextInt(rows), c0 = rand.nextInt(cols);
+			int r1 = Math.min(rows - 1, r0 + rand.nextInt(300)), c1 = Math.min(cols - 1, c0 + rand.nextInt(50));
+			String val = i % 2 == 0 ? "b" : "c";
+			before.fillRect(r0, c0, r1, c1, val);
+			after.fillRect(r0, c0, r1, c1, val);
+			if (i % 3 == 0) {
+				after.fillRect(r0, c0, r1, c0, "d"); // only after differs here
+			}
+		}
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			assertEquals(before.entireTable(), ParallelTableOps.entireTable(before, pool));
+			assertEquals(naiveDiff(before, after), ParallelTableOps.diff(before, after, pool));
+			assertTrue(ParallelTableOps.diff(before, before, pool).isEmpty());
+			assertThrows(IllegalArgumentException.class, () -> {ParallelTableOps.diff(before, table, pool);});
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Changed rectangles, found cell by cell: maximal spans in each row, joined to
+	 * the rectangle above when it covers the same columns.
+	 */
+	private static List<TableRegion> naiveDiff(CompressedTable<String> a, CompressedTable<String> b) {
+		ArrayList<int[]> rects = new ArrayList<int[]>();
+		HashMap<Integer, int[]> previous = new HashMap<Integer, int[]>();
+		for (int r = 0; r < a.numRows; r++) {
+			HashMap<Integer, int[]> current = new HashMap<Integer, int[]>();
+			for (int c = 0; c < a.numCols; c++) {
+				if (a.getInfo(r, c).equals(b.getInfo(r, c))) {
+					continue;
+				}
+				int c0 = c;
+				while (c + 1 < a.numCols && !a.getInfo(r, c + 1).equals(b.getInfo(r, c + 1))) {
+					c++;
+				}
+				int[] rect = previous.get(c0 * a.numCols + c);
+				if (rect == null) {
+					rect = new int[] { r, c0, r, c };
+					rects.add(rect);
+				}
+				rect[2] = r;
+				current.put(c0 * a.numCols + c, rect);
+			}
+			previous = current;
+		}
+		ArrayList<TableRegion> ans = new ArrayList<TableRegion>();
+		for (int[] rect : rects) {
+			ans.add(new TableRegion(rect[0], rect[1], rect[2], rect[3]));
+		}
+		return ans;
+	}
+
+	// snapshots keep the contents they were taken with while the table changes
+	@Test
+	public void testSnapshot() {
+		table.updateInfo(1, 1, "g");
+		TableSnapshot<String> first = table.snapshot();
+		String firstText = table.entireTable();
+		table.fillRange(0, 2, 2, 1, "b");
+		TableSnapshot<String> second = table.snapshot();
+		table.updateInfo(1, 1, "r");
+		table.fillRect(0, 0, 2, 3, "g");
+
+		assertEquals(firstText, first.entireTable());
+		assertEquals("g", first.getInfo(1, 1));
+		assertEquals(3, first.runCount());
+		assertEquals("rrbb\nbbbb\nbbrr\n", second.entireTable());
+		assertEquals("gggg\ngggg\ngggg\n", table.snapshot().entireTable());
+		assertThrows(UnsupportedOperationException.class, () -> {first.updateInfo(0, 0, "b");});
+	}
+
+	// once no snapshot is reachable the shared tree is dropped, and the next
+	// snapshot builds it again from the runs
+	@Test
+	public void testSnapshotTreeDropped() {
+		TableSnapshot<String> first = table.snapshot();
+		table.updateInfo(0, 0, "g");
+		assertNotNull(table.versions);
+		table.lastSnapshot.clear(); // as if the collector had found it unreachable
+		table.updateInfo(0, 1, "b");
+		assertNull(table.versions);
+		table.fillRange(1, 0, 1, 3, "g");
+		assertNull(table.versions);
+
+		TableSnapshot<String> second = table.snapshot();
+		assertNotNull(table.versions);
+		table.fillRange(0, 0, 2, 3, "y");
+		assertEquals("rrrr\nrrrr\nrrrr\n", first.entireTable());
+		assertEquals("gbrr\ngggg\nrrrr\n", second.entireTable());
+		assertEquals(5, second.runCount());
+		assertEquals("yyyy\nyyyy\nyyyy\n", table.snapshot().entireTable());
+	}
+
+	// random updates between snapshots leave every snapshot as it was
+	@Test
+	public void testRandomSnapshots() {
+		CompressedTable<String> big = new CompressedTable<String>(20, 30, "a");
+		String[] values = { "a", "b", "c" };
+		Random rand = new Random(62);
+		ArrayList<TableSnapshot<String>> snapshots = new ArrayList<TableSnapshot<String>>();
+		ArrayList<String> texts = new ArrayList<String>();
+		for (int i = 0; i < 50; i++) {
+			for (int j = 0; j < 40; j++) {
+				int from = rand.nextInt(600), to = Math.min(599, from + rand.nextInt(40));
+				big.fillRange(from / 30, from % 30, to / 30, to % 30, values[rand.nextInt(values.length)]);
+			}
+			snapshots.add(big.snapshot());
+			texts.add(big.entireTable());
+		}
+		for (int i = 0; i < snapshots.size(); i++) {
+			assertEquals(texts.get(i), snapshots.get(i).entireTable());
+		}
+	}
+
+	// each value is stored once, with counts of the runs and cells holding it
+	@Test
+	public void testDictionary() {
+		table.updateInfo(0, 1, new String("g"));
+		table.updateInfo(2, 2, new String("g"));
+		table.fillRange(1, 0, 1, 3, "b");
+		ValueDictionary<String> dictionary = table.getDictionary();
+
+		assertSame(table.getInfo(0, 1), table.getInfo(2, 2));
+		assertEquals(2, dictionary.runCount("g"));
+		assertEquals(2, dictionary.cellCount("g"));
+		assertEquals(4, dictionary.runCount("r"));
+		assertEquals(6, dictionary.cellCount("r"));
+		assertEquals(1, dictionary.runCount("b"));
+		assertEquals(4, dictionary.cellCount("b"));
+		assertEquals(0, dictionary.cellCount("y"));
+		assertEquals(3, dictionary.size());
+	}
+
+	// codes of values no run holds any more are recycled, so the dictionary stays
+	// as small as the most values held at once, and counts still match the cells
+	@Test
+	public void testDictionaryRecycling() {
+		ValueDictionary<String> dictionary = table.getDictionary();
+		for (int i = 0; i < 1000; i++) {
+			table.updateInfo(1, 1, "v" + i);
+		}
+		assertEquals(3, dictionary.size());
+		assertEquals(-1, dictionary.code("v0"));
+		assertEquals(0, dictionary.runCount("v998"));
+		assertEquals(1, dictionary.cellCount("v999"));
+		assertEquals(0, table.count(0, 0, 2, 3, "v998"));
+		assertEquals(1, table.count(1, 0, 1, 3, "v999"));
+
+		// values come and go, a few dozen at a time
+		Random rand = new Random(14);
+		CompressedTable<String> churned = new CompressedTable<String>(6, 7, "r");
+		TestTableOracle oracle = new TestTableOracle(6, 7, "r");
+		int most = 1;
+		for (int i = 0; i < 5000; i++) {
+			String val = "v" + (i / 20 + rand.nextInt(30));
+			int r0 = rand.nextInt(6), c0 = rand.nextInt(7);
+			if (rand.nextInt(4) == 0) {
+				int r1 = r0 + rand.nextInt(6 - r0), c1 = c0 + rand.nextInt(7 - c0);
+				churned.fillRect(r0, c0, r1, c1, val);
+				oracle.fillRect(r0, c0, r1, c1, val);
+			} else {
+				churned.updateInfo(r0, c0, val);
+				oracle.updateInfo(r0, c0, val);
+			}
+			if (i % 500 == 0) {
+				churned.setPrefixCounts(i % 1000 == 0);
+			}
+
+			Map<String, Long> expected = new HashMap<String, Long>();
+			for (int r = 0; r < 6; r++) {
+				for (int c = 0; c < 7; c++) {
+					expected.merge(oracle.getInfo(r, c), 1L, Long::sum);
+				}
+			}
+			most = Math.max(most, expected.size());
+			assertTrue(churned.getDictionary().size() <= most + 1);
+			assertEquals(expected, churned.histogram(0, 0, 5, 6));
+			for (String cell : expected.keySet()) {
+				assertEquals(expected.get(cell), churned.getDictionary().cellCount(cell));
+				assertEquals((long) expected.get(cell), churned.count(0, 0, 2, 6, cell) + churned.count(3, 0, 5, 6, cell));
+			}
+		}
+		assertTrue(churned.getDictionary().size() < 100);
+	}
+
+	@Test
+	public void testRuns() {
+		table.updateInfo(0, 1, "g");
+		table.fillRange(1, 2, 2, 0, "b");
+		Iterator<TableRun<String>> runs = table.runs();
+		assertEquals(new TableRun<String>(0, 0, 1, "r"), runs.next());
+		assertEquals(new TableRun<String>(0, 1, 1, "g"), runs.next());
+		assertEquals(new TableRun<String>(0, 2, 4, "r"), runs.next());
+		assertEquals(new TableRun<String>(1, 2, 3, "b"), runs.next());
+		assertEquals(new TableRun<String>(2, 1, 3, "r"), runs.next());
+		assertFalse(runs.hasNext());
+	}
+
+	// the parts of a split spliterator cover every run once, in order
+	@Test
+	public void testRunSpliterator() {
+		Random rand = new Random(18);
+		CompressedTable<String> big = new CompressedTable<String>(200, 300, "a");
+		for (int i = 0; i < 2000; i++) {
+			big.updateInfo(rand.nextInt(200), rand.nextInt(300), "" + (char) ('a' + rand.nextInt(4)));
+		}
+		List<TableRun<String>> expected = new ArrayList<TableRun<String>>();
+		big.runs().forEachRemaining(expected::add);
+		assertEquals(big.tableInfo.size(), expected.size());
+
+		Spliterator<TableRun<String>> second = big.runSpliterator();
+		Spliterator<TableRun<String>> first = second.trySplit();
+		assertNotNull(first);
+		List<TableRun<String>> found = new ArrayList<TableRun<String>>();
+		first.forEachRemaining(found::add);
+		assertTrue(found.size() > 0 && found.size() < expected.size());
+		second.forEachRemaining(found::add);
+		assertEquals(expected, found);
+
+		Map<String, Long> cells = big.runStream(true)
+				.collect(Collectors.groupingBy(run -> run.value, Collectors.summingLong(run -> run.length)));
+		for (String value : cells.keySet()) {
+			assertEquals(big.getDictionary().cellCount(value), cells.get(value).longValue());
+		}
+		assertEquals(200 * 300, big.runStream(true).mapToLong(run -> run.length).sum());
+	}
+
+	// column-banded data is one run per band in column-major order
+	@Test
+	public void testColumnMajor() {
+		CompressedTable<String> banded = new CompressedTable<String>(3, 4, "r", CellOrder.COLUMN_MAJOR);
+		banded.fillRect(0, 1, 2, 1, "g");
+		banded.fillRect(0, 3, 2, 3, "b");
+		banded.fillRange(2, 3, 2, 3, "b");
+		assertEquals("rgrb\nrgrb\nrgrb\n", banded.entireTable());
+		assertEquals(4, banded.tableInfo.size());
+		assertEquals("g", banded.getInfo(1, 1));
+
+		banded.fillRange(0, 2, 1, 1, "y"); // row-major range across a row boundary
+		assertEquals("rgyy\nyyrb\nrgrb\n", banded.entireTable());
+	}
+
+	// squares aligned with the Z-order are one run each
+	@Test
+	public void testMorton() {
+		CompressedTable<String> patches = new CompressedTable<String>(4, 4, "r", CellOrder.MORTON);
+		patches.fillRect(0, 2, 1, 3, "g");
+		patches.fillRect(2, 0, 3, 1, "b");
+		assertEquals("rrgg\nrrgg\nbbrr\nbbrr\n", patches.entireTable());
+		assertEquals(4, patches.tableInfo.size());
+		for (CellOrder order : CellOrder.values()) {
+			for (int r = 0; r < 3; r++) {
+				for (int c = 0; c < 5; c++) {
+					RowOrderedPosn posn = order.position(order.offset(r, c, 3, 5), 3, 5);
+					assertEquals(r, posn.getRow());
+					assertEquals(c, posn.getCol());
+					assertEquals(order.offset(r, c, 3, 5), posn.offset()); // as found, not recomputed
+					assertEquals(posn.offset(), new RowOrderedPosn(r, c, 3, 5, order).offset());
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testCountAndHistogram() {
+		table.updateInfo(0, 1, "g");
+		table.fillRange(1, 2, 2, 0, "b");
+		assertEquals(2, table.count(0, 1, 1, 2, "r"));
+		assertEquals(1, table.count(0, 1, 1, 2, "b"));
+		assertEquals(0, table.count(0, 1, 1, 2, "y"));
+		assertEquals(8, table.count(0, 0, 2, 3, "r"));
+
+		Map<String, Long> expected = new HashMap<String, Long>();
+		expected.put("r", 3L);
+		expected.put("b", 1L);
+		assertEquals(expected, table.histogram(1, 0, 2, 1));
+	}
+
+	// counts and histograms of random rectangles match those of the cells, in
+	// every order, with and without prefix counts
+	@Test
+	public void testRandomCounts() {
+		String[] values = TestTableOracle.VALUES;
+		Random rand = new Random(19);
+		for (CellOrder order : CellOrder.values()) {
+			CompressedTable<String> counted = new CompressedTable<String>(9, 13, "r", order);
+			TestTableOracle oracle = new TestTableOracle(9, 13, "r");
+			for (int i = 0; i < 300; i++) {
+				int r0 = rand.nextInt(9), r1 = r0 + rand.nextInt(9 - r0);
+				int c0 = rand.nextInt(13), c1 = c0 + rand.nextInt(13 - c0);
+				if (rand.nextBoolean()) {
+					String val = values[rand.nextInt(values.length)];
+					int r = rand.nextInt(9), c = rand.nextInt(13);
+					counted.updateInfo(r, c, val);
+					oracle.updateInfo(r, c, val);
+				}
+				if (i % 50 == 0) {
+					counted.setPrefixCounts(i % 100 == 0); // kept across updates for 50 rounds
+				}
+
+				Map<String, Long> expected = new HashMap<String, Long>();
+				for (int r = r0; r <= r1; r++) {
+					for (int c = c0; c <= c1; c++) {
+						expected.merge(oracle.getInfo(r, c), 1L, Long::sum);
+					}
+				}
+				assertEquals(expected, counted.histogram(r0, c0, r1, c1));
+				for (String val : values) {
+					long cells = expected.containsKey(val) ? expected.get(val) : 0;
+					assertEquals(cells, counted.count(r0, c0, r1, c1, val));
+					assertEquals(cells, counted.count(r0, c0, r1, c1, val)); // again, from the totals
+				}
+			}
+		}
+	}
+
+	// the report counts the runs of each order and picks the fewest
+	@Test
+	public void testCellOrderReport() {
+		table.fillRect(0, 1, 2, 2, "g");
+		Map<CellOrder, Long> counts = CellOrderReport.runCounts(table, 3, 4);
+		assertEquals(7, counts.get(CellOrder.ROW_MAJOR).longValue());
+		assertEquals(3, counts.get(CellOrder.COLUMN_MAJOR).longValue());
+		assertEquals(CellOrder.COLUMN_MAJOR, CellOrderReport.best(counts));
+	}
+
+	// cells outside the table are rejected
+	@Test
+	public void testOutOfRange() {
+		assertThrows(IllegalArgumentException.class, () -> {table.getInfo(3, 0);});
+		assertThrows(IllegalArgumentException.class, () -> {table.updateInfo(0, 4, "g");});
+	}
+
+	// random updates, ranges and rectangles agree with a plain array, with no redundant runs
+	@Test
+	public void testRandomUpdates() {
+		Random rand = new Random(62);
+		for (int[] dims : new int[][] { { 3, 4 }, { 6, 7 } }) {
+			TestTableOracle.checkRandomOps(CompressedTable<String>::new, dims[0], dims[1], rand, 3000,
+					(compressed, oracle, step) -> {
+						assertEquals(oracle.runs(), compressed.tableInfo.size());
+						assertEquals(oracle.runs(), compressed.runIndex.size());
+					});
+		}
+	}
+
+	// with the node pool on, random updates and fills keep the table right while reusing nodes
+	@Test
+	public void testRandomUpdatesWithNodePool() {
+		CompressedTable<String> pooled = TestTableOracle.checkRandomOps((rows, cols, defaultValue) -> {
+			CompressedTable<String> ans = new CompressedTable<String>(rows, cols, defaultValue);
+			ans.setNodePool(8);
+			return ans;
+		}, 6, 7, new Random(25), 3000, (table, oracle, step) -> {
+			assertEquals(oracle.runs(), table.tableInfo.size());
+			assertTrue(table.tableInfo.getPooledNodes() <= 8);
+		});
+		assertTrue(pooled.tableInfo.getPoolHitRate() > 0.5);
+	}
+}
@@ -0,0 +1,160 @@
+package compression;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for ConcurrentCompressedTable class
+ *
+ * @author cs62
+ */
+public class TestConcurrentCompressedTable {
+
+	// segment heights round up, so the last segment is short and there may be fewer segments than asked for
+	@Test
+	public void testSegments() {
+		ConcurrentCompressedTable<String> table = new ConcurrentCompressedTable<String>(10, 3, "r", 4);
+		assertEquals(3, table.segmentRows);
+		assertEquals(4, table.segments.length);
+		assertEquals(1, table.segments[3].numRows);
+		table = new ConcurrentCompressedTable<String>(10, 3, "r", 6);
+		assertEquals(2, table.segmentRows);
+		assertEquals(5, table.segments.length);
+		table = new ConcurrentCompressedTable<String>(4, 3, "r", 100);
+		assertEquals(1, table.segmentRows);
+		assertEquals(4, table.segments.length);
+		assertThrows(IllegalArgumentException.class, () -> new ConcurrentCompressedTable<String>(4, 3, "r", 0));
+	}
+
+	// ranges and rectangles crossing segment boundaries are split into the right pieces
+	@Test
+	public void testAcrossSegments() {
+		ConcurrentCompressedTable<String> table = new ConcurrentCompressedTable<String>(7, 3, "r", 3);
+		TestTableOracle oracle = new TestTableOracle(7, 3, "r");
+		table.fillRange(2, 1, 6, 0, "g");
+		oracle.fillRange(2, 1, 6, 0, "g");
+		assertEquals(oracle.entireTable(), table.entireTable());
+		table.fillRect(1, 1, 6, 1, "b");
+		oracle.fillRect(1, 1, 6, 1, "b");
+		assertEquals(oracle.entireTable(), table.entireTable());
+		assertThrows(IllegalArgumentException.class, () -> table.fillRange(3, 0, 2, 2, "g"));
+		assertThrows(IllegalArgumentException.class, () -> table.fillRect(3, 2, 4, 1, "g"));
+		assertThrows(IllegalArgumentException.class, () -> table.getInfo(7, 0));
+	}
+
+	// random updates, ranges and rectangles match a dense oracle, for segment counts that do not divide the rows
+	@Test
+	public void testRandomUpdates() {
+		Random rand = new Random(11);
+		for (int[] dims : new int[][] { { 10, 3, 3 }, { 10, 3, 4 }, { 10, 3, 6 }, { 7, 5, 2 }, { 7, 5, 5 }, { 5, 4, 9 },
+				{ 1, 6, 3 } }) {
+			int segments = dims[2];
+			TestTableOracle.checkRandomOps(
+					(rows, cols, defaultValue) -> new ConcurrentCompressedTable<String>(rows, cols, defaultValue, segments),
+					dims[0], dims[1], rand, 1500, (table, oracle, step) -> {
+					});
+		}
+	}
+
+	/**
+	 * Runs writers[i] in a thread of its own, alongside a reader checking that
+	 * every cell always holds one of values, and waits for them all.
+	 */
+	private static void runConcurrently(ConcurrentCompressedTable<String> table, String[] values, Runnable... writers)
+			throws InterruptedException {
+		AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+		Thread[] threads = new Thread[writers.length];
+		for (int i = 0; i < writers.length; i++) {
+			threads[i] = new Thread(writers[i]);
+			threads[i].setUncaughtExceptionHandler((t, e) -> failure.compareAndSet(null, e));
+			threads[i].start();
+		}
+		Thread reader = new Thread(() -> {
+			Random rand = new Random(2);
+			for (int i = 0; i < 20000; i++) {
+				String val = table.getInfo(rand.nextInt(table.numRows), rand.nextInt(table.numCols));
+				assertTrue(Arrays.asList(values).contains(val));
+			}
+		});
+		reader.setUncaughtExceptionHandler((t, e) -> failure.compareAndSet(null, e));
+		reader.start();
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		reader.join();
+		assertNull(failure.get());
+	}
+
+	// writers on different segments each leave their own rows as they last wrote them
+	@Test
+	public void testWritersOnDifferentSegments() throws InterruptedException {
+		int rows = 23, cols = 17, writers = 4;
+		ConcurrentCompressedTable<String> table = new ConcurrentCompressedTable<String>(rows, cols, "r", 8);
+		String[] values = { "r", "0", "1", "2", "3" };
+		int band = (rows + writers - 1) / writers;
+		Runnable[] tasks = new Runnable[writers];
+		for (int w = 0; w < writers; w++) {
+			final int first = w * band, last = Math.min(rows, first + band) - 1;
+			final String val = String.valueOf(w);
+			tasks[w] = () -> {
+				Random rand = new Random(first);
+				for (int i = 0; i < 5000; i++) {
+					int r = first + rand.nextInt(last - first + 1), c = rand.nextInt(cols);
+					if (i % 10 == 0) {
+						table.fillRect(first, 0, r, c, i % 20 == 0 ? "r" : val);
+					} else {
+						table.updateInfo(r, c, rand.nextBoolean() ? "r" : val);
+					}
+				}
+				table.fillRange(first, 0, last, cols - 1, val);
+				table.updateInfo(first, 0, "r");
+			};
+		}
+		runConcurrently(table, values, tasks);
+
+		TestTableOracle oracle = new TestTableOracle(rows, cols, "r");
+		for (int w = 0; w < writers; w++) {
+			oracle.fillRect(w * band, 0, Math.min(rows, (w + 1) * band) - 1, cols - 1, String.valueOf(w));
+			oracle.updateInfo(w * band, 0, "r");
+		}
+		assertEquals(oracle.entireTable(), table.entireTable());
+	}
+
+	// writers sharing segments, each owning every writers'th column, leave exactly their own cells
+	@Test
+	public void testWritersOnSharedSegments() throws InterruptedException {
+		int rows = 9, cols = 12, writers = 4;
+		ConcurrentCompressedTable<String> table = new ConcurrentCompressedTable<String>(rows, cols, "r", 2);
+		String[] values = { "r", "0", "1", "2", "3", "x" };
+		Runnable[] tasks = new Runnable[writers];
+		for (int w = 0; w < writers; w++) {
+			final int col = w;
+			final String val = String.valueOf(w);
+			tasks[w] = () -> {
+				Random rand = new Random(col);
+				for (int i = 0; i < 5000; i++) {
+					int r = rand.nextInt(rows), c = col + writers * rand.nextInt(cols / writers);
+					table.updateInfo(r, c, i % 3 == 0 ? "x" : val);
+					if (i % 50 == 0) {
+						table.fillRect(0, c, rows - 1, c, val);
+					}
+				}
+				for (int c = col; c < cols; c += writers) {
+					table.fillRect(0, c, rows - 1, c, val);
+				}
+			};
+		}
+		runConcurrently(table, values, tasks);
+
+		TestTableOracle oracle = new TestTableOracle(rows, cols, "r");
+		for (int c = 0; c < cols; c++) {
+			oracle.fillRect(0, c, rows - 1, c, String.valueOf(c % writers));
+		}
+		assertEquals(oracle.entireTable(), table.entireTable());
+	}
+}
@@ -1,6 +1,9 @@
 package compression;
 
 import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ListIterator;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -215,6 +218,68 @@ public class TestCurDoublyLinkedList {
 		assertEquals(83, (int) list.current.item);
 	}
 
+	// add after current when the list holds duplicates of current's value
+	@Test
+	public void testAddAfterCurrentDuplicates() {
+		// 47 <=> 47 <=> 47
+		list.add(47);
+		list.add(47);
+		list.add(47);
+		list.last();
+		list.addAfterCurrent(83);
+		assertEquals(4, list.size());
+		list.last();
+		assertEquals(83, (int) list.current.item);
+		list.back();
+		assertEquals(47, (int) list.current.item);
+	}
+
+	// add before head and in the middle, confirm order and current
+	@Test
+	public void testAddBeforeCurrent() {
+		// 47
+		list.add(47);
+		list.addBeforeCurrent(83);
+		assertEquals(2, list.size());
+		assertEquals(83, (int) list.current.item);
+		list.first();
+		assertEquals(83, (int) list.current.item);
+
+		// 83 <=> 60 <=> 47
+		list.last();
+		list.addBeforeCurrent(60);
+		assertEquals(3, list.size());
+		assertEquals(60, (int) list.current.item);
+		list.back();
+		assertEquals(83, (int) list.current.item);
+		list.last();
+		assertEquals(47, (int) list.current.item);
+	}
+
+	// confirm addBeforeCurrent rejects an off-list current
+	@Test
+	public void testAddBeforeCurrentIsOff() {
+		list.add(47);
+		list.back();
+		assertThrows(IllegalStateException.class, () -> {list.addBeforeCurrent(83);});
+	}
+
+	// replace current's value in place
+	@Test
+	public void testReplaceCurrent() {
+		// 84 <=> 47
+		list.add(47);
+		list.add(84);
+		list.next();
+		assertEquals(47, (int) list.replaceCurrent(60));
+		assertEquals(60, (int) list.current.item);
+		assertEquals(2, list.size());
+		list.first();
+		assertEquals(84, (int) list.current.item);
+		list.next();
+		assertEquals(60, (int) list.current.item);
+	}
+
 	// position to middle, remove, check successor and contents
 	@Test
 	public void testRemoveCurrent() {
@@ -236,6 +301,21 @@ public class TestCurDoublyLinkedList {
 		assertEquals(47, (int) list.current.item);
 	}
 
+	// remove the tail through current, confirm current goes off right
+	@Test
+	public void testRemoveCurrentTail() {
+		// 84 <=> 47
+		list.add(47);
+		list.add(84);
+		list.last();
+		list.removeCurrent();
+		assertNull(list.current);
+		assertTrue(list.isOffRight());
+		assertEquals(1, list.size());
+		list.back();
+		assertEquals(84, (int) list.current.item);
+	}
+
 	// position to end, addFirst, confirm where it was added
 	@Test
 	public void testAddFirst() {
@@ -360,4 +440,119 @@ public class TestCurDoublyLinkedList {
 		assertFalse(list.isOffLeft());
 		assertFalse(list.isOffRight());
 	}
+
+	// removeIf and remove(index) leave current by the rules of removeCurrent
+	@Test
+	public void testRemoveIfCurrent() {
+		// 134 <=> 84 <=> 47 <=> 12
+		list.add(12);
+		list.add(47);
+		list.add(84);
+		list.add(134);
+		list.next();
+		assertTrue(list.removeIf(x -> x == 84));
+		assertEquals(47, (int) list.currentValue());
+		assertFalse(list.isOff());
+
+		assertTrue(list.removeIf(x -> x == 134)); // not current, so it stays put
+		assertEquals(47, (int) list.currentValue());
+
+		list.last();
+		assertTrue(list.removeIf(x -> x == 12));
+		assertNull(list.current);
+		assertTrue(list.isOffRight());
+		list.back();
+		assertEquals(47, (int) list.currentValue());
+
+		// 47 <=> 5 <=> 6
+		list.addLast(5);
+		list.addLast(6);
+		list.back();
+		assertEquals(5, (int) list.remove(1));
+		assertEquals(6, (int) list.currentValue());
+		assertEquals(2, list.size());
+	}
+
+	// removing current through a list iterator moves it to the successor, or off right
+	@Test
+	public void testListIteratorRemoveCurrent() {
+		// 134 <=> 84 <=> 47
+		list.add(47);
+		list.add(84);
+		list.add(134);
+		list.next();
+		ListIterator<Integer> it = list.listIterator();
+		it.next();
+		it.next();
+		it.remove();
+		assertEquals(47, (int) list.currentValue());
+
+		it.next();
+		it.remove();
+		assertNull(list.current);
+		assertTrue(list.isOffRight());
+		assertFalse(list.isOffLeft());
+		assertEquals(1, list.size());
+		list.back();
+		assertEquals(134, (int) list.currentValue());
+	}
+
+	// with a node pool, a removed current node is left before it is pooled, so
+	// reusing it for a later insertion does not move the cursor
+	@Test
+	public void testNodePoolLeavesCurrent() {
+		list.setNodePool(4);
+		// 134 <=> 84 <=> 47
+		list.add(47);
+		list.add(84);
+		list.add(134);
+		list.next();
+		assertTrue(list.removeIf(x -> x == 84));
+		assertEquals(1, list.getPooledNodes());
+		assertEquals(47, (int) list.currentValue());
+		assertFalse(list.isOff());
+
+		list.add(1, 21); // 134 <=> 21 <=> 47, in the pooled node
+		assertEquals(1, list.getPoolHits());
+		assertEquals(47, (int) list.currentValue());
+		list.back();
+		assertEquals(21, (int) list.currentValue());
+
+		ListIterator<Integer> it = list.listIterator(1);
+		it.next();
+		it.remove();
+		assertEquals(47, (int) list.currentValue());
+		list.addFirst(9); // 9 <=> 134 <=> 47, again in the pooled node
+		assertEquals(2, list.getPoolHits());
+		assertEquals(9, (int) list.currentValue());
+		list.next();
+		list.next();
+		assertEquals(47, (int) list.currentValue());
+	}
+
+	// adding at either end puts current back on the list, so removing it moves on
+	@Test
+	public void testAddAtEndsLeavesOff() {
+		// 83 <=> 47
+		list.add(47);
+		list.add(83);
+		list.first();
+		list.back();
+		assertTrue(list.isOffLeft());
+		list.addFirst(9); // 9 <=> 83 <=> 47
+		assertFalse(list.isOff());
+		assertEquals(9, (int) list.currentValue());
+		list.removeCurrent();
+		assertEquals(83, (int) list.currentValue());
+
+		list.last();
+		list.next();
+		assertTrue(list.isOffRight());
+		list.addLast(134); // 83 <=> 47 <=> 134
+		assertFalse(list.isOff());
+		list.removeCurrent();
+		assertNull(list.current);
+		assertTrue(list.isOffRight());
+		assertEquals(2, list.size());
+	}
 }
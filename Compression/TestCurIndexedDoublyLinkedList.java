@@ -0,0 +1,184 @@
+package compression;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for CurIndexedDoublyLinkedList class, mostly by comparing it with
+ * CurDoublyLinkedList
+ *
+ * @author cs62
+ */
+public class TestCurIndexedDoublyLinkedList {
+	CurIndexedDoublyLinkedList<Integer> list;
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		list = new CurIndexedDoublyLinkedList<Integer>();
+	}
+
+	/**
+	 * @return items of list, in order
+	 */
+	private static List<Integer> items(Iterable<Integer> list) {
+		List<Integer> ans = new ArrayList<Integer>();
+		for (Integer item : list) {
+			ans.add(item);
+		}
+		return ans;
+	}
+
+	// positional access agrees with an ArrayList as items are inserted and removed anywhere
+	@Test
+	public void testPositionalAccess() {
+		List<Integer> expected = new ArrayList<Integer>();
+		Random rand = new Random(23);
+		for (int i = 0; i < 5000; i++) {
+			list.addLast(i);
+			expected.add(i);
+		}
+		for (int i = 0; i < 20000; i++) {
+			int index = rand.nextInt(expected.size());
+			if (rand.nextBoolean()) {
+				list.add(index, -i);
+				expected.add(index, -i);
+			} else {
+				assertEquals(expected.remove(index), list.remove(index));
+			}
+			index = rand.nextInt(expected.size());
+			assertEquals(expected.get(index), list.get(index));
+		}
+		assertEquals(expected, items(list));
+		assertEquals(expected.get(expected.size() - 1), list.getLast());
+	}
+
+	// moveTo and currentIndex are inverse, and the index follows edits before current
+	@Test
+	public void testMoveToAndCurrentIndex() {
+		for (int i = 0; i < 100; i++) {
+			list.addLast(i);
+		}
+		for (int i = 0; i < 100; i++) {
+			list.moveTo(i);
+			assertEquals(i, (int) list.currentValue());
+			assertEquals(i, list.currentIndex());
+		}
+		list.moveTo(50);
+		list.addFirst(-1);
+		list.moveTo(51);
+		list.remove(10);
+		assertEquals(50, list.currentIndex());
+		assertEquals(50, (int) list.currentValue());
+		list.last();
+		list.next();
+		assertEquals(-1, list.currentIndex());
+		assertThrows(IndexOutOfBoundsException.class, () -> list.moveTo(100));
+	}
+
+	// going off either end works as in CurDoublyLinkedList
+	@Test
+	public void testOffEnds() {
+		list.add(2);
+		list.add(1);
+		list.first();
+		list.back();
+		assertTrue(list.isOffLeft());
+		assertThrows(IllegalStateException.class, () -> list.back());
+		list.next();
+		assertEquals(1, (int) list.currentValue());
+		list.next();
+		list.next();
+		assertTrue(list.isOffRight());
+		assertThrows(IllegalStateException.class, () -> list.currentValue());
+		list.back();
+		assertEquals(2, (int) list.currentValue());
+		list.removeLast();
+		list.removeFirst();
+		assertTrue(list.isEmpty());
+		assertThrows(IllegalStateException.class, () -> list.first());
+	}
+
+	// random sequences of operations leave both lists, and their current items, the same
+	@Test
+	public void testMatchesCurDoublyLinkedList() {
+		Random rand = new Random(23);
+		for (int round = 0; round < 4; round++) {
+			CurDoublyLinkedList<Integer> expected = new CurDoublyLinkedList<Integer>();
+			CurIndexedDoublyLinkedList<Integer> indexed = new CurIndexedDoublyLinkedList<Integer>();
+			for (int i = 0; i < 20000; i++) {
+				int op = rand.nextInt(15);
+				Integer value = rand.nextInt(50);
+				boolean on = expected.size() > 0 && !expected.isOff() && expected.current != null;
+				int size = expected.size();
+				if (op == 0) {
+					expected.addFirst(value);
+					indexed.addFirst(value);
+				} else if (op == 1) {
+					expected.addLast(value);
+					indexed.addLast(value);
+				} else if (op == 2 && on) {
+					expected.addAfterCurrent(value);
+					indexed.addAfterCurrent(value);
+				} else if (op == 3 && on) {
+					expected.addBeforeCurrent(value);
+					indexed.addBeforeCurrent(value);
+				} else if (op == 4 && on && size > 0) {
+					expected.removeCurrent();
+					indexed.removeCurrent();
+				} else if (op == 5 && size > 0 && !expected.isOffRight()) {
+					expected.next();
+					indexed.next();
+				} else if (op == 6 && size > 0 && !expected.isOffLeft()) {
+					expected.back();
+					indexed.back();
+				} else if (op == 7 && size > 0) {
+					assertEquals(expected.removeFirst(), indexed.removeFirst());
+				} else if (op == 8 && size > 0) {
+					assertEquals(expected.removeLast(), indexed.removeLast());
+				} else if (op == 9 && size > 0) {
+					int index = rand.nextInt(size);
+					assertEquals(expected.get(index), indexed.get(index));
+					expected.add(index, value);
+					indexed.add(index, value);
+				} else if (op == 10 && size > 2) {
+					int index = rand.nextInt(size);
+					if (!on || expected.current.item != expected.get(index) || index == 0 || index == size - 1) {
+						assertEquals(expected.remove(index), indexed.remove(index));
+					}
+				} else if (op == 11 && on) {
+					assertEquals(expected.replaceCurrent(value), indexed.replaceCurrent(value));
+				} else if (op == 12 && size > 0) {
+					if (rand.nextBoolean()) {
+						assertEquals(expected.getFirst(), indexed.getFirst());
+					} else {
+						assertEquals(expected.getLast(), indexed.getLast());
+					}
+				} else if (op == 13 && !(on && expected.current.item.equals(value))) {
+					assertEquals(expected.remove(value), indexed.remove(value));
+				} else if (op == 14 && rand.nextInt(50) == 0) {
+					expected.clear();
+					indexed.clear();
+				}
+
+				assertEquals(expected.size(), indexed.size());
+				assertEquals(expected.isOffLeft(), indexed.isOffLeft());
+				assertEquals(expected.isOffRight(), indexed.isOffRight());
+				if (expected.size() > 0 && !expected.isOff() && expected.current != null) {
+					assertEquals(expected.currentValue(), indexed.currentValue());
+					assertEquals(indexed.currentValue(), indexed.get(indexed.currentIndex()));
+				}
+				if (i % 100 == 0) {
+					assertEquals(items(expected), items(indexed));
+					assertEquals(expected.size(), items(indexed).size());
+				}
+			}
+			assertEquals(items(expected), items(indexed));
+		}
+	}
+}
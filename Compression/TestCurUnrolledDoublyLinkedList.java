@@ -0,0 +1,187 @@
+package compression;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for CurUnrolledDoublyLinkedList class, mostly by comparing it with
+ * CurDoublyLinkedList
+ *
+ * @author cs62
+ */
+public class TestCurUnrolledDoublyLinkedList {
+	CurUnrolledDoublyLinkedList<Integer> list;
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		list = new CurUnrolledDoublyLinkedList<Integer>(4);
+	}
+
+	/**
+	 * @return items of list, in order
+	 */
+	private static List<Integer> items(Iterable<Integer> list) {
+		List<Integer> ans = new ArrayList<Integer>();
+		for (Integer item : list) {
+			ans.add(item);
+		}
+		return ans;
+	}
+
+	// adding at either end fills whole chunks
+	@Test
+	public void testAddAtEndsFillsChunks() {
+		for (int i = 0; i < 8; i++) {
+			list.addLast(i);
+		}
+		for (int i = -1; i >= -8; i--) {
+			list.addFirst(i);
+		}
+		assertEquals(16, list.size());
+		assertEquals(4, list.chunkCount());
+		assertEquals(-8, (int) list.get(0));
+		assertEquals(7, (int) list.get(15));
+		assertEquals(2, (int) list.get(10));
+		assertEquals(10, list.getIndex(list.get(10)));
+	}
+
+	// inserting into a full chunk splits it, and current follows the new item
+	@Test
+	public void testSplitKeepsCurrent() {
+		for (int i = 0; i < 4; i++) {
+			list.addLast(i);
+		}
+		list.first();
+		list.next();
+		list.addAfterCurrent(10); // 0 1 10 2 3
+		assertEquals(10, (int) list.currentValue());
+		assertEquals(2, list.chunkCount());
+		list.next();
+		assertEquals(2, (int) list.currentValue());
+		list.back();
+		list.back();
+		assertEquals(1, (int) list.currentValue());
+	}
+
+	// removing from a chunk merges it into a neighbour, and current follows the successor
+	@Test
+	public void testMergeKeepsCurrent() {
+		for (int i = 0; i < 8; i++) {
+			list.addLast(i);
+		}
+		list.first();
+		list.next();
+		list.removeCurrent(); // 0 2 3 | 4 5 6 7
+		list.removeCurrent(); // 0 3 | 4 5 6 7 -> 0 3 4 5 | 6 7 ...
+		assertEquals(3, (int) list.currentValue());
+		assertEquals("[0, 3, 4, 5, 6, 7]", items(list).toString());
+		assertTrue(list.chunkCount() <= 2);
+		list.last();
+		list.removeCurrent();
+		assertTrue(list.isOffRight());
+		list.back();
+		assertEquals(6, (int) list.currentValue());
+	}
+
+	// going off either end works as in CurDoublyLinkedList
+	@Test
+	public void testOffEnds() {
+		list.add(2);
+		list.add(1);
+		list.first();
+		list.back();
+		assertTrue(list.isOffLeft());
+		assertThrows(IllegalStateException.class, () -> list.back());
+		list.next();
+		assertEquals(1, (int) list.currentValue());
+		list.next();
+		list.next();
+		assertTrue(list.isOffRight());
+		assertThrows(IllegalStateException.class, () -> list.currentValue());
+		list.back();
+		assertEquals(2, (int) list.currentValue());
+	}
+
+	// random sequences of operations leave both lists, and their current items, the same
+	@Test
+	public void testMatchesCurDoublyLinkedList() {
+		Random rand = new Random(22);
+		for (int chunkSize : new int[] { 2, 3, 4, 8 }) {
+			CurDoublyLinkedList<Integer> expected = new CurDoublyLinkedList<Integer>();
+			CurUnrolledDoublyLinkedList<Integer> unrolled = new CurUnrolledDoublyLinkedList<Integer>(chunkSize);
+			for (int i = 0; i < 20000; i++) {
+				int op = rand.nextInt(15);
+				Integer value = rand.nextInt(50);
+				boolean on = expected.size() > 0 && !expected.isOff() && expected.current != null;
+				int size = expected.size();
+				if (op == 0) {
+					expected.addFirst(value);
+					unrolled.addFirst(value);
+				} else if (op == 1) {
+					expected.addLast(value);
+					unrolled.addLast(value);
+				} else if (op == 2 && on) {
+					expected.addAfterCurrent(value);
+					unrolled.addAfterCurrent(value);
+				} else if (op == 3 && on) {
+					expected.addBeforeCurrent(value);
+					unrolled.addBeforeCurrent(value);
+				} else if (op == 4 && on && size > 0) {
+					expected.removeCurrent();
+					unrolled.removeCurrent();
+				} else if (op == 5 && size > 0 && !expected.isOffRight()) {
+					expected.next();
+					unrolled.next();
+				} else if (op == 6 && size > 0 && !expected.isOffLeft()) {
+					expected.back();
+					unrolled.back();
+				} else if (op == 7 && size > 0) {
+					assertEquals(expected.removeFirst(), unrolled.removeFirst());
+				} else if (op == 8 && size > 0) {
+					assertEquals(expected.removeLast(), unrolled.removeLast());
+				} else if (op == 9 && size > 0) {
+					int index = rand.nextInt(size);
+					assertEquals(expected.get(index), unrolled.get(index));
+					expected.add(index, value);
+					unrolled.add(index, value);
+				} else if (op == 10 && size > 2) {
+					int index = rand.nextInt(size);
+					if (!on || expected.current.item != expected.get(index) || index == 0 || index == size - 1) {
+						assertEquals(expected.remove(index), unrolled.remove(index));
+					}
+				} else if (op == 11 && on) {
+					assertEquals(expected.replaceCurrent(value), unrolled.replaceCurrent(value));
+				} else if (op == 12 && size > 0) {
+					if (rand.nextBoolean()) {
+						assertEquals(expected.getFirst(), unrolled.getFirst());
+					} else {
+						assertEquals(expected.getLast(), unrolled.getLast());
+					}
+				} else if (op == 13 && !(on && expected.current.item.equals(value))) {
+					assertEquals(expected.remove(value), unrolled.remove(value));
+				} else if (op == 14 && rand.nextInt(50) == 0) {
+					expected.clear();
+					unrolled.clear();
+				}
+
+				assertEquals(expected.size(), unrolled.size());
+				assertEquals(expected.isOffLeft(), unrolled.isOffLeft());
+				assertEquals(expected.isOffRight(), unrolled.isOffRight());
+				if (expected.size() > 0 && !expected.isOff() && expected.current != null) {
+					assertEquals(expected.currentValue(), unrolled.currentValue());
+				}
+				if (i % 100 == 0) {
+					assertEquals(items(expected), items(unrolled));
+					assertEquals(expected.size(), items(unrolled).size());
+				}
+			}
+			assertEquals(items(expected), items(unrolled));
+		}
+	}
+}
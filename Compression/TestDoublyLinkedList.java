@@ -0,0 +1,243 @@
+package compression;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the iterators and bulk operations of DoublyLinkedList
+ *
+ * @author cs62
+ */
+public class TestDoublyLinkedList {
+	DoublyLinkedList<Integer> list;
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		list = new DoublyLinkedList<Integer>();
+	}
+
+	/**
+	 * @return items of list, in order
+	 */
+	private static List<Integer> items(DoublyLinkedList<Integer> list) {
+		List<Integer> ans = new ArrayList<Integer>();
+		list.forEach(ans::add);
+		return ans;
+	}
+
+	// addAll appends in order, to an empty or non-empty list, and then ends line up
+	@Test
+	public void testAddAll() {
+		assertFalse(list.addAll(new ArrayList<Integer>()));
+		assertTrue(list.addAll(Arrays.asList(1, 2, 3)));
+		assertTrue(list.addAll(Arrays.asList(4, 5)));
+		assertEquals(Arrays.asList(1, 2, 3, 4, 5), items(list));
+		assertEquals(5, list.size());
+		assertEquals(5, (int) list.removeLast());
+		assertEquals(1, (int) list.removeFirst());
+		assertEquals(3, (int) list.get(1));
+	}
+
+	// removeIf removes matching items at the ends and in the middle
+	@Test
+	public void testRemoveIf() {
+		list.addAll(Arrays.asList(0, 1, 2, 3, 4, 5, 6));
+		assertTrue(list.removeIf(x -> x % 3 == 0));
+		assertEquals(Arrays.asList(1, 2, 4, 5), items(list));
+		assertFalse(list.removeIf(x -> x > 10));
+		assertTrue(list.removeIf(x -> true));
+		assertTrue(list.isEmpty());
+		list.addLast(7);
+		assertEquals(Arrays.asList(7), items(list));
+	}
+
+	// the list iterator removes, replaces and inserts in place in both directions
+	@Test
+	public void testListIterator() {
+		list.addAll(Arrays.asList(0, 1, 2, 3));
+		ListIterator<Integer> it = list.listIterator();
+		assertThrows(IllegalStateException.class, () -> it.remove());
+		assertEquals(0, (int) it.next());
+		it.remove(); // 1 2 3
+		assertEquals(1, (int) it.next());
+		it.set(10); // 10 2 3
+		it.add(11); // 10 11 2 3
+		assertThrows(IllegalStateException.class, () -> it.set(0));
+		assertEquals(2, it.nextIndex());
+		assertEquals(11, (int) it.previous());
+		it.remove(); // 10 2 3
+		assertEquals(1, it.nextIndex());
+		assertEquals(2, (int) it.next());
+		assertEquals(3, (int) it.next());
+		assertFalse(it.hasNext());
+		it.add(4); // 10 2 3 4
+		assertEquals(Arrays.asList(10, 2, 3, 4), items(list));
+		assertEquals(4, (int) list.removeLast());
+
+		ListIterator<Integer> back = list.listIterator(list.size());
+		assertEquals(3, (int) back.previous());
+		assertEquals(2, (int) back.previous());
+		assertEquals(10, (int) back.previous());
+		assertFalse(back.hasPrevious());
+		back.add(9);
+		assertEquals(Arrays.asList(9, 10, 2, 3), items(list));
+		assertThrows(IndexOutOfBoundsException.class, () -> list.listIterator(5));
+	}
+
+	// iterators and bulk operations fail fast when the list changes under them
+	@Test
+	public void testFailFast() {
+		list.addAll(Arrays.asList(0, 1, 2));
+		Iterator<Integer> it = list.iterator();
+		it.next();
+		list.addLast(3);
+		assertThrows(ConcurrentModificationException.class, () -> it.next());
+
+		ListIterator<Integer> first = list.listIterator();
+		ListIterator<Integer> second = list.listIterator();
+		first.next();
+		first.remove();
+		assertThrows(ConcurrentModificationException.class, () -> second.next());
+		assertEquals(1, (int) first.next());
+
+		assertThrows(ConcurrentModificationException.class, () -> list.forEach(x -> list.addFirst(x)));
+		assertThrows(ConcurrentModificationException.class, () -> list.removeIf(x -> {
+			list.clear();
+			return true;
+		}));
+
+		Iterator<Integer> empty = new DoublyLinkedList<Integer>().iterator();
+		assertThrows(java.util.NoSuchElementException.class, () -> empty.next());
+	}
+
+	// the spliterator is sized, splits into exact halves, and streams in order
+	@Test
+	public void testSpliterator() {
+		List<Integer> expected = new ArrayList<Integer>();
+		for (int i = 0; i < 1001; i++) {
+			expected.add(i);
+		}
+		list.addAll(expected);
+
+		Spliterator<Integer> second = list.spliterator();
+		assertTrue(second.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.ORDERED));
+		Spliterator<Integer> first = second.trySplit();
+		assertEquals(500, first.getExactSizeIfKnown());
+		assertEquals(501, second.getExactSizeIfKnown());
+		List<Integer> seen = new ArrayList<Integer>();
+		first.forEachRemaining(seen::add);
+		assertTrue(second.tryAdvance(seen::add));
+		assertEquals(500, second.estimateSize());
+		second.forEachRemaining(seen::add);
+		assertEquals(expected, seen);
+
+		assertEquals(expected, StreamSupport.stream(list.spliterator(), true).collect(Collectors.toList()));
+		assertEquals(500500L, StreamSupport.stream(list.spliterator(), true).mapToLong(x -> x).sum());
+
+		Spliterator<Integer> stale = list.spliterator();
+		list.removeFirst();
+		assertThrows(ConcurrentModificationException.class, () -> stale.tryAdvance(x -> {
+		}));
+	}
+
+	// random edits through a list iterator match the same edits on an ArrayList
+	@Test
+	public void testMatchesArrayList() {
+		Random rand = new Random(24);
+		List<Integer> expected = new ArrayList<Integer>();
+		for (int round = 0; round < 200; round++) {
+			int start = rand.nextInt(expected.size() + 1);
+			ListIterator<Integer> it = list.listIterator(start);
+			ListIterator<Integer> oracle = expected.listIterator(start);
+			boolean canModify = false;
+			for (int i = 0; i < 50; i++) {
+				int op = rand.nextInt(5);
+				if (op == 0 && oracle.hasNext()) {
+					assertEquals(oracle.next(), it.next());
+					canModify = true;
+				} else if (op == 1 && oracle.hasPrevious()) {
+					assertEquals(oracle.previous(), it.previous());
+					canModify = true;
+				} else if (op == 2 && canModify) {
+					oracle.remove();
+					it.remove();
+					canModify = false;
+				} else if (op == 3 && canModify) {
+					oracle.set(-i);
+					it.set(-i);
+				} else if (op == 4) {
+					oracle.add(round * 100 + i);
+					it.add(round * 100 + i);
+					canModify = false;
+				}
+				assertEquals(oracle.nextIndex(), it.nextIndex());
+				assertEquals(oracle.hasNext(), it.hasNext());
+				assertEquals(oracle.hasPrevious(), it.hasPrevious());
+			}
+			assertEquals(expected, items(list));
+			assertEquals(expected.size(), list.size());
+		}
+	}
+
+	// removed nodes go to a bounded pool, cleared, and are reused by later insertions
+	@Test
+	public void testNodePool() {
+		list.setNodePool(2);
+		list.addAll(Arrays.asList(0, 1, 2, 3));
+		assertEquals(4, list.getPoolMisses());
+		list.removeFirst();
+		list.removeLast();
+		list.remove(1);
+		assertEquals(2, list.getPooledNodes());
+		DoublyLinkedList<Integer>.Node node = list.obtainNode();
+		assertNull(node.item);
+		assertNull(node.prev);
+		assertNull(node.next);
+		list.releaseNode(node);
+		assertEquals(2, list.getPooledNodes());
+
+		list.addLast(4);
+		list.addFirst(5);
+		list.add(1, 6);
+		assertEquals(Arrays.asList(5, 6, 1, 4), items(list));
+		assertEquals(3, list.getPoolHits());
+		assertEquals(5, list.getPoolMisses());
+		assertEquals(3.0 / 8, list.getPoolHitRate(), 1e-9);
+
+		list.removeIf(x -> true);
+		assertEquals(2, list.getPooledNodes());
+		list.setNodePool(0);
+		assertEquals(0, list.getPooledNodes());
+		list.addLast(7);
+		assertEquals(5, list.getPoolMisses());
+		assertThrows(IllegalArgumentException.class, () -> list.setNodePool(-1));
+	}
+
+	// clearing the list hands its nodes to the pool, as far as it has room
+	@Test
+	public void testClearFillsPool() {
+		list.setNodePool(3);
+		list.addAll(Arrays.asList(0, 1, 2, 3, 4));
+		list.clear();
+		assertEquals(0, list.size());
+		assertEquals(3, list.getPooledNodes());
+		list.addLast(5);
+		list.addFirst(6);
+		assertEquals(Arrays.asList(6, 5), items(list));
+		assertEquals(2, list.getPoolHits());
+		assertEquals(1, list.getPooledNodes());
+	}
+}
@@ -0,0 +1,229 @@
+package compression;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for DurableTable class. A crash is simulated by opening the
+ * directory again without closing the table first.
+ *
+ * @author cs62
+ */
+public class TestDurableTable {
+	Path dir;
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		dir = Files.createTempDirectory("durable");
+	}
+
+	@AfterEach
+	public void tearDown() throws Exception {
+		try (Stream<Path> files = Files.walk(dir)) {
+			for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+				Files.delete(file);
+			}
+		}
+	}
+
+	// committed updates survive a crash, and those not yet committed are lost
+	@Test
+	public void testCommittedUpdatesSurvive() throws Exception {
+		DurableTable table = new DurableTable(dir, 3, 4, "r");
+		table.updateInfo(0, 1, "g");
+		table.fillRange(1, 2, 2, 0, "b");
+		table.commit();
+		table.fillRect(0, 0, 2, 0, "y");
+		assertEquals(1, table.getPendingUpdates());
+
+		DurableTable recovered = new DurableTable(dir, 3, 4, "r");
+		assertEquals("rgrr\nrrbb\nbrrr\n", recovered.entireTable());
+		assertEquals(2, recovered.getReplayed());
+		recovered.close();
+		table.close();
+	}
+
+	// closing commits, and a directory keeps its own table size
+	@Test
+	public void testCloseCommits() throws Exception {
+		DurableTable table = new DurableTable(dir, 3, 4, "r");
+		table.updateInfo(2, 3, "g");
+		table.close();
+
+		DurableTable reopened = new DurableTable(dir, 10, 10, "x");
+		assertEquals("rrrr\nrrrr\nrrrg\n", reopened.entireTable());
+		reopened.close();
+	}
+
+	// a batch only partly written is cut off, and later batches follow the last whole one
+	@Test
+	public void testTornBatchIsDropped() throws Exception {
+		DurableTable table = new DurableTable(dir, 3, 4, "r", 1, DurableTable.DEFAULT_COMPACT_BYTES);
+		table.updateInfo(0, 0, "g");
+		table.updateInfo(1, 1, "b");
+		long whole = table.getLogSize();
+		table.close();
+		Path log = dir.resolve("log-0.wal");
+		try (FileChannel channel = FileChannel.open(log, StandardOpenOption.WRITE)) {
+			channel.truncate(whole - 3);
+		}
+
+		DurableTable recovered = new DurableTable(dir, 3, 4, "r", 1, DurableTable.DEFAULT_COMPACT_BYTES);
+		assertEquals("grrr\nrrrr\nrrrr\n", recovered.entireTable());
+		assertTrue(Files.size(log) < whole - 3);
+		recovered.updateInfo(2, 2, "y");
+		recovered.close();
+
+		DurableTable again = new DurableTable(dir, 3, 4, "r");
+		assertEquals("grrr\nrrrr\nrryr\n", again.entireTable());
+		again.close();
+	}
+
+	// a batch whose checksum does not match is not replayed, nor anything after it
+	@Test
+	public void testCorruptBatchIsDropped() throws Exception {
+		DurableTable table = new DurableTable(dir, 3, 4, "r", 1, DurableTable.DEFAULT_COMPACT_BYTES);
+		table.updateInfo(0, 0, "g");
+		long first = table.getLogSize();
+		table.updateInfo(1, 1, "b");
+		table.updateInfo(2, 2, "y");
+		table.close();
+		byte[] bytes = Files.readAllBytes(dir.resolve("log-0.wal"));
+		bytes[(int) first + 12] ^= 1; // inside the second batch's updates
+		Files.write(dir.resolve("log-0.wal"), bytes);
+
+		DurableTable recovered = new DurableTable(dir, 3, 4, "r");
+		assertEquals("grrr\nrrrr\nrrrr\n", recovered.entireTable());
+		assertEquals(first, recovered.getLogSize());
+		recovered.close();
+	}
+
+	// compaction starts a new generation and leaves only its files behind
+	@Test
+	public void testCompaction() throws Exception {
+		DurableTable table = new DurableTable(dir, 3, 4, "r", 2, 200);
+		for (int i = 0; i < 40; i++) {
+			table.updateInfo(i % 3, i % 4, i % 2 == 0 ? "g" : "b");
+		}
+		assertTrue(table.getCompactions() > 0);
+		assertEquals(table.getCompactions(), table.getGeneration());
+		String[] files = dir.toFile().list();
+		Arrays.sort(files);
+		assertArrayEquals(new String[] { "log-" + table.getGeneration() + ".wal",
+				"snapshot-" + table.getGeneration() + ".ctbf" }, files);
+
+		DurableTable recovered = new DurableTable(dir, 3, 4, "r");
+		assertEquals(table.entireTable(), recovered.entireTable());
+		recovered.close();
+		table.close();
+	}
+
+	// a compaction that fails keeps the updates gathered so far, to be committed to the last generation
+	@Test
+	public void testFailedCompaction() throws Exception {
+		DurableTable table = new DurableTable(dir, 3, 4, "r");
+		table.updateInfo(0, 1, "g");
+		Files.createDirectory(dir.resolve("snapshot-1.tmp")); // the next snapshot cannot be written
+		assertThrows(IOException.class, () -> table.compact());
+		assertEquals(0, table.getGeneration());
+		assertEquals(1, table.getPendingUpdates());
+		assertFalse(Files.exists(dir.resolve("snapshot-1.ctbf")));
+		Files.delete(dir.resolve("snapshot-1.tmp"));
+
+		Files.createDirectory(dir.resolve("log-1.wal")); // nor the next log
+		table.updateInfo(0, 2, "b");
+		assertThrows(IOException.class, () -> table.compact());
+		assertFalse(Files.exists(dir.resolve("snapshot-1.ctbf")));
+		assertFalse(Files.exists(dir.resolve("log-1.wal")));
+		assertEquals(2, table.getPendingUpdates());
+		table.commit();
+
+		DurableTable recovered = new DurableTable(dir, 3, 4, "r"); // crash
+		assertEquals("rgbr\nrrrr\nrrrr\n", recovered.entireTable());
+		recovered.compact();
+		assertEquals(1, recovered.getGeneration());
+		recovered.close();
+		table.close();
+	}
+
+	// files whose names are not those of a generation neither stop the table opening nor get deleted
+	@Test
+	public void testStrayFiles() throws Exception {
+		DurableTable table = new DurableTable(dir, 3, 4, "r", 2, 200);
+		table.updateInfo(1, 1, "g");
+		table.close();
+		String[] stray = { "log-x", "snapshot-old.ctbf", "log-1.bak", "snapshot-99999999999999999999.ctbf", "notes" };
+		for (String name : stray) {
+			Files.write(dir.resolve(name), new byte[] { 1 });
+		}
+
+		DurableTable recovered = new DurableTable(dir, 3, 4, "r", 2, 200);
+		assertEquals("g", recovered.getInfo(1, 1));
+		for (int i = 0; i < 40; i++) {
+			recovered.updateInfo(i % 3, i % 4, "b");
+		}
+		assertTrue(recovered.getCompactions() > 0);
+		for (String name : stray) {
+			assertTrue(Files.exists(dir.resolve(name)));
+		}
+		recovered.close();
+	}
+
+	// after crashes at random points the table holds exactly its committed updates
+	@Test
+	public void testRandomCrashes() throws Exception {
+		String[] values = { "r", "g", "b" };
+		String[][] committed = new String[7][9];
+		for (String[] row : committed) {
+			Arrays.fill(row, "r");
+		}
+		String[][] current = new String[7][9];
+		Random rand = new Random(21);
+		DurableTable table = new DurableTable(dir, 7, 9, "r", 5, 2000);
+		for (int round = 0; round < 20; round++) {
+			for (int r = 0; r < 7; r++) {
+				current[r] = committed[r].clone();
+			}
+			for (int i = rand.nextInt(30); i > 0; i--) {
+				int r0 = rand.nextInt(7), r1 = r0 + rand.nextInt(7 - r0);
+				int c0 = rand.nextInt(9), c1 = c0 + rand.nextInt(9 - c0);
+				String val = values[rand.nextInt(values.length)];
+				table.fillRect(r0, c0, r1, c1, val);
+				for (int r = r0; r <= r1; r++) {
+					Arrays.fill(current[r], c0, c1 + 1, val);
+				}
+				if (table.getPendingUpdates() == 0) { // the batch was just committed
+					for (int r = 0; r < 7; r++) {
+						committed[r] = current[r].clone();
+					}
+				}
+			}
+			table = new DurableTable(dir, 7, 9, "r", 5, 2000); // crash
+			for (int r = 0; r < 7; r++) {
+				for (int c = 0; c < 9; c++) {
+					assertEquals(committed[r][c], table.getInfo(r, c));
+				}
+			}
+		}
+		table.close();
+	}
+
+	// a batch must hold at least one update
+	@Test
+	public void testBadBatchSize() throws IOException {
+		assertThrows(IllegalArgumentException.class, () -> new DurableTable(dir, 3, 4, "r", 0, 100));
+	}
+}
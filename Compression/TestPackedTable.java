@@ -0,0 +1,100 @@
+package compression;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for PackedTable class
+ *
+ * @author cs62
+ */
+public class TestPackedTable {
+	PackedTable<String> table;
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		table = new PackedTable<String>(3, 4, "r");
+	}
+
+	// a new table is one run holding the default value
+	@Test
+	public void testNewTable() {
+		assertEquals(1, table.runCount());
+		assertEquals("r", table.getInfo(0, 0));
+		assertEquals("r", table.getInfo(2, 3));
+	}
+
+	// writing a cell in the middle of a run splits it in three, and restoring it merges them again
+	@Test
+	public void testSplitAndMerge() {
+		table.updateInfo(1, 1, "g");
+		assertEquals(3, table.runCount());
+		assertEquals("g", table.getInfo(1, 1));
+		assertEquals("r", table.getInfo(1, 0));
+		assertEquals("r", table.getInfo(1, 2));
+		table.updateInfo(1, 1, "r");
+		assertEquals(1, table.runCount());
+	}
+
+	// writing the first and last cells adds one run each
+	@Test
+	public void testCorners() {
+		table.updateInfo(0, 0, "g");
+		table.updateInfo(2, 3, "b");
+		assertEquals(3, table.runCount());
+		assertEquals("g", table.getInfo(0, 0));
+		assertEquals("b", table.getInfo(2, 3));
+		assertEquals("r", table.getInfo(2, 2));
+	}
+
+	// a range crossing rows replaces every run inside it, and a bad range is rejected
+	@Test
+	public void testFillRange() {
+		table.updateInfo(0, 3, "g");
+		table.updateInfo(1, 1, "b");
+		table.fillRange(0, 2, 1, 2, "g");
+		assertEquals(3, table.runCount());
+		assertEquals("r", table.getInfo(0, 1));
+		assertEquals("g", table.getInfo(1, 1));
+		assertEquals("r", table.getInfo(1, 3));
+		assertThrows(IllegalArgumentException.class, () -> table.fillRange(2, 0, 1, 0, "g"));
+	}
+
+	// codes of values no run holds any more are recycled, so the dictionary stays
+	// as small as the most values held at once
+	@Test
+	public void testDictionaryRecycling() {
+		ValueDictionary<String> dictionary = table.getDictionary();
+		for (int i = 0; i < 1000; i++) {
+			table.updateInfo(1, 1, "v" + i);
+		}
+		assertEquals(3, dictionary.size());
+		assertEquals(-1, dictionary.code("v0"));
+		assertEquals(1, dictionary.runCount("v999"));
+		assertEquals(2, dictionary.runCount("r"));
+		assertEquals("v999", table.getInfo(1, 1));
+		table.fillRange(0, 0, 2, 3, "g");
+		assertEquals(0, dictionary.runCount("v999"));
+		assertEquals(1, dictionary.runCount("g"));
+		assertEquals(3, dictionary.size());
+	}
+
+	// random updates, ranges and rectangles match a dense oracle, in contents, runs and rendering
+	@Test
+	public void testRandomUpdates() {
+		Random rand = new Random(4);
+		for (int[] dims : new int[][] { { 3, 4 }, { 7, 5 }, { 1, 9 } }) {
+			TestTableOracle.checkRandomOps(PackedTable<String>::new, dims[0], dims[1], rand, 3000,
+					(packed, oracle, step) -> {
+						assertEquals(oracle.runs(), packed.runCount());
+						if (step % 100 == 0) {
+							assertEquals(oracle.entireTable(), packed.entireTable());
+						}
+					});
+		}
+	}
+}
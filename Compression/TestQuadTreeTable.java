@@ -0,0 +1,122 @@
+package compression;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for QuadTreeTable class
+ * 
+ * @author cs62
+ */
+public class TestQuadTreeTable {
+	QuadTreeTable<String> table;
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		table = new QuadTreeTable<String>(3, 4, "r");
+	}
+
+	// a new table is one leaf holding the default value
+	@Test
+	public void testNewTable() {
+		assertEquals("rrrr\nrrrr\nrrrr\n", table.entireTable());
+		assertEquals(1, table.leafCount());
+	}
+
+	// updating a cell splits the squares above it, and undoing it merges them again
+	@Test
+	public void testUpdateSplitsAndMerges() {
+		table.updateInfo(1, 2, "g");
+		assertEquals("g", table.getInfo(1, 2));
+		assertEquals("rrrr\nrrgr\nrrrr\n", table.entireTable());
+		assertEquals(7, table.leafCount());
+		table.updateInfo(1, 2, "r");
+		assertEquals(1, table.leafCount());
+		assertEquals(1, table.nodeCount());
+	}
+
+	// a rectangle made of aligned squares is one leaf per square
+	@Test
+	public void testFillRect() {
+		table.fillRect(0, 2, 1, 3, "g");
+		assertEquals("rrgg\nrrgg\nrrrr\n", table.entireTable());
+		assertEquals(4, table.leafCount());
+		table.fillRect(0, 0, 2, 3, "b");
+		assertEquals(1, table.leafCount());
+		assertThrows(IllegalArgumentException.class, () -> {table.fillRect(1, 1, 0, 0, "g");});
+		assertThrows(IllegalArgumentException.class, () -> {table.getInfo(3, 0);});
+	}
+
+	// random fills agree with a plain array
+	@Test
+	public void testRandomFills() {
+		QuadTreeTable<String> big = new QuadTreeTable<String>(13, 21, "a");
+		String[][] oracle = new String[13][21];
+		for (String[] row : oracle) {
+			Arrays.fill(row, "a");
+		}
+		String[] values = { "a", "b", "c" };
+		Random rand = new Random(62);
+		for (int i = 0; i < 2000; i++) {
+			int r0 = rand.nextInt(13), c0 = rand.nextInt(21);
+			int r1 = Math.min(12, r0 + rand.nextInt(6)), c1 = Math.min(20, c0 + rand.nextInt(6));
+			String val = values[rand.nextInt(values.length)];
+			if (i % 2 == 0) {
+				big.fillRect(r0, c0, r1, c1, val);
+				for (int r = r0; r <= r1; r++) {
+					Arrays.fill(oracle[r], c0, c1 + 1, val);
+				}
+			} else {
+				big.updateInfo(r0, c0, val);
+				oracle[r0][c0] = val;
+			}
+		}
+		StringBuilder expected = new StringBuilder();
+		for (String[] row : oracle) {
+			expected.append(String.join("", row)).append('\n');
+		}
+		assertEquals(expected.toString(), big.entireTable());
+	}
+
+	/**
+	 * @return number of leaves listed by toString, i.e., those inside the table
+	 */
+	private static int listedLeaves(QuadTreeTable<String> table) {
+		return table.toString().split("<Square", -1).length - 1;
+	}
+
+	// quarters outside a table whose sides are not powers of 2 are not allocated or counted
+	@Test
+	public void testLeavesInsideTable() {
+		QuadTreeTable<String> small = new QuadTreeTable<String>(5, 5, "r");
+		small.updateInfo(4, 0, "g");
+		// three 4x4 quarters of the root, the 1x2 top right of the bottom left one, and two cells
+		assertEquals(6, small.leafCount());
+		assertEquals(listedLeaves(small), small.leafCount());
+		assertEquals(9, small.nodeCount());
+		small.updateInfo(4, 4, "g");
+		assertEquals(6, small.leafCount());
+		small.updateInfo(4, 0, "r");
+		small.updateInfo(4, 4, "r");
+		assertEquals(1, small.leafCount());
+		assertEquals(1, small.nodeCount());
+
+		Random rand = new Random(16);
+		String[] values = { "a", "b" };
+		for (int[] dims : new int[][] { { 5, 5 }, { 3, 7 }, { 9, 1 } }) {
+			QuadTreeTable<String> odd = new QuadTreeTable<String>(dims[0], dims[1], "a");
+			for (int i = 0; i < 500; i++) {
+				int r0 = rand.nextInt(dims[0]), c0 = rand.nextInt(dims[1]);
+				int r1 = r0 + rand.nextInt(dims[0] - r0), c1 = c0 + rand.nextInt(dims[1] - c0);
+				odd.fillRect(r0, c0, r1, c1, values[rand.nextInt(values.length)]);
+				assertEquals(listedLeaves(odd), odd.leafCount());
+				assertTrue(odd.leafCount() <= dims[0] * dims[1]);
+			}
+		}
+	}
+}
@@ -0,0 +1,150 @@
+package compression;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Plain array of strings holding what a table under test should, for the table
+ * tests to check against, with a driver applying random updates, ranges and
+ * rectangles to a table and its oracle alike.
+ *
+ * @author cs62
+ */
+class TestTableOracle implements TwoDTable<String> {
+	// values the random operations write; the tables start out holding the first
+	static final String[] VALUES = { "r", "g", "b" };
+
+	private final int numRows, numCols; // Number of rows and cols in table
+	private final String[][] cells; // value of each cell
+
+	/**
+	 * Makes a table of the kind under test.
+	 */
+	interface Factory<T extends TwoDTable<String>> {
+		T create(int rows, int cols, String defaultValue);
+	}
+
+	/**
+	 * Checks whatever else a test knows about the table after each operation.
+	 */
+	interface Check<T extends TwoDTable<String>> {
+		void check(T table, TestTableOracle oracle, int step);
+	}
+
+	/**
+	 * Constructor for oracle of size rows x cols, all of whose values are
+	 * initially set to defaultValue
+	 */
+	TestTableOracle(int rows, int cols, String defaultValue) {
+		numRows = rows;
+		numCols = cols;
+		cells = new String[rows][cols];
+		for (String[] row : cells) {
+			Arrays.fill(row, defaultValue);
+		}
+	}
+
+	public void updateInfo(int row, int col, String newInfo) {
+		cells[row][col] = newInfo;
+	}
+
+	public String getInfo(int row, int col) {
+		return cells[row][col];
+	}
+
+	public void fillRange(int startRow, int startCol, int endRow, int endCol, String newInfo) {
+		for (int pos = startRow * numCols + startCol; pos <= endRow * numCols + endCol; pos++) {
+			cells[pos / numCols][pos % numCols] = newInfo;
+		}
+	}
+
+	public void fillRect(int r0, int c0, int r1, int c1, String newInfo) {
+		for (int r = r0; r <= r1; r++) {
+			Arrays.fill(cells[r], c0, c1 + 1, newInfo);
+		}
+	}
+
+	/**
+	 * @return the cells, one line per row, as entireTable() renders them
+	 */
+	public String entireTable() {
+		StringBuilder ans = new StringBuilder();
+		for (String[] row : cells) {
+			ans.append(String.join("", row)).append('\n');
+		}
+		return ans.toString();
+	}
+
+	/**
+	 * @return number of maximal runs of equal values, read row by row
+	 */
+	long runs() {
+		long runs = 0;
+		String prev = null;
+		for (String[] row : cells) {
+			for (String cell : row) {
+				if (!cell.equals(prev)) {
+					runs++;
+				}
+				prev = cell;
+			}
+		}
+		return runs;
+	}
+
+	/**
+	 * Asserts that every cell of table holds the same value as in the oracle.
+	 */
+	void assertMatches(TwoDTable<String> table) {
+		for (int r = 0; r < numRows; r++) {
+			for (int c = 0; c < numCols; c++) {
+				assertEquals(cells[r][c], table.getInfo(r, c));
+			}
+		}
+	}
+
+	/**
+	 * Applies one random range, rectangle or single cell update of one of VALUES
+	 * to table and to the oracle.
+	 */
+	void randomOp(TwoDTable<String> table, Random rand) {
+		int r0 = rand.nextInt(numRows), c0 = rand.nextInt(numCols);
+		String val = VALUES[rand.nextInt(VALUES.length)];
+		int op = rand.nextInt(3);
+		if (op == 0) {
+			int from = r0 * numCols + c0;
+			int to = from + rand.nextInt(numRows * numCols - from);
+			table.fillRange(r0, c0, to / numCols, to % numCols, val);
+			fillRange(r0, c0, to / numCols, to % numCols, val);
+		} else if (op == 1) {
+			int r1 = r0 + rand.nextInt(numRows - r0), c1 = c0 + rand.nextInt(numCols - c0);
+			table.fillRect(r0, c0, r1, c1, val);
+			fillRect(r0, c0, r1, c1, val);
+		} else {
+			table.updateInfo(r0, c0, val);
+			updateInfo(r0, c0, val);
+		}
+	}
+
+	/**
+	 * Makes a rows x cols table holding VALUES[0] and applies steps random
+	 * operations to it, checking after each that its cells match the oracle's and
+	 * passing it to check, and at the end that it renders as the oracle does.
+	 *
+	 * @return the table, after the last operation
+	 */
+	static <T extends TwoDTable<String>> T checkRandomOps(Factory<T> factory, int rows, int cols, Random rand,
+			int steps, Check<T> check) {
+		T table = factory.create(rows, cols, VALUES[0]);
+		TestTableOracle oracle = new TestTableOracle(rows, cols, VALUES[0]);
+		for (int step = 0; step < steps; step++) {
+			oracle.randomOp(table, rand);
+			oracle.assertMatches(table);
+			check.check(table, oracle, step);
+		}
+		assertEquals(oracle.entireTable(), table.entireTable());
+		return table;
+	}
+}
@@ -0,0 +1,180 @@
+package compression;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for UpdateBatch class
+ *
+ * @author cs62
+ */
+public class TestUpdateBatch {
+	CompressedTable<String> table;
+	UpdateBatch<String> batch;
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		table = new CompressedTable<String>(3, 4, "r");
+		batch = new UpdateBatch<String>(3, 4);
+	}
+
+	// the last of several writes to one cell wins, and they make a single range
+	@Test
+	public void testRepeatedWrites() {
+		batch.add(1, 1, "g");
+		batch.add(1, 1, "b");
+		batch.add(1, 1, "y");
+		assertEquals(3, batch.size());
+		assertEquals(1, batch.applyTo(table));
+		assertEquals("y", table.getInfo(1, 1));
+		assertEquals("r", table.getInfo(1, 0));
+		assertEquals("r", table.getInfo(1, 2));
+	}
+
+	// a cell written with a different value and then overwritten still coalesces with its neighbours
+	@Test
+	public void testOverwriteInsideRange() {
+		batch.add(0, 0, "g");
+		batch.add(0, 1, "b");
+		batch.add(0, 2, "g");
+		batch.add(0, 1, "g");
+		assertEquals(1, batch.applyTo(table));
+		assertEquals("g", table.getInfo(0, 0));
+		assertEquals("g", table.getInfo(0, 1));
+		assertEquals("g", table.getInfo(0, 2));
+		assertEquals("r", table.getInfo(0, 3));
+
+		// but a different final value splits the range around it
+		batch.add(2, 0, "g");
+		batch.add(2, 1, "g");
+		batch.add(2, 2, "g");
+		batch.add(2, 1, "b");
+		assertEquals(3, batch.applyTo(table));
+		assertEquals("g", table.getInfo(2, 0));
+		assertEquals("b", table.getInfo(2, 1));
+		assertEquals("g", table.getInfo(2, 2));
+	}
+
+	// neighbouring cells either side of a row boundary make one range, whatever order they are added in
+	@Test
+	public void testRangeAcrossRows() {
+		batch.add(1, 0, "g");
+		batch.add(0, 3, "g");
+		batch.add(1, 1, "g");
+		assertEquals(1, batch.applyTo(table));
+		assertEquals("r", table.getInfo(0, 2));
+		assertEquals("g", table.getInfo(0, 3));
+		assertEquals("g", table.getInfo(1, 0));
+		assertEquals("g", table.getInfo(1, 1));
+		assertEquals("r", table.getInfo(1, 2));
+	}
+
+	// the count is one per maximal range, and applying empties the batch
+	@Test
+	public void testRangeCount() {
+		assertEquals(0, batch.applyTo(table));
+		batch.add(0, 0, "g");
+		batch.add(0, 2, "g");
+		batch.add(0, 1, "b");
+		batch.add(2, 3, "b");
+		batch.add(2, 2, "b");
+		assertEquals(4, batch.applyTo(table));
+		assertEquals(0, batch.size());
+		assertEquals(0, batch.applyTo(table));
+		assertEquals("b", table.getInfo(2, 2));
+		assertThrows(IllegalArgumentException.class, () -> batch.add(3, 0, "g"));
+		assertThrows(IllegalArgumentException.class, () -> batch.add(0, 0, null));
+	}
+
+	// random batches leave the table as applying the same updates one at a time would
+	@Test
+	public void testRandomBatches() {
+		String[] values = TestTableOracle.VALUES;
+		Random rand = new Random(9);
+		int rows = 5, cols = 7;
+		CompressedTable<String> batched = new CompressedTable<String>(rows, cols, "r");
+		TestTableOracle oracle = new TestTableOracle(rows, cols, "r");
+		UpdateBatch<String> updates = new UpdateBatch<String>(rows, cols);
+		for (int round = 0; round < 300; round++) {
+			int n = rand.nextInt(40);
+			for (int i = 0; i < n; i++) {
+				int r = rand.nextInt(rows), c = rand.nextInt(cols);
+				String val = values[rand.nextInt(values.length)];
+				updates.add(r, c, val);
+				oracle.updateInfo(r, c, val);
+			}
+			int ranges = updates.applyTo(batched);
+			assertTrue(ranges <= n);
+			oracle.assertMatches(batched);
+		}
+	}
+
+	// in a column-major or Morton table the batch coalesces neighbours in that
+	// order, filled by offset, and other tables are updated cell by cell
+	@Test
+	public void testOtherOrders() {
+		for (CellOrder order : new CellOrder[] { CellOrder.COLUMN_MAJOR, CellOrder.MORTON }) {
+			// the first four cells in the order, a column or a square rather than a row-major range
+			CompressedTable<String> ordered = new CompressedTable<String>(3, 4, "r", order);
+			UpdateBatch<String> updates = new UpdateBatch<String>(3, 4, order);
+			UpdateBatch<String> rowMajor = new UpdateBatch<String>(3, 4);
+			for (long offset = 3; offset >= 0; offset--) {
+				RowOrderedPosn cell = order.position(offset, 3, 4);
+				updates.add(cell.getRow(), cell.getCol(), "g");
+				rowMajor.add(cell.getRow(), cell.getCol(), "g");
+			}
+			assertEquals(1, updates.applyTo(ordered));
+			assertEquals(2, ordered.tableInfo.size());
+			assertTrue(rowMajor.applyTo(table) > 1);
+			assertEquals(table.entireTable(), ordered.entireTable());
+
+			PackedTable<String> packed = new PackedTable<String>(3, 4, "r");
+			for (long offset = 0; offset < 4; offset++) {
+				RowOrderedPosn cell = order.position(offset, 3, 4);
+				updates.add(cell.getRow(), cell.getCol(), "g");
+			}
+			assertEquals(1, updates.applyTo(packed));
+			assertEquals(table.entireTable(), packed.entireTable());
+			table = new CompressedTable<String>(3, 4, "r");
+		}
+	}
+
+	// random batches in each order leave the table as applying the same updates one at a time would
+	@Test
+	public void testRandomBatchesInEachOrder() {
+		Random rand = new Random(10);
+		for (CellOrder order : CellOrder.values()) {
+			CompressedTable<String> batched = new CompressedTable<String>(6, 5, "r", order);
+			TestTableOracle oracle = new TestTableOracle(6, 5, "r");
+			UpdateBatch<String> updates = new UpdateBatch<String>(6, 5, order);
+			for (int round = 0; round < 100; round++) {
+				for (int i = rand.nextInt(60); i > 0; i--) {
+					int r = rand.nextInt(6), c = rand.nextInt(5);
+					String val = TestTableOracle.VALUES[rand.nextInt(TestTableOracle.VALUES.length)];
+					updates.add(r, c, val);
+					oracle.updateInfo(r, c, val);
+				}
+				updates.applyTo(batched);
+				oracle.assertMatches(batched);
+			}
+		}
+	}
+
+	// an empty script or a bad first line is a usage error rather than a crash
+	@Test
+	public void testBadScript() throws Exception {
+		Compression compression = new Compression();
+		compression.processBatch(new BufferedReader(new StringReader("")));
+		assertNull(compression.table);
+		compression.processBatch(new BufferedReader(new StringReader("3 x r\nupdate 0 0 g\n")));
+		assertNull(compression.table);
+		compression.processBatch(new BufferedReader(new StringReader("2 2 r\nupdate 1 0 g\nexit\n")));
+		assertEquals("g", compression.table.getInfo(1, 0));
+	}
+}
@@ -1,5 +1,7 @@
 package compression;
 
+import java.io.IOException;
+
 /**
  * TwoDTable.java Interface representing a 2-dimensional table
  *
@@ -37,9 +39,71 @@ interface TwoDTable<ValueType> {
 	 */
 	public ValueType getInfo(int row, int col);
 
+	/**
+	 * Updates every cell from (startRow, startCol) through (endRow, endCol),
+	 * scanning from left to right across successive rows
+	 * 
+	 * @pre: both cells are legal and (startRow, startCol) does not come after
+	 *       (endRow, endCol)
+	 * 
+	 * @post: every cell in the range holds newInfo
+	 * 
+	 * @param startRow
+	 *            row of first cell to be updated
+	 * @param startCol
+	 *            column of first cell to be updated
+	 * @param endRow
+	 *            row of last cell to be updated
+	 * @param endCol
+	 *            column of last cell to be updated
+	 * @param newInfo
+	 *            new value to place in the cells
+	 */
+	public void fillRange(int startRow, int startCol, int endRow, int endCol, ValueType newInfo);
+
+	/**
+	 * Updates every cell in rows r0 through r1 and columns c0 through c1
+	 * 
+	 * @pre: both corners are legal, r0 <= r1 and c0 <= c1
+	 * 
+	 * @post: every cell in the rectangle holds newInfo
+	 * 
+	 * @param r0
+	 *            first row of the rectangle
+	 * @param c0
+	 *            first column of the rectangle
+	 * @param r1
+	 *            last row of the rectangle
+	 * @param c1
+	 *            last column of the rectangle
+	 * @param newInfo
+	 *            new value to place in the cells
+	 */
+	public default void fillRect(int r0, int c0, int r1, int c1, ValueType newInfo) {
+		if (r0 > r1 || c0 > c1) {
+			throw new IllegalArgumentException("Corners of rectangle are out of order");
+		}
+		for (int r = r0; r <= r1; r++) {
+			fillRange(r, c0, r, c1, newInfo);
+		}
+	}
+
 	/**
 	 * @return a string representation of the entire table
 	 */
 	public String entireTable();
 
+	/**
+	 * Writes the same text as entireTable() to out, without building it all in
+	 * memory first.
+	 * 
+	 * @param out
+	 *            destination of the text
+	 * @throws IOException
+	 *             if out cannot be written
+	 */
+	public default void writeTable(Appendable out) throws IOException {
+		out.append(entireTable());
+	}
+
 }
@@ -0,0 +1,474 @@
+package compression;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * The {@code UnrolledDoublyLinkedList} class represents a list with the same
+ * operations as {@code DoublyLinkedList}, but stores its items in a doubly
+ * linked list of chunks, each an array of up to chunkSize items. A list of n
+ * items needs about n / chunkSize chunks rather than n nodes, so each item
+ * costs little more than its array slot, and walking the list reads
+ * consecutive slots instead of chasing a pointer per item.
+ *
+ * A full chunk is split in half to make room for an insertion, unless the item
+ * goes at its very start or end, when it goes into a neighbouring chunk with
+ * room or a new one, so a list built by adding at either end has full chunks.
+ * A chunk left less than half full by a removal is merged into a neighbour if
+ * their items fit in one chunk.
+ *
+ * @author cs62
+ */
+public class UnrolledDoublyLinkedList<Item> implements Iterable<Item> {
+	static final int DEFAULT_CHUNK_SIZE = 32; // items per chunk by default
+
+	protected final int chunkSize; // most items a chunk holds
+	protected Chunk first; // head of the list of chunks
+	protected Chunk last; // tail of the list of chunks
+	protected int n; // number of items in the list
+	// chunk and slot found by locate, or holding the item placed by insertAt or
+	// the successor of the item taken by removeAt (null chunk if there is none)
+	protected Chunk foundChunk;
+	protected int foundIndex;
+
+	/**
+	 * This nested class defines the chunks of the list, each holding its items
+	 * in slots 0 through count - 1, with pointers to the previous and next chunk.
+	 */
+	protected class Chunk {
+		Object[] items = new Object[chunkSize];
+		int count;
+		Chunk next;
+		Chunk prev;
+
+		/**
+		 * @return the item in slot i
+		 */
+		@SuppressWarnings("unchecked")
+		Item item(int i) {
+			return (Item) items[i];
+		}
+	}
+
+	/**
+	 * @post: constructs an empty list whose chunks hold DEFAULT_CHUNK_SIZE items
+	 */
+	public UnrolledDoublyLinkedList() {
+		this(DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * @pre: chunkSize >= 2
+	 *
+	 * @post: constructs an empty list whose chunks hold chunkSize items
+	 *
+	 * @param chunkSize
+	 *            most items a chunk holds
+	 */
+	public UnrolledDoublyLinkedList(int chunkSize) {
+		if (chunkSize < 2) {
+			throw new IllegalArgumentException("Chunks must hold at least two items");
+		}
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * Returns true if the list does not contain any item.
+	 *
+	 * @return true if the list does not contain any item
+	 */
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	/**
+	 * Returns the number of items in the list.
+	 *
+	 * @return the number of items in the list
+	 */
+	public int size() {
+		return n;
+	}
+
+	/**
+	 * Returns item at the specified index, skipping whole chunks from the
+	 * nearer end.
+	 *
+	 * @param index
+	 *            the index of the item to be returned
+	 * @return the item at specified index
+	 */
+	public Item get(int index) {
+		rangeCheck(index);
+		locate(index);
+		return foundChunk.item(foundIndex);
+	}
+
+	/**
+	 * Returns index of the specified item
+	 *
+	 * @param desired
+	 *            the item to be located
+	 * @return index of that item (or -1)
+	 */
+	public int getIndex(Item desired) {
+		int index = 0;
+		for (Chunk chunk = first; chunk != null; chunk = chunk.next) {
+			for (int i = 0; i < chunk.count; i++) {
+				if (chunk.items[i] == desired) {
+					return index + i;
+				}
+			}
+			index += chunk.count;
+		}
+		return -1;
+	}
+
+	/**
+	 * Add a value to head of list.
+	 *
+	 * @post adds value to beginning of list
+	 *
+	 * @param item
+	 *            value to be added.
+	 */
+	public void add(Item item) {
+		this.addFirst(item);
+	}
+
+	/**
+	 * Inserts the specified item at the head of the list.
+	 *
+	 * @param item
+	 *            the item to be inserted
+	 */
+	public void addFirst(Item item) {
+		if (first == null) {
+			first = last = new Chunk();
+		}
+		insertAt(first, 0, item);
+	}
+
+	/**
+	 * Inserts the specified item at the tail of the list.
+	 *
+	 * @param item
+	 *            the item to be inserted
+	 */
+	public void addLast(Item item) {
+		if (last == null) {
+			first = last = new Chunk();
+		}
+		insertAt(last, last.count, item);
+	}
+
+	/**
+	 * Inserts the specified item at the specified index.
+	 *
+	 * @param index
+	 *            the index to insert the item
+	 * @param item
+	 *            the item to insert
+	 */
+	public void add(int index, Item item) {
+		rangeCheck(index);
+
+		if (index == 0) {
+			this.addFirst(item);
+		} else {
+			locate(index);
+			insertAt(foundChunk, foundIndex, item);
+		}
+	}
+
+	/**
+	 * Retrieves and removes the head of the list.
+	 *
+	 * @return the head of the list.
+	 */
+	public Item removeFirst() {
+		return removeAt(first, 0);
+	}
+
+	/**
+	 * Retrieves and removes the tail of the list.
+	 *
+	 * @return the tail of the list.
+	 */
+	public Item removeLast() {
+		return removeAt(last, last.count - 1);
+	}
+
+	/**
+	 * Retrieves and removes the item at the specified index.
+	 *
+	 * @param index
+	 *            the index of the item to be removed
+	 * @return the item previously at the specified index
+	 */
+	public Item remove(int index) {
+		rangeCheck(index);
+
+		if (index == 0) {
+			return this.removeFirst();
+		} else if (index == size() - 1) {
+			return this.removeLast();
+		} else {
+			locate(index);
+			return removeAt(foundChunk, foundIndex);
+		}
+	}
+
+	/**
+	 * Removes the first item equal to the specified item and returns it. If there
+	 * is none, returns null.
+	 *
+	 * @param item
+	 *            the item to be removed
+	 * @return the item that was removed
+	 */
+	public Item remove(Item item) {
+		for (Chunk chunk = first; chunk != null; chunk = chunk.next) {
+			for (int i = 0; i < chunk.count; i++) {
+				if (chunk.items[i].equals(item)) {
+					return removeAt(chunk, i);
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Sets foundChunk and foundIndex to the chunk and slot holding the item at
+	 * index, counting chunks from whichever end is nearer.
+	 *
+	 * @pre: 0 <= index < size()
+	 */
+	protected void locate(int index) {
+		if (index < n / 2) {
+			Chunk chunk = first;
+			while (index >= chunk.count) {
+				index -= chunk.count;
+				chunk = chunk.next;
+			}
+			foundChunk = chunk;
+			foundIndex = index;
+		} else {
+			int after = n - 1 - index; // items after the one wanted
+			Chunk chunk = last;
+			while (after >= chunk.count) {
+				after -= chunk.count;
+				chunk = chunk.prev;
+			}
+			foundChunk = chunk;
+			foundIndex = chunk.count - 1 - after;
+		}
+	}
+
+	/**
+	 * Inserts item before slot index of chunk (at its end if index is its
+	 * count), making room if the chunk is full, and sets foundChunk and
+	 * foundIndex to where it went.
+	 *
+	 * @pre: 0 <= index <= chunk.count
+	 */
+	protected void insertAt(Chunk chunk, int index, Item item) {
+		if (chunk.count == chunkSize) {
+			if (index == chunkSize) {
+				// goes at the end: into the next chunk if it has room, else a new one
+				if (chunk.next == null || chunk.next.count == chunkSize) {
+					linkChunkAfter(chunk, new Chunk());
+				}
+				chunk = chunk.next;
+				index = 0;
+			} else if (index == 0) {
+				// goes at the start: onto the end of the previous chunk if it has room, else a new one
+				if (chunk.prev == null || chunk.prev.count == chunkSize) {
+					linkChunkAfter(chunk.prev, new Chunk());
+				}
+				chunk = chunk.prev;
+				index = chunk.count;
+			} else {
+				// split in half, moving the upper half to a new chunk
+				Chunk upper = new Chunk();
+				int half = chunkSize / 2;
+				upper.count = chunkSize - half;
+				System.arraycopy(chunk.items, half, upper.items, 0, upper.count);
+				Arrays.fill(chunk.items, half, chunkSize, null);
+				chunk.count = half;
+				linkChunkAfter(chunk, upper);
+				if (index > half) {
+					chunk = upper;
+					index -= half;
+				}
+			}
+		}
+		System.arraycopy(chunk.items, index, chunk.items, index + 1, chunk.count - index);
+		chunk.items[index] = item;
+		chunk.count++;
+		n++;
+		foundChunk = chunk;
+		foundIndex = index;
+	}
+
+	/**
+	 * Removes the item in slot index of chunk, merging the chunk into a
+	 * neighbour if it is left less than half full and they fit in one, and sets
+	 * foundChunk and foundIndex to where the item that followed it now is.
+	 *
+	 * @pre: 0 <= index < chunk.count
+	 *
+	 * @return the item removed
+	 */
+	protected Item removeAt(Chunk chunk, int index) {
+		Item old = chunk.item(index);
+		System.arraycopy(chunk.items, index + 1, chunk.items, index, chunk.count - index - 1);
+		chunk.items[--chunk.count] = null;
+		n--;
+
+		if (chunk.count == 0) {
+			Chunk next = chunk.next;
+			unlinkChunk(chunk);
+			chunk = next;
+			index = 0;
+		} else if (chunk.count < chunkSize / 2) {
+			if (chunk.next != null && chunk.count + chunk.next.count <= chunkSize) {
+				// take in the items of the next chunk
+				Chunk next = chunk.next;
+				System.arraycopy(next.items, 0, chunk.items, chunk.count, next.count);
+				chunk.count += next.count;
+				unlinkChunk(next);
+			} else if (chunk.prev != null && chunk.prev.count + chunk.count <= chunkSize) {
+				// move the items onto the end of the previous chunk
+				Chunk prev = chunk.prev;
+				System.arraycopy(chunk.items, 0, prev.items, prev.count, chunk.count);
+				index += prev.count;
+				prev.count += chunk.count;
+				unlinkChunk(chunk);
+				chunk = prev;
+			}
+		}
+		if (chunk != null && index == chunk.count) {
+			chunk = chunk.next; // the successor starts the next chunk
+			index = 0;
+		}
+		foundChunk = chunk;
+		foundIndex = index;
+		return old;
+	}
+
+	/**
+	 * Links added into the list of chunks right after chunk, or at the head if
+	 * chunk is null.
+	 */
+	private void linkChunkAfter(Chunk chunk, Chunk added) {
+		added.prev = chunk;
+		added.next = chunk == null ? first : chunk.next;
+		if (added.next == null) {
+			last = added;
+		} else {
+			added.next.prev = added;
+		}
+		if (chunk == null) {
+			first = added;
+		} else {
+			chunk.next = added;
+		}
+	}
+
+	/**
+	 * Removes chunk from the list of chunks.
+	 */
+	private void unlinkChunk(Chunk chunk) {
+		if (chunk.prev != null) {
+			chunk.prev.next = chunk.next;
+		} else {
+			first = chunk.next;
+		}
+		if (chunk.next != null) {
+			chunk.next.prev = chunk.prev;
+		} else {
+			last = chunk.prev;
+		}
+	}
+
+	/**
+	 * remove all items from list
+	 */
+	public void clear() {
+		first = null;
+		last = null;
+		n = 0;
+	}
+
+	/**
+	 * @return number of chunks holding the items
+	 */
+	public int chunkCount() {
+		int ans = 0;
+		for (Chunk chunk = first; chunk != null; chunk = chunk.next) {
+			ans++;
+		}
+		return ans;
+	}
+
+	/**
+	 * A helper method to check if the specified index is in range.
+	 *
+	 * @param index
+	 *            the index to check
+	 */
+	private void rangeCheck(int index) {
+		if (index >= n || index < 0)
+			throw new IndexOutOfBoundsException("Index " + index + " out of bounds");
+	}
+
+	/**
+	 * Converts the list to a String.
+	 */
+	public String toString() {
+		if (isEmpty()) {
+			return "Unrolled Linked List: []";
+		}
+
+		StringBuilder ret = new StringBuilder("Unrolled Linked List: [<- ");
+		for (Item item : this) {
+			ret.append(item).append(" <-> ");
+		}
+		ret.setLength(ret.length() - 5);
+		ret.append(" ->] First: " + first.items[0] + ", Last: " + last.items[last.count - 1]);
+		return ret.toString();
+	}
+
+	/**
+	 * Constructs an iterator for the list.
+	 */
+	public Iterator<Item> iterator() {
+		return new ChunkIterator();
+	}
+
+	/**
+	 * An iterator walking the slots of each chunk in turn.
+	 */
+	private class ChunkIterator implements Iterator<Item> {
+		private Chunk chunk = first;
+		private int index;
+
+		public boolean hasNext() {
+			return chunk != null;
+		}
+
+		public Item next() {
+			if (chunk == null) {
+				throw new NoSuchElementException();
+			}
+			Item item = chunk.item(index++);
+			if (index == chunk.count) {
+				chunk = chunk.next;
+				index = 0;
+			}
+			return item;
+		}
+	}
+}
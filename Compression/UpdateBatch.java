@@ -0,0 +1,197 @@
+package compression;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * A batch of cell updates to be applied to a table all at once. Updates are
+ * sorted into the order of the cells of the table (row-major unless another
+ * CellOrder is given), later updates to a cell replace earlier ones, and runs
+ * of neighbouring cells given the same value are coalesced into a single fill.
+ * Applying the batch therefore makes one forward pass over the table rather
+ * than one search per update.
+ *
+ * @author cs62
+ * @param <E>
+ *            type of value stored in the table
+ */
+class UpdateBatch<E> {
+	private static final int INITIAL_CAPACITY = 16;
+
+	private int numRows, numCols; // dimensions of the table the batch is for
+	private CellOrder order; // order of the cells of the table, which offsets follow
+	private long[] offsets = new long[INITIAL_CAPACITY]; // offset of each update
+	private ArrayList<E> values = new ArrayList<E>(); // value of each update
+	private int size; // number of updates
+
+	/**
+	 * Constructor for an empty batch of updates to a rows x cols row-major table
+	 *
+	 * @param rows
+	 *            # of rows in table
+	 * @param cols
+	 *            # of columns in table
+	 */
+	public UpdateBatch(int rows, int cols) {
+		this(rows, cols, CellOrder.ROW_MAJOR);
+	}
+
+	/**
+	 * Constructor for an empty batch of updates to a rows x cols table whose
+	 * cells follow order
+	 *
+	 * @param rows
+	 *            # of rows in table
+	 * @param cols
+	 *            # of columns in table
+	 * @param order
+	 *            order of the cells of the table
+	 */
+	public UpdateBatch(int rows, int cols, CellOrder order) {
+		numRows = rows;
+		numCols = cols;
+		this.order = order;
+	}
+
+	/**
+	 * Adds an update of (row, col) to newInfo to the batch.
+	 *
+	 * @pre: (row,col) is legal cell in table and newInfo is not null
+	 *
+	 * @param row
+	 *            row of cell to be updated
+	 * @param col
+	 *            column of cell to be update
+	 * @param newInfo
+	 *            new value to place in cell (row, col)
+	 */
+	public void add(int row, int col, E newInfo) {
+		if (row < 0 || col < 0 || row >= numRows || col >= numCols) {
+			throw new IllegalArgumentException("Row or Column does not exist in current table");
+		} else if (newInfo == null) {
+			throw new IllegalArgumentException("Cannot store the null value in a table");
+		}
+		if (size == offsets.length) {
+			offsets = Arrays.copyOf(offsets, 2 * size);
+		}
+		offsets[size++] = order.offset(row, col, numRows, numCols);
+		values.add(newInfo);
+	}
+
+	/**
+	 * @return number of updates in the batch
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Applies every update in the batch to table, as if they had been applied one
+	 * at a time in the order they were added, and empties the batch. A
+	 * CompressedTable in the order of the batch is filled by offset; otherwise a
+	 * row-major range is filled with fillRange, and a range in another order cell
+	 * by cell.
+	 *
+	 * @param table
+	 *            table with the dimensions given to the constructor
+	 * @return number of ranges the updates were coalesced into
+	 */
+	public int applyTo(TwoDTable<E> table) {
+		int[] sorted = sortedByOffset();
+
+		int ranges = 0;
+		int i = 0;
+		while (i < size) {
+			// extend the range while the next update is to the same or the following cell
+			// and (once the last update to each cell is taken) has the same value
+			long from = offsets[sorted[i]];
+			long to = from;
+			E value = values.get(sorted[i]);
+			int j = i + 1;
+			while (j < size) {
+				long offset = offsets[sorted[j]];
+				if (offset == to) {
+					value = values.get(sorted[j]); // later update to the same cell wins
+				} else if (offset == to + 1 && lastValueAt(sorted, j).equals(value)) {
+					to = offset;
+				} else {
+					break;
+				}
+				j++;
+			}
+			fill(table, from, to, value);
+			ranges++;
+			i = j;
+		}
+
+		size = 0;
+		values.clear();
+		return ranges;
+	}
+
+	/**
+	 * Sets the cells at offsets from through to (inclusive) of table to value.
+	 */
+	private void fill(TwoDTable<E> table, long from, long to, E value) {
+		if (table instanceof CompressedTable && ((CompressedTable<E>) table).getOrder() == order) {
+			((CompressedTable<E>) table).fillOffsets(from, to, value);
+		} else if (order == CellOrder.ROW_MAJOR) {
+			table.fillRange((int) (from / numCols), (int) (from % numCols), (int) (to / numCols),
+					(int) (to % numCols), value);
+		} else {
+			for (long offset = from; offset <= to; offset++) {
+				RowOrderedPosn cell = order.position(offset, numRows, numCols);
+				table.updateInfo(cell.getRow(), cell.getCol(), value);
+			}
+		}
+	}
+
+	/**
+	 * Sorts the indexes of the updates by offset with a bottom-up merge sort,
+	 * which is stable, so updates to the same cell stay in the order they were
+	 * added.
+	 *
+	 * @return indexes of the updates in order of their offsets
+	 */
+	private int[] sortedByOffset() {
+		int[] sorted = new int[size];
+		for (int i = 0; i < size; i++) {
+			sorted[i] = i;
+		}
+		int[] buffer = new int[size];
+		for (int width = 1; width < size; width *= 2) {
+			for (int lo = 0; lo < size - width; lo += 2 * width) {
+				merge(sorted, buffer, lo, lo + width, Math.min(lo + 2 * width, size));
+			}
+		}
+		return sorted;
+	}
+
+	/**
+	 * Merges the sorted indexes from lo up to mid with those from mid up to hi,
+	 * taking from the first on equal offsets.
+	 */
+	private void merge(int[] sorted, int[] buffer, int lo, int mid, int hi) {
+		System.arraycopy(sorted, lo, buffer, lo, hi - lo);
+		int i = lo, j = mid;
+		for (int k = lo; k < hi; k++) {
+			if (j >= hi || (i < mid && offsets[buffer[i]] <= offsets[buffer[j]])) {
+				sorted[k] = buffer[i++];
+			} else {
+				sorted[k] = buffer[j++];
+			}
+		}
+	}
+
+	/**
+	 * @return value of the last of the updates, starting from sorted[j], that go
+	 *         to the same cell as sorted[j]
+	 */
+	private E lastValueAt(int[] sorted, int j) {
+		long offset = offsets[sorted[j]];
+		while (j + 1 < size && offsets[sorted[j + 1]] == offset) {
+			j++;
+		}
+		return values.get(sorted[j]);
+	}
+}
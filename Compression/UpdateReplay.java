@@ -0,0 +1,104 @@
+package compression;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Regression harness for CompressedTable.updateInfo. Replays random updates
+ * against a dense String[][] oracle, checking every update and reporting the
+ * cost of each one.
+ * 
+ * Usage: UpdateReplay [#updates [#rows #cols [#values]]]
+ *
+ * @author cs62
+ */
+public class UpdateReplay {
+
+	private static final int FULL_CHECK_EVERY = 100000; // updates between whole-table comparisons
+
+	/**
+	 * Replays the updates, throwing IllegalStateException at the first
+	 * disagreement with the oracle.
+	 * 
+	 * @param args
+	 *            optional number of updates, table dimensions and number of
+	 *            distinct values; the dimensions come as a pair or not at all
+	 */
+	public static void main(String[] args) {
+		if (args.length == 2 || args.length > 4) {
+			System.out.println("Usage: UpdateReplay [#updates [#rows #cols [#values]]]");
+			return;
+		}
+		int updates = args.length > 0 ? Integer.parseInt(args[0]) : 2000000;
+		int rows = args.length > 1 ? Integer.parseInt(args[1]) : 300;
+		int cols = args.length > 2 ? Integer.parseInt(args[2]) : 300;
+		int numValues = args.length > 3 ? Integer.parseInt(args[3]) : 4;
+
+		String[] values = new String[numValues];
+		for (int i = 0; i < numValues; i++) {
+			values[i] = String.valueOf((char) ('a' + i));
+		}
+
+		CompressedTable<String> table = new CompressedTable<String>(rows, cols, values[0]);
+		String[][] oracle = new String[rows][cols];
+		for (String[] row : oracle) {
+			Arrays.fill(row, values[0]);
+		}
+
+		Random rand = new Random(62);
+		long totalNanos = 0;
+		long worstNanos = 0;
+		for (int i = 1; i <= updates; i++) {
+			int r = rand.nextInt(rows);
+			int c = rand.nextInt(cols);
+			String val = values[rand.nextInt(numValues)];
+
+			long start = System.nanoTime();
+			table.updateInfo(r, c, val);
+			long elapsed = System.nanoTime() - start;
+			totalNanos += elapsed;
+			worstNanos = Math.max(worstNanos, elapsed);
+
+			oracle[r][c] = val;
+			if (!table.getInfo(r, c).equals(val)) {
+				throw new IllegalStateException("Update " + i + " of (" + r + "," + c + ") to " + val + " was lost");
+			}
+			if (i % FULL_CHECK_EVERY == 0) {
+				checkTable(table, oracle, i);
+			}
+		}
+		checkTable(table, oracle, updates);
+
+		System.out.println("updates:        " + updates);
+		System.out.println("runs at end:    " + table.tableInfo.size());
+		System.out.printf("ns per update:  %.1f%n", (double) totalNanos / updates);
+		System.out.println("worst update:   " + worstNanos + " ns");
+	}
+
+	/**
+	 * Compares every cell of table with oracle and checks that no two adjacent
+	 * runs hold the same value.
+	 */
+	private static void checkTable(CompressedTable<String> table, String[][] oracle, int update) {
+		StringBuilder expected = new StringBuilder();
+		int runs = 0;
+		String prev = null;
+		for (String[] row : oracle) {
+			for (String val : row) {
+				expected.append(val);
+				if (!val.equals(prev)) {
+					runs++;
+				}
+				prev = val;
+			}
+			expected.append("\n");
+		}
+		if (!expected.toString().equals(table.entireTable())) {
+			throw new IllegalStateException("Table differs from oracle after update " + update);
+		}
+		if (runs != table.tableInfo.size() || runs != table.runIndex.size()) {
+			throw new IllegalStateException("Expected " + runs + " runs after update " + update + " but list has "
+					+ table.tableInfo.size() + " and index has " + table.runIndex.size());
+		}
+	}
+}
@@ -0,0 +1,150 @@
+package compression;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Dictionary of the distinct values stored in a table. Each value is kept once
+ * and given a small int code, so that runs can hold the shared instance and
+ * compare codes instead of calling equals. Also keeps count of the runs and
+ * cells holding each value.
+ *
+ * A table keeps whichever of the counts it needs: CompressedTable both,
+ * PackedTable the runs and DenseTable the cells. Once neither count of a value
+ * is above 0 its code may be given to the next new value, so the codes in use
+ * stay dense: there are at most one more of them than the most distinct values
+ * the table has held at once, however many values have come and gone.
+ *
+ * @author cs62
+ * @param <E>
+ *            type of value stored in the table
+ */
+class ValueDictionary<E> {
+	private ArrayList<E> values = new ArrayList<E>(); // value with each code
+	private HashMap<E, Integer> codes = new HashMap<E, Integer>(); // code of each value
+	private int[] runCounts = new int[4]; // runs holding each code
+	private long[] cellCounts = new long[4]; // cells holding each code
+	private int[] unused = new int[4]; // codes whose counts have dropped to 0, to be recycled
+	private int numUnused; // number of codes in unused
+	private boolean[] listed = new boolean[4]; // whether each code is in unused
+
+	/**
+	 * @param value
+	 *            a value, not null
+	 * @return code of value, adding it to the dictionary if it is new, under the
+	 *         code of a value no run holds any more if there is one
+	 */
+	int intern(E value) {
+		Integer code = codes.get(value);
+		if (code == null) {
+			code = recycle();
+			if (code >= 0) {
+				codes.remove(values.get(code));
+				values.set(code, value);
+			} else {
+				code = values.size();
+				values.add(value);
+				if (code == runCounts.length) {
+					runCounts = Arrays.copyOf(runCounts, 2 * code);
+					cellCounts = Arrays.copyOf(cellCounts, 2 * code);
+					unused = Arrays.copyOf(unused, 2 * code);
+					listed = Arrays.copyOf(listed, 2 * code);
+				}
+			}
+			codes.put(value, code);
+		}
+		return code;
+	}
+
+	/**
+	 * @return a code that no run holds, taken off the unused list, or -1 if there
+	 *         is none
+	 */
+	private int recycle() {
+		while (numUnused > 0) {
+			int code = unused[--numUnused];
+			listed[code] = false;
+			if (runCounts[code] == 0 && cellCounts[code] == 0) { // it may have been interned again since it was listed
+				return code;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @param code
+	 *            code returned by intern
+	 * @return the stored instance of the value with that code
+	 */
+	public E value(int code) {
+		return values.get(code);
+	}
+
+	/**
+	 * @param value
+	 *            a value
+	 * @return code of value, or -1 if it is not in the dictionary
+	 */
+	public int code(E value) {
+		Integer code = codes.get(value);
+		return code == null ? -1 : code;
+	}
+
+	/**
+	 * @return number of codes handed out, some of which may belong to values no
+	 *         longer in the table; at most one more than the most distinct values
+	 *         the table has held at once
+	 */
+	public int size() {
+		return values.size();
+	}
+
+	/**
+	 * @param value
+	 *            a value
+	 * @return number of runs holding value
+	 */
+	public int runCount(E value) {
+		int code = code(value);
+		return code < 0 ? 0 : runCounts[code];
+	}
+
+	/**
+	 * @param value
+	 *            a value
+	 * @return number of cells holding value
+	 */
+	public long cellCount(E value) {
+		int code = code(value);
+		return code < 0 ? 0 : cellCounts[code];
+	}
+
+	/**
+	 * Adds change to the number of runs holding the value with code.
+	 */
+	void addRuns(int code, int change) {
+		runCounts[code] += change;
+		listIfUnused(code);
+	}
+
+	/**
+	 * Adds change to the number of cells holding the value with code.
+	 */
+	void addCells(int code, long change) {
+		cellCounts[code] += change;
+		listIfUnused(code);
+	}
+
+	/**
+	 * Lists a code with no runs or cells left for recycling. It keeps its value
+	 * until a new value is interned, so it stays usable for the rest of the
+	 * update.
+	 */
+	private void listIfUnused(int code) {
+		if (runCounts[code] == 0 && cellCounts[code] == 0 && !listed[code]) {
+			listed[code] = true;
+			unused[numUnused++] = code;
+		}
+	}
+}
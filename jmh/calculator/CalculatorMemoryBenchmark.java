@@ -0,0 +1,41 @@
+package calculator;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * push and pop on CalculatorMemory at several stack depths.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CalculatorMemoryBenchmark {
+
+	@Param({ "0", "1000", "100000" })
+	public int depth; // number of values below the one pushed
+
+	private CalculatorMemory memory;
+	private int next; // value to push next
+
+	@Setup
+	public void setUp() {
+		memory = new CalculatorMemory();
+		for (int i = 0; i < depth; i++) {
+			memory.push(i);
+		}
+	}
+
+	@Benchmark
+	public int pushPop() {
+		memory.push(next++);
+		return memory.pop();
+	}
+}
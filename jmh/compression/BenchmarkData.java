@@ -0,0 +1,146 @@
+package compression;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Inputs shared by the benchmarks: tables holding a given number of runs or a
+ * given kind of picture, lists of consecutive numbers, and cells chosen at
+ * random ahead of time so that choosing them is not part of what is measured.
+ *
+ * @author cs62
+ */
+class BenchmarkData {
+
+	static final int RANDOM_CELLS = 1 << 16; // numbers chosen ahead of time, a power of 2
+
+	/**
+	 * Writes "b" into evenly spaced cells of a table holding "a" everywhere, so
+	 * that it holds (about) the given number of runs.
+	 *
+	 * @param table
+	 *            table holding "a" everywhere
+	 * @param rows
+	 *            number of rows of table
+	 * @param cols
+	 *            number of columns of table
+	 * @param runs
+	 *            number of runs wanted
+	 * @return table
+	 */
+	static <T extends TwoDTable<String>> T withRuns(T table, int rows, int cols, int runs) {
+		long cells = (long) rows * cols;
+		long gap = Math.max(2, 2 * cells / runs);
+		for (long pos = gap / 2; pos < cells; pos += gap) {
+			table.updateInfo((int) (pos / cols), (int) (pos % cols), "b");
+		}
+		return table;
+	}
+
+	/**
+	 * @return side x side CompressedTable holding (about) runs runs
+	 */
+	static CompressedTable<String> table(int side, int runs) {
+		return withRuns(new CompressedTable<String>(side, side, "a"), side, side, runs);
+	}
+
+	/**
+	 * Fills a side x side table holding "a" everywhere with one of three
+	 * pictures: "blocky" (large random rectangles), "random" (scattered single
+	 * cells) or "striped" (columns of alternating values, 10 wide).
+	 *
+	 * @param table
+	 *            side x side table holding "a" everywhere
+	 * @param side
+	 *            number of rows and columns of table
+	 * @param input
+	 *            which picture to write
+	 * @return table
+	 */
+	static <T extends TwoDTable<String>> T withInput(T table, int side, String input) {
+		Random rand = new Random(62);
+		String[] vals = { "a", "b", "c", "d" };
+		if (input.equals("blocky")) {
+			for (int i = 0; i < 200; i++) {
+				int r0 = rand.nextInt(side), c0 = rand.nextInt(side);
+				table.fillRect(r0, c0, Math.min(side - 1, r0 + rand.nextInt(side / 4)),
+						Math.min(side - 1, c0 + rand.nextInt(side / 4)), vals[rand.nextInt(vals.length)]);
+			}
+		} else if (input.equals("random")) {
+			for (int i = 0; i < side * 10; i++) {
+				table.updateInfo(rand.nextInt(side), rand.nextInt(side), vals[rand.nextInt(vals.length)]);
+			}
+		} else {
+			for (int c = 0; c < side; c += 10) {
+				table.fillRect(0, c, side - 1, Math.min(side - 1, c + 9), vals[(c / 10) & 1]);
+			}
+		}
+		return table;
+	}
+
+	/**
+	 * @return list holding 0, 1, ..., size-1, with current at the head
+	 */
+	static CurDoublyLinkedList<Integer> list(int size) {
+		CurDoublyLinkedList<Integer> list = new CurDoublyLinkedList<Integer>();
+		for (int i = 0; i < size; i++) {
+			list.addLast(i);
+		}
+		list.first();
+		return list;
+	}
+
+	/**
+	 * @return unrolled list holding 0, 1, ..., size-1, with current at the head
+	 */
+	static CurUnrolledDoublyLinkedList<Integer> unrolledList(int size) {
+		CurUnrolledDoublyLinkedList<Integer> list = new CurUnrolledDoublyLinkedList<Integer>();
+		for (int i = 0; i < size; i++) {
+			list.addLast(i);
+		}
+		list.first();
+		return list;
+	}
+
+	/**
+	 * @return indexed list holding 0, 1, ..., size-1, with current at the head
+	 */
+	static CurIndexedDoublyLinkedList<Integer> indexedList(int size) {
+		CurIndexedDoublyLinkedList<Integer> list = new CurIndexedDoublyLinkedList<Integer>();
+		for (int i = 0; i < size; i++) {
+			list.addLast(i);
+		}
+		list.first();
+		return list;
+	}
+
+	/**
+	 * @return RANDOM_CELLS random numbers in [0, bound)
+	 */
+	static int[] randoms(int bound, long seed) {
+		Random rand = new Random(seed);
+		int[] ans = new int[RANDOM_CELLS];
+		for (int i = 0; i < ans.length; i++) {
+			ans[i] = rand.nextInt(bound);
+		}
+		return ans;
+	}
+
+	/**
+	 * Deletes a directory and the files in it.
+	 *
+	 * @param dir
+	 *            directory holding only files
+	 */
+	static void deleteDirectory(Path dir) throws IOException {
+		try (Stream<Path> files = Files.list(dir)) {
+			for (Path file : (Iterable<Path>) files::iterator) {
+				Files.delete(file);
+			}
+		}
+		Files.delete(dir);
+	}
+}
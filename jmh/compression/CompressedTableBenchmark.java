@@ -0,0 +1,92 @@
+package compression;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * getInfo, updateInfo, row-major scans and rendering on CompressedTable, with
+ * PackedTable alongside, over a range of table sizes and run counts. Run with
+ * -prof gc to see the bytes allocated per operation.
+ *
+ * @author cs62
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CompressedTableBenchmark {
+
+	@Param({ "compressed", "packed" })
+	public String impl;
+
+	@Param({ "100", "1000" })
+	public int side; // tables are side x side
+
+	@Param({ "100", "1000", "10000" })
+	public int runs; // about this many, at most one run per cell
+
+	private TwoDTable<String> table;
+	private int[] rows;
+	private int[] cols;
+	private int next; // index of the next random cell
+
+	@Setup
+	public void setUp() {
+		TwoDTable<String> empty = impl.equals("packed") ? new PackedTable<String>(side, side, "a")
+				: new CompressedTable<String>(side, side, "a");
+		table = BenchmarkData.withRuns(empty, side, side, runs);
+		rows = BenchmarkData.randoms(side, 1);
+		cols = BenchmarkData.randoms(side, 2);
+	}
+
+	@Benchmark
+	public String getInfo() {
+		int k = next++ & (BenchmarkData.RANDOM_CELLS - 1);
+		return table.getInfo(rows[k], cols[k]);
+	}
+
+	// writes a cell and then restores it, leaving the runs as they were
+	@Benchmark
+	public String updateInfo() {
+		int k = next++ & (BenchmarkData.RANDOM_CELLS - 1);
+		String old = table.getInfo(rows[k], cols[k]);
+		table.updateInfo(rows[k], cols[k], "c");
+		table.updateInfo(rows[k], cols[k], old);
+		return old;
+	}
+
+	// reads every cell in row-major order, which CompressedTable answers from its cursor
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public long scan() {
+		long sum = 0;
+		for (int r = 0; r < side; r++) {
+			for (int c = 0; c < side; c++) {
+				sum += table.getInfo(r, c).length();
+			}
+		}
+		return sum;
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public String entireTable() {
+		return table.entireTable();
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public StringBuilder writeTable() throws IOException {
+		StringBuilder out = new StringBuilder((side + 1) * side);
+		table.writeTable(out);
+		return out;
+	}
+}
@@ -0,0 +1,64 @@
+package compression;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * ConcurrentCompressedTable under a mix of 90% getInfo and 10% updateInfo on
+ * random cells of a 1000 x 1000 table. Throughput is reported for all threads
+ * together, so it shows how the table scales; run with -t 1, 2, 4, ... (or
+ * -Pjmh.threads) to vary the number of threads.
+ *
+ * @author cs62
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(4)
+public class ConcurrentTableBenchmark {
+
+	static final int SIDE = 1000; // table is SIDE x SIDE
+	static final String[] VALUES = { "a", "b" };
+
+	private ConcurrentCompressedTable<String> table;
+	private final AtomicInteger threads = new AtomicInteger(); // threads that have set up their cells
+
+	/**
+	 * Random cells of one thread, different for each thread.
+	 */
+	@State(Scope.Thread)
+	public static class Cells {
+		int[] cells;
+		int next; // index of the next random cell
+
+		@Setup
+		public void setUp(ConcurrentTableBenchmark shared) {
+			cells = BenchmarkData.randoms(SIDE * SIDE, shared.threads.getAndIncrement());
+		}
+	}
+
+	@Setup
+	public void setUp() {
+		table = new ConcurrentCompressedTable<String>(SIDE, SIDE, "a");
+	}
+
+	@Benchmark
+	public int mixed(Cells mine) {
+		int i = mine.next++;
+		int cell = mine.cells[i & (BenchmarkData.RANDOM_CELLS - 1)];
+		if (i % 10 == 0) {
+			table.updateInfo(cell / SIDE, cell % SIDE, VALUES[(i / 10) & 1]);
+			return 0;
+		}
+		return table.getInfo(cell / SIDE, cell % SIDE).length();
+	}
+}
@@ -0,0 +1,60 @@
+package compression;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * updateInfo on a 1000 x 1000 DurableTable in a temporary directory for a
+ * range of batch sizes, showing the cost of forcing the log to disk shared
+ * among the updates of each batch.
+ *
+ * @author cs62
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DurableTableBenchmark {
+
+	static final int SIDE = 1000; // table is SIDE x SIDE
+
+	@Param({ "1", "64", "1024" })
+	public int batchSize;
+
+	private Path dir;
+	private DurableTable table;
+	private int[] cells;
+	private int next; // index of the next random cell
+
+	@Setup
+	public void setUp() throws IOException {
+		dir = Files.createTempDirectory("durable-benchmark");
+		table = new DurableTable(dir, SIDE, SIDE, "a", batchSize, DurableTable.DEFAULT_COMPACT_BYTES);
+		cells = BenchmarkData.randoms(SIDE * SIDE, 21);
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		table.close();
+		BenchmarkData.deleteDirectory(dir);
+	}
+
+	@Benchmark
+	public long updateInfo() {
+		int i = next++;
+		int cell = cells[i & (BenchmarkData.RANDOM_CELLS - 1)];
+		table.updateInfo(cell / SIDE, cell % SIDE, (i & 1) == 0 ? "b" : "c");
+		return table.getCommits();
+	}
+}
@@ -0,0 +1,79 @@
+package compression;
+
+import org.openjdk.jol.info.GraphLayout;
+
+/**
+ * Prints the memory taken by the table and list implementations, measured
+ * with JOL by walking the objects each one reaches: bytes per run for
+ * CompressedTable and PackedTable, bytes and runs or leaves for CompressedTable
+ * and QuadTreeTable on blocky, random and striped pictures, and bytes per item
+ * for the lists, not counting the items themselves.
+ *
+ * Usage: gradle footprint
+ *
+ * @author cs62
+ */
+public class Footprint {
+
+	static final int SIDE = 1000; // tables are SIDE x SIDE
+	static final int ITEMS = 1000000; // items in each list
+
+	/**
+	 * @return bytes taken by the objects reachable from root
+	 */
+	static long bytes(Object root) {
+		return GraphLayout.parseInstance(root).totalSize();
+	}
+
+	/**
+	 * @return bytes taken by the objects reachable from list but not from items
+	 */
+	static long bytesWithout(Object list, Object[] items) {
+		return GraphLayout.parseInstance(list).subtract(GraphLayout.parseInstance((Object) items)).totalSize();
+	}
+
+	/**
+	 * Prints the footprints.
+	 *
+	 * @param args
+	 *            ignored
+	 */
+	public static void main(String[] args) {
+		System.out.println("table\truns\tbytes/run");
+		CompressedTable<String> linked = BenchmarkData.table(SIDE, 16000);
+		System.out.printf("compressed\t%d\t%.1f%n", linked.tableInfo.size(),
+				(double) bytes(linked) / linked.tableInfo.size());
+		PackedTable<String> packed = BenchmarkData.withRuns(new PackedTable<String>(SIDE, SIDE, "a"), SIDE, SIDE,
+				16000);
+		System.out.printf("packed\t%d\t%.1f%n", packed.runCount(), (double) bytes(packed) / packed.runCount());
+
+		System.out.println();
+		System.out.println("input\ttable\truns or leaves\tbytes");
+		for (String input : new String[] { "blocky", "random", "striped" }) {
+			CompressedTable<String> runs = BenchmarkData.withInput(new CompressedTable<String>(SIDE, SIDE, "a"),
+					SIDE, input);
+			System.out.printf("%s\tcompressed\t%d\t%d%n", input, runs.tableInfo.size(), bytes(runs));
+			QuadTreeTable<String> quad = BenchmarkData.withInput(new QuadTreeTable<String>(SIDE, SIDE, "a"), SIDE,
+					input);
+			System.out.printf("%s\tquadtree\t%d\t%d%n", input, quad.leafCount(), bytes(quad));
+		}
+
+		System.out.println();
+		System.out.println("list\tbytes/item");
+		Integer[] items = new Integer[ITEMS];
+		for (int i = 0; i < items.length; i++) {
+			items[i] = i;
+		}
+		CurDoublyLinkedList<Integer> list = new CurDoublyLinkedList<Integer>();
+		CurUnrolledDoublyLinkedList<Integer> unrolled = new CurUnrolledDoublyLinkedList<Integer>();
+		CurIndexedDoublyLinkedList<Integer> indexed = new CurIndexedDoublyLinkedList<Integer>();
+		for (Integer item : items) {
+			list.addLast(item);
+			unrolled.addLast(item);
+			indexed.addLast(item);
+		}
+		System.out.printf("linked\t%.1f%n", (double) bytesWithout(list, items) / ITEMS);
+		System.out.printf("unrolled\t%.1f%n", (double) bytesWithout(unrolled, items) / ITEMS);
+		System.out.printf("indexed\t%.1f%n", (double) bytesWithout(indexed, items) / ITEMS);
+	}
+}
@@ -0,0 +1,61 @@
+package compression;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Random positional get, add and remove on CurIndexedDoublyLinkedList up to
+ * millions of items. ListBenchmark.addRemoveAt measures the same edits on
+ * CurDoublyLinkedList, on the sizes a linear walk can manage.
+ *
+ * @author cs62
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class IndexedListBenchmark {
+
+	@Param({ "1000", "100000", "1000000", "4000000" })
+	public int size;
+
+	private CurIndexedDoublyLinkedList<Integer> indexed;
+	private int[] indices;
+	private int next; // index of the next random index
+
+	@Setup
+	public void setUp() {
+		indexed = BenchmarkData.indexedList(size);
+		indices = BenchmarkData.randoms(size, 23);
+	}
+
+	@Benchmark
+	public int get() {
+		return indexed.get(indices[next++ & (BenchmarkData.RANDOM_CELLS - 1)]);
+	}
+
+	// inserts at one random index and removes from another, keeping the size
+	@Benchmark
+	public int addRemoveAt() {
+		int k = next++;
+		indexed.add(indices[k & (BenchmarkData.RANDOM_CELLS - 1)], k);
+		return indexed.remove(indices[(k + 1) & (BenchmarkData.RANDOM_CELLS - 1)]);
+	}
+
+	@Benchmark
+	public int moveToCurrentIndex() {
+		indexed.moveTo(indices[next++ & (BenchmarkData.RANDOM_CELLS - 1)]);
+		indexed.next();
+		if (indexed.isOffRight()) {
+			indexed.first();
+		}
+		return indexed.currentIndex();
+	}
+}
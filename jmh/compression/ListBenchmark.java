@@ -0,0 +1,205 @@
+package compression;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.StreamSupport;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Cursor moves, edits at the cursor and positional access on
+ * CurDoublyLinkedList, with CurUnrolledDoublyLinkedList alongside, and
+ * building, iterating and streaming a DoublyLinkedList, on lists of each size.
+ * Footprint prints the memory each kind of list takes per item.
+ *
+ * @author cs62
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ListBenchmark {
+
+	@Param({ "1000", "100000" })
+	public int size;
+
+	private CurDoublyLinkedList<Integer> list;
+	private CurUnrolledDoublyLinkedList<Integer> unrolled;
+	private List<Integer> items; // 0, 1, ..., size-1
+	private int[] indices;
+	private int next; // index of the next random index
+
+	@Setup
+	public void setUp() {
+		list = BenchmarkData.list(size);
+		unrolled = BenchmarkData.unrolledList(size);
+		items = new ArrayList<Integer>();
+		for (int i = 0; i < size; i++) {
+			items.add(i);
+		}
+		indices = BenchmarkData.randoms(size, 22);
+	}
+
+	@Benchmark
+	public int next() {
+		list.next();
+		if (list.isOffRight()) {
+			list.first();
+		}
+		return list.current.item;
+	}
+
+	@Benchmark
+	public int back() {
+		list.back();
+		if (list.isOffLeft()) {
+			list.last();
+		}
+		return list.current.item;
+	}
+
+	// inserts a node after current and removes it again, moving current one step on
+	@Benchmark
+	public int addAfterCurrentRemoveCurrent() {
+		list.addAfterCurrent(-1);
+		list.removeCurrent();
+		if (list.current == null) {
+			list.first();
+		}
+		return list.current.item;
+	}
+
+	@Benchmark
+	public int get() {
+		return list.get(indices[next++ & (BenchmarkData.RANDOM_CELLS - 1)]);
+	}
+
+	// inserts at one random index and removes from another, keeping the size
+	@Benchmark
+	public int addRemoveAt() {
+		int k = next++;
+		list.add(indices[k & (BenchmarkData.RANDOM_CELLS - 1)], k);
+		return list.remove(indices[(k + 1) & (BenchmarkData.RANDOM_CELLS - 1)]);
+	}
+
+	@Benchmark
+	public int unrolledNext() {
+		unrolled.next();
+		if (unrolled.isOffRight()) {
+			unrolled.first();
+		}
+		return unrolled.currentValue();
+	}
+
+	@Benchmark
+	public int unrolledBack() {
+		unrolled.back();
+		if (unrolled.isOffLeft()) {
+			unrolled.last();
+		}
+		return unrolled.currentValue();
+	}
+
+	@Benchmark
+	public int unrolledAddAfterCurrentRemoveCurrent() {
+		unrolled.addAfterCurrent(-1);
+		unrolled.removeCurrent();
+		if (unrolled.isOffRight()) {
+			unrolled.first();
+		}
+		return unrolled.currentValue();
+	}
+
+	@Benchmark
+	public int unrolledGet() {
+		return unrolled.get(indices[next++ & (BenchmarkData.RANDOM_CELLS - 1)]);
+	}
+
+	// builds a new list of size items one addLast at a time
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public DoublyLinkedList<Integer> addLast() {
+		DoublyLinkedList<Integer> built = new DoublyLinkedList<Integer>();
+		for (Integer item : items) {
+			built.addLast(item);
+		}
+		return built;
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public DoublyLinkedList<Integer> addAll() {
+		DoublyLinkedList<Integer> built = new DoublyLinkedList<Integer>();
+		built.addAll(items);
+		return built;
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public long iteratorSum() {
+		long sum = 0;
+		for (Integer item : list) {
+			sum += item;
+		}
+		return sum;
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public long unrolledIteratorSum() {
+		long sum = 0;
+		for (Integer item : unrolled) {
+			sum += item;
+		}
+		return sum;
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public long streamSum() {
+		return StreamSupport.stream(list.spliterator(), false).mapToLong(Integer::longValue).sum();
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public long parallelStreamSum() {
+		return StreamSupport.stream(list.spliterator(), true).mapToLong(Integer::longValue).sum();
+	}
+
+	// grows a list from empty to size items, mostly inserting after current and
+	// occasionally stepping back or replacing
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public CurDoublyLinkedList<Integer> editStream() {
+		CurDoublyLinkedList<Integer> edited = new CurDoublyLinkedList<Integer>();
+		edited.addFirst(0);
+		for (int i = 1; i < size; i++) {
+			switch (i % 4) {
+			case 0:
+				edited.addBeforeCurrent(i);
+				break;
+			case 1:
+				edited.replaceCurrent(i);
+				edited.addAfterCurrent(i);
+				break;
+			case 2:
+				edited.back();
+				if (edited.isOffLeft()) {
+					edited.next();
+				}
+				edited.addAfterCurrent(i);
+				break;
+			default:
+				edited.addAfterCurrent(i);
+			}
+		}
+		return edited;
+	}
+}
@@ -0,0 +1,78 @@
+package compression;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Sustained update churn on a 1000 x 1000 CompressedTable of 16000 runs with
+ * the node pool off and on. Each operation flips a random cell to the other
+ * value and back, so runs keep being split and merged while their number
+ * stays put. The flips made, and the nodes taken from the pool or allocated
+ * while it was empty, are reported as secondary results; run with -prof gc for the bytes
+ * allocated and collections per operation.
+ *
+ * @author cs62
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class NodePoolBenchmark {
+
+	static final int SIDE = 1000; // table is SIDE x SIDE
+
+	@Param({ "0", "1024" })
+	public int capacity;
+
+	private CompressedTable<String> table;
+	private final Random rand = new Random(25);
+
+	/**
+	 * Flips, pool hits and pool misses during the current iteration.
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class PoolCounters {
+		public long flips;
+		public long poolHits;
+		public long poolMisses;
+
+		@Setup(Level.Iteration)
+		public void clear() {
+			flips = 0;
+			poolHits = 0;
+			poolMisses = 0;
+		}
+	}
+
+	@Setup
+	public void setUp() {
+		table = BenchmarkData.table(SIDE, 16000);
+		table.setNodePool(capacity);
+	}
+
+	@Benchmark
+	public String flip(PoolCounters counters) {
+		int row = rand.nextInt(SIDE);
+		int col = rand.nextInt(SIDE);
+		long hits = table.tableInfo.getPoolHits();
+		long misses = table.tableInfo.getPoolMisses();
+		String old = table.getInfo(row, col);
+		table.updateInfo(row, col, old.equals("a") ? "b" : "a");
+		table.updateInfo(row, col, old);
+		counters.flips++;
+		counters.poolHits += table.tableInfo.getPoolHits() - hits;
+		counters.poolMisses += table.tableInfo.getPoolMisses() - misses;
+		return old;
+	}
+}
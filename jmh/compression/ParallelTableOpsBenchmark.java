@@ -0,0 +1,62 @@
+package compression;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * ParallelTableOps rendering a 2000 x 2000 table and diffing two 10000 x 10000
+ * tables (frames differing in every 10th run), over a range of pool sizes.
+ *
+ * @author cs62
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ParallelTableOpsBenchmark {
+
+	@Param({ "1", "2", "4" })
+	public int threads;
+
+	private CompressedTable<String> frame;
+	private CompressedTable<String> before;
+	private CompressedTable<String> after;
+	private ForkJoinPool pool;
+
+	@Setup
+	public void setUp() {
+		frame = BenchmarkData.table(2000, 10000);
+		before = BenchmarkData.table(10000, 100000);
+		after = BenchmarkData.table(10000, 100000);
+		for (int i = 0; i < 100000; i += 10) {
+			int cell = (int) ((long) i * 10000 * 10000 / 100000);
+			after.updateInfo(cell / 10000, cell % 10000, "c");
+		}
+		pool = new ForkJoinPool(threads);
+	}
+
+	@TearDown
+	public void tearDown() {
+		pool.shutdown();
+	}
+
+	@Benchmark
+	public String entireTable() {
+		return ParallelTableOps.entireTable(frame, pool);
+	}
+
+	@Benchmark
+	public List<TableRegion> diff() {
+		return ParallelTableOps.diff(before, after, pool);
+	}
+}
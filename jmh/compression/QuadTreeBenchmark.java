@@ -0,0 +1,61 @@
+package compression;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * getInfo and fillRect on QuadTreeTable against CompressedTable, for blocky,
+ * random and striped pictures on a 1000 x 1000 table. Footprint prints the
+ * memory each of them takes.
+ *
+ * @author cs62
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class QuadTreeBenchmark {
+
+	static final int SIDE = 1000; // tables are SIDE x SIDE
+
+	@Param({ "compressed", "quadtree" })
+	public String impl;
+
+	@Param({ "blocky", "random", "striped" })
+	public String input;
+
+	private TwoDTable<String> table;
+	private int[] corners; // random cells, rows and columns alternating
+	private int[] sizes; // random rectangle sides up to 100
+	private int next; // index of the next random cell
+
+	@Setup
+	public void setUp() {
+		TwoDTable<String> empty = impl.equals("quadtree") ? new QuadTreeTable<String>(SIDE, SIDE, "a")
+				: new CompressedTable<String>(SIDE, SIDE, "a");
+		table = BenchmarkData.withInput(empty, SIDE, input);
+		corners = BenchmarkData.randoms(SIDE - 100, 62);
+		sizes = BenchmarkData.randoms(100, 63);
+	}
+
+	@Benchmark
+	public String getInfo() {
+		int k = next++ & (BenchmarkData.RANDOM_CELLS - 2);
+		return table.getInfo(corners[k], corners[k + 1]);
+	}
+
+	// fills a random rectangle up to 100 x 100, alternating values so the table keeps changing
+	@Benchmark
+	public void fillRect() {
+		int k = next++ & (BenchmarkData.RANDOM_CELLS - 2);
+		int r0 = corners[k], c0 = corners[k + 1];
+		table.fillRect(r0, c0, r0 + sizes[k], c0 + sizes[k + 1], (next & 2) == 0 ? "b" : "c");
+	}
+}
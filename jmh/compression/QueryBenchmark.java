@@ -0,0 +1,70 @@
+package compression;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * count and histogram on a 10000 x 10000 table (10^8 cells) holding 100000
+ * runs: counting a 1000 x 1000 rectangle by walking its runs, or from prefix
+ * counts, against looking up each of its cells, and a histogram of rows 1000
+ * through 8999.
+ *
+ * @author cs62
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class QueryBenchmark {
+
+	static final int SIDE = 10000; // table is SIDE x SIDE
+	static final int RECT = 1000; // counted rectangles are RECT x RECT
+
+	@Param({ "false", "true" })
+	public boolean prefixCounts;
+
+	private CompressedTable<String> table;
+	private int[] corners; // random cells, rows and columns alternating
+	private int next; // index of the next random rectangle
+
+	@Setup
+	public void setUp() {
+		table = BenchmarkData.table(SIDE, 100000);
+		table.setPrefixCounts(prefixCounts);
+		corners = BenchmarkData.randoms(SIDE - RECT, 19);
+	}
+
+	@Benchmark
+	public long count() {
+		int k = next++ & (BenchmarkData.RANDOM_CELLS - 2);
+		int r = corners[k], c = corners[k + 1];
+		return table.count(r, c, r + RECT - 1, c + RECT - 1, "b");
+	}
+
+	// the same count made by looking up every cell of the rectangle
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public long countByGetInfo() {
+		int k = next++ & (BenchmarkData.RANDOM_CELLS - 2);
+		int r0 = corners[k], c0 = corners[k + 1];
+		long sum = 0;
+		for (int r = r0; r < r0 + RECT; r++) {
+			for (int c = c0; c < c0 + RECT; c++) {
+				sum += table.getInfo(r, c).equals("b") ? 1 : 0;
+			}
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public int histogram() {
+		return table.histogram(1000, 0, 8999, SIDE - 1).size();
+	}
+}